@@ -30,6 +30,15 @@ android {
     compileOptions {
         sourceCompatibility = JavaVersion.VERSION_11
         targetCompatibility = JavaVersion.VERSION_11
+        // java.time on API 24/25
+        isCoreLibraryDesugaringEnabled = true
+    }
+    buildFeatures {
+        buildConfig = true
+    }
+    // AppLog writes to android.util.Log, which only returns defaults in local unit tests
+    testOptions {
+        unitTests.isReturnDefaultValues = true
     }
 }
 
@@ -39,6 +48,9 @@ dependencies {
     implementation(libs.material)
     implementation(libs.activity)
     implementation(libs.constraintlayout)
+    // ConcatAdapter, for the home screen header
+    implementation(libs.recyclerview)
+    implementation(libs.swiperefreshlayout)
     implementation(libs.firebase.auth)
     implementation(libs.firebase.firestore)
     implementation(libs.navigation.fragment)
@@ -50,5 +62,6 @@ dependencies {
     implementation ("com.github.ismaeldivita:chip-navigation-bar:1.4.0")
     implementation ("com.squareup.picasso:picasso:2.71828")
     implementation("com.google.zxing:core:3.4.1")
+    coreLibraryDesugaring("com.android.tools:desugar_jdk_libs:2.1.4")
 
 }
\ No newline at end of file
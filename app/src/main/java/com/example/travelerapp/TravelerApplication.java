@@ -0,0 +1,91 @@
+package com.example.travelerapp;
+
+import android.app.Activity;
+import android.app.Application;
+import android.content.BroadcastReceiver;
+import android.content.Context;
+import android.content.Intent;
+import android.content.IntentFilter;
+import android.os.Bundle;
+
+import com.example.travelerapp.repository.BookingOutbox;
+import com.example.travelerapp.repository.TourRepository;
+import com.example.travelerapp.util.AppLog;
+import com.example.travelerapp.util.DateFormats;
+import com.example.travelerapp.util.Dispatcher;
+import com.example.travelerapp.util.MemoryBudget;
+
+/**
+ * Tracks whether any activity is visible so app-wide stores can keep their
+ * Firestore listeners attached only while the app is in the foreground.
+ */
+public class TravelerApplication extends Application {
+    private static final String TAG = "TravelerApplication";
+    private int startedActivities = 0;
+
+    @Override
+    public void onCreate() {
+        super.onCreate();
+
+        // Put the recent log history next to the stack trace of a crash
+        Thread.UncaughtExceptionHandler defaultHandler = Thread.getDefaultUncaughtExceptionHandler();
+        Thread.setDefaultUncaughtExceptionHandler((thread, throwable) -> {
+            AppLog.dump();
+            if (defaultHandler != null) {
+                defaultHandler.uncaughtException(thread, throwable);
+            }
+        });
+
+        // Caches register with the budget as they are created and shed under memory pressure
+        registerComponentCallbacks(MemoryBudget.getInstance());
+
+        // Replay bookings and payments that were recorded but not synced before the app was killed
+        BookingOutbox.initialize(this);
+
+        // Cached date labels are rendered for the old locale and zone
+        IntentFilter dateFormatFilter = new IntentFilter(Intent.ACTION_TIMEZONE_CHANGED);
+        dateFormatFilter.addAction(Intent.ACTION_LOCALE_CHANGED);
+        registerReceiver(new BroadcastReceiver() {
+            @Override
+            public void onReceive(Context context, Intent intent) {
+                DateFormats.clearCaches();
+            }
+        }, dateFormatFilter);
+
+        registerActivityLifecycleCallbacks(new ActivityLifecycleCallbacks() {
+            @Override
+            public void onActivityStarted(Activity activity) {
+                if (startedActivities++ == 0) {
+                    TourRepository.getInstance(TravelerApplication.this).onAppForeground();
+                }
+            }
+
+            @Override
+            public void onActivityStopped(Activity activity) {
+                // A configuration change restarts the activity right away, keep listening
+                if (--startedActivities == 0 && !activity.isChangingConfigurations()) {
+                    TourRepository.getInstance(TravelerApplication.this).onAppBackground();
+                    // Pool counters for the session, to size the pools from real use
+                    for (Dispatcher.Stats stats : Dispatcher.getStats()) {
+                        AppLog.i(TAG, "{}", stats);
+                    }
+                }
+            }
+
+            @Override
+            public void onActivityCreated(Activity activity, Bundle savedInstanceState) { }
+
+            @Override
+            public void onActivityResumed(Activity activity) { }
+
+            @Override
+            public void onActivityPaused(Activity activity) { }
+
+            @Override
+            public void onActivitySaveInstanceState(Activity activity, Bundle outState) { }
+
+            @Override
+            public void onActivityDestroyed(Activity activity) { }
+        });
+    }
+}
@@ -6,12 +6,16 @@ import android.os.Parcelable;
 import com.google.firebase.Timestamp;
 import com.google.firebase.auth.FirebaseAuth;
 import com.google.firebase.auth.FirebaseUser;
+import com.google.firebase.firestore.DocumentSnapshot;
 
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
 
 public class Booking implements Parcelable {
+    // A pending booking must be paid within this long of being made, or it expires
+    public static final long PAYMENT_WINDOW_MS = 2 * 60 * 60 * 1000;
+
     private String id;
     private String userId;
     private String participantName;
@@ -20,8 +24,10 @@ public class Booking implements Parcelable {
     private String tourId;
     private Date tourDateStart;
     private int numberOfPerson = 1;  // This represents total visitors
-    private double totalPrice = 0.0;
+    private Money totalPrice = Money.ZERO_VND;
     private String paymentStatus;
+    private String dateOptionId; // The availableDates document the booking takes seats on
+    private Date createdAt;
 
     // Local-only properties
     private String tourName;
@@ -32,7 +38,7 @@ public class Booking implements Parcelable {
     public Booking() {
         // Default constructor required for Firestore
         this.numberOfPerson = 1; // Default to 1 visitor
-        this.paymentStatus = "pending"; // Default status
+        this.paymentStatus = BookingStatus.PENDING.getValue(); // Default status
 
         // Set user info from Firebase Auth if available
         FirebaseUser currentUser = FirebaseAuth.getInstance().getCurrentUser();
@@ -49,6 +55,25 @@ public class Booking implements Parcelable {
         this.tourName = tourName;
     }
 
+    public Booking(Booking other) {
+        this.id = other.id;
+        this.userId = other.userId;
+        this.participantName = other.participantName;
+        this.participantEmail = other.participantEmail;
+        this.participantPhoneNumber = other.participantPhoneNumber;
+        this.tourId = other.tourId;
+        this.tourDateStart = other.tourDateStart;
+        this.numberOfPerson = other.numberOfPerson;
+        this.totalPrice = other.totalPrice;
+        this.paymentStatus = other.paymentStatus;
+        this.dateOptionId = other.dateOptionId;
+        this.createdAt = other.createdAt;
+        this.tourName = other.tourName;
+        this.tourImageUrl = other.tourImageUrl;
+        this.tourImageResourceId = other.tourImageResourceId;
+        this.selectedDateOption = other.selectedDateOption;
+    }
+
     // Parcelable implementation
     protected Booking(Parcel in) {
         id = in.readString();
@@ -60,11 +85,14 @@ public class Booking implements Parcelable {
         long tmpDate = in.readLong();
         tourDateStart = tmpDate != -1 ? new Date(tmpDate) : null;
         numberOfPerson = in.readInt();
-        totalPrice = in.readDouble();
+        totalPrice = Money.vnd(in.readLong());
         paymentStatus = in.readString();
         tourName = in.readString();
         tourImageUrl = in.readString();
         tourImageResourceId = in.readInt();
+        dateOptionId = in.readString();
+        long tmpCreatedAt = in.readLong();
+        createdAt = tmpCreatedAt != -1 ? new Date(tmpCreatedAt) : null;
 
         // Safely read the BookingDateOption, handling potential ClassNotFoundException
         try {
@@ -84,11 +112,13 @@ public class Booking implements Parcelable {
         dest.writeString(tourId);
         dest.writeLong(tourDateStart != null ? tourDateStart.getTime() : -1);
         dest.writeInt(numberOfPerson);
-        dest.writeDouble(totalPrice);
+        dest.writeLong(totalPrice.getMinorUnits());
         dest.writeString(paymentStatus);
         dest.writeString(tourName);
         dest.writeString(tourImageUrl);
         dest.writeInt(tourImageResourceId);
+        dest.writeString(dateOptionId);
+        dest.writeLong(createdAt != null ? createdAt.getTime() : -1);
         dest.writeParcelable(selectedDateOption, flags);
     }
 
@@ -125,13 +155,47 @@ public class Booking implements Parcelable {
         }
 
         booking.put("numberOfPerson", numberOfPerson);
-        booking.put("totalPrice", totalPrice);
+        booking.put("totalPrice", totalPrice.toFirestore());
         booking.put("paymentStatus", paymentStatus);
-        booking.put("createdAt", new Timestamp(new Date())); // Add creation timestamp
+        if (dateOptionId != null) {
+            booking.put("dateOptionId", dateOptionId);
+        }
+        // The payment deadline counts from here, so keep the time the booking was made
+        booking.put("createdAt", new Timestamp(createdAt != null ? createdAt : new Date()));
+
+        return booking;
+    }
 
+    // Reads the fields written by toFirestore; Money cannot be mapped by toObject()
+    public static Booking fromFirestore(DocumentSnapshot document) {
+        Booking booking = new Booking();
+        booking.setId(document.getId());
+        booking.setUserId(document.getString("userId"));
+        booking.setParticipantName(document.getString("participantName"));
+        booking.setParticipantEmail(document.getString("participantEmail"));
+        booking.setParticipantPhoneNumber(document.getString("participantPhoneNumber"));
+        booking.setTourId(document.getString("tourId"));
+        booking.setTourName(document.getString("tourName"));
+        booking.setTourDateStart(document.getDate("tourDateStart"));
+        Long numberOfPerson = document.getLong("numberOfPerson");
+        booking.setNumberOfPerson(numberOfPerson != null ? numberOfPerson.intValue() : 1);
+        Money totalPrice = Money.fromFirestore(document.get("totalPrice"));
+        booking.setTotalPrice(totalPrice != null ? totalPrice : Money.ZERO_VND);
+        booking.setPaymentStatus(document.getString("paymentStatus"));
+        booking.setDateOptionId(document.getString("dateOptionId"));
+        booking.setCreatedAt(document.getDate("createdAt"));
         return booking;
     }
 
+    // Null for bookings stored without a creation time, which have no deadline
+    public Date getPaymentDeadline() {
+        return getPaymentDeadline(createdAt);
+    }
+
+    public static Date getPaymentDeadline(Date createdAt) {
+        return createdAt != null ? new Date(createdAt.getTime() + PAYMENT_WINDOW_MS) : null;
+    }
+
     // All getters and setters remain the same
     public String getId() {
         return id;
@@ -197,11 +261,11 @@ public class Booking implements Parcelable {
         this.numberOfPerson = numberOfPerson;
     }
 
-    public double getTotalPrice() {
+    public Money getTotalPrice() {
         return totalPrice;
     }
 
-    public void setTotalPrice(double totalPrice) {
+    public void setTotalPrice(Money totalPrice) {
         this.totalPrice = totalPrice;
     }
 
@@ -213,6 +277,22 @@ public class Booking implements Parcelable {
         this.paymentStatus = paymentStatus;
     }
 
+    public Date getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(Date createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public String getDateOptionId() {
+        return dateOptionId;
+    }
+
+    public void setDateOptionId(String dateOptionId) {
+        this.dateOptionId = dateOptionId;
+    }
+
     public String getTourName() {
         return tourName;
     }
@@ -245,6 +325,7 @@ public class Booking implements Parcelable {
         this.selectedDateOption = selectedDateOption;
         if (selectedDateOption != null) {
             this.tourDateStart = selectedDateOption.getDate();
+            this.dateOptionId = selectedDateOption.getId();
         }
     }
 
@@ -11,7 +11,7 @@ public class BookingDateOption implements Parcelable {
     private String id;
     private Date date;
     private int dayOfWeek;
-    private double price;
+    private Money price = Money.ZERO_VND;
     private boolean isHoliday;
     private boolean isSelected;
     private boolean isAvailable;
@@ -20,7 +20,7 @@ public class BookingDateOption implements Parcelable {
     public BookingDateOption() {
     }
 
-    public BookingDateOption(String id, Date date, int dayOfWeek, double price, boolean isHoliday) {
+    public BookingDateOption(String id, Date date, int dayOfWeek, Money price, boolean isHoliday) {
         this.id = id;
         this.date = date;
         this.dayOfWeek = dayOfWeek;
@@ -30,13 +30,24 @@ public class BookingDateOption implements Parcelable {
         this.isAvailable = true;
     }
 
+    // Copy constructor, so cached date lists are never changed by a screen's selection
+    public BookingDateOption(BookingDateOption other) {
+        this.id = other.id;
+        this.date = other.date;
+        this.dayOfWeek = other.dayOfWeek;
+        this.price = other.price;
+        this.isHoliday = other.isHoliday;
+        this.isSelected = other.isSelected;
+        this.isAvailable = other.isAvailable;
+    }
+
     // Parcelable implementation
     protected BookingDateOption(Parcel in) {
         id = in.readString();
         long tmpDate = in.readLong();
         date = tmpDate != -1 ? new Date(tmpDate) : null;
         dayOfWeek = in.readInt();
-        price = in.readDouble();
+        price = Money.vnd(in.readLong());
         isHoliday = in.readByte() != 0;
         isSelected = in.readByte() != 0;
         isAvailable = in.readByte() != 0;
@@ -47,7 +58,7 @@ public class BookingDateOption implements Parcelable {
         dest.writeString(id);
         dest.writeLong(date != null ? date.getTime() : -1);
         dest.writeInt(dayOfWeek);
-        dest.writeDouble(price);
+        dest.writeLong(price.getMinorUnits());
         dest.writeByte((byte) (isHoliday ? 1 : 0));
         dest.writeByte((byte) (isSelected ? 1 : 0));
         dest.writeByte((byte) (isAvailable ? 1 : 0));
@@ -107,13 +118,9 @@ public class BookingDateOption implements Parcelable {
         }
 
         // Get price
-        if (document.contains("price")) {
-            Object priceObj = document.get("price");
-            if (priceObj instanceof Double) {
-                option.price = (Double) priceObj;
-            } else if (priceObj instanceof Long) {
-                option.price = ((Long) priceObj).doubleValue();
-            }
+        Money price = Money.fromFirestore(document.get("price"));
+        if (price != null) {
+            option.price = price;
         }
 
         // Get isHoliday
@@ -153,11 +160,11 @@ public class BookingDateOption implements Parcelable {
         this.dayOfWeek = dayOfWeek;
     }
 
-    public double getPrice() {
+    public Money getPrice() {
         return price;
     }
 
-    public void setPrice(double price) {
+    public void setPrice(Money price) {
         this.price = price;
     }
 
@@ -10,7 +10,8 @@ public class BookingDetailsModel {
     private int tourImageResourceId;
     private int visitorCount;
     private Date bookingDate;
-    private double totalPrice;
+    private String dateOptionId;
+    private Money totalPrice = Money.ZERO_VND;
 
     // Contact details
     private String contactName;
@@ -35,12 +36,14 @@ public class BookingDetailsModel {
 
     // Copy constructor to create from a Booking
     public BookingDetailsModel(Booking booking) {
+        this.id = booking.getId();
         this.tourId = booking.getTourId();
         this.tourName = booking.getTourName();
         this.tourImageUrl = booking.getTourImageUrl();
         this.tourImageResourceId = booking.getTourImageResourceId();
         this.visitorCount = booking.getNumberOfPerson();
         this.bookingDate = booking.getTourDateStart();
+        this.dateOptionId = booking.getDateOptionId();
         this.totalPrice = booking.getTotalPrice();
         this.isContactFilled = false;
         this.isLocationFilled = false;
@@ -103,11 +106,19 @@ public class BookingDetailsModel {
         this.bookingDate = bookingDate;
     }
 
-    public double getTotalPrice() {
+    public String getDateOptionId() {
+        return dateOptionId;
+    }
+
+    public void setDateOptionId(String dateOptionId) {
+        this.dateOptionId = dateOptionId;
+    }
+
+    public Money getTotalPrice() {
         return totalPrice;
     }
 
-    public void setTotalPrice(double totalPrice) {
+    public void setTotalPrice(Money totalPrice) {
         this.totalPrice = totalPrice;
     }
 
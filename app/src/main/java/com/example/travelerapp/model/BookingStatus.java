@@ -0,0 +1,51 @@
+package com.example.travelerapp.model;
+
+/**
+ * Lifecycle of a booking, stored in its paymentStatus field. A booking starts pending,
+ * becomes paid when the payment is confirmed and confirmed once the provider accepts it;
+ * a pending booking that is not paid in time expires.
+ */
+public enum BookingStatus {
+    PENDING("pending"),
+    PAID("paid"),
+    CONFIRMED("confirmed"),
+    EXPIRED("expired");
+
+    private final String value;
+
+    BookingStatus(String value) {
+        this.value = value;
+    }
+
+    public String getValue() {
+        return value;
+    }
+
+    // Bookings paid before the state machine existed are stored as "completed"
+    public static BookingStatus fromValue(String value) {
+        if ("completed".equals(value)) {
+            return PAID;
+        }
+        for (BookingStatus status : values()) {
+            if (status.value.equals(value)) {
+                return status;
+            }
+        }
+        return PENDING;
+    }
+
+    public boolean canMoveTo(BookingStatus next) {
+        switch (this) {
+            case PENDING:
+                return next == PAID || next == EXPIRED;
+            case PAID:
+                return next == CONFIRMED;
+            default:
+                return false;
+        }
+    }
+
+    public boolean isPaid() {
+        return this == PAID || this == CONFIRMED;
+    }
+}
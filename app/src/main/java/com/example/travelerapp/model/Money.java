@@ -0,0 +1,156 @@
+package com.example.travelerapp.model;
+
+import java.util.Currency;
+
+/**
+ * Immutable amount of money stored as a whole number of minor units (đồng for VND,
+ * cents for USD) with its ISO currency code, so totals are exact. Formatting builds the
+ * "1,500,000 VND" text by hand and caches it, without going through String.format.
+ */
+public final class Money {
+    public static final String VND = "VND";
+    public static final Money ZERO_VND = new Money(0, VND, 0);
+
+    private final long minorUnits;
+    private final String currency;
+    private final int fractionDigits;
+    private String formatted;
+
+    private Money(long minorUnits, String currency, int fractionDigits) {
+        this.minorUnits = minorUnits;
+        this.currency = currency;
+        this.fractionDigits = fractionDigits;
+    }
+
+    public static Money of(long minorUnits, String currency) {
+        if (VND.equals(currency)) {
+            return vnd(minorUnits);
+        }
+        int digits = Currency.getInstance(currency).getDefaultFractionDigits();
+        return new Money(minorUnits, currency, Math.max(digits, 0));
+    }
+
+    public static Money vnd(long dong) {
+        return dong == 0 ? ZERO_VND : new Money(dong, VND, 0);
+    }
+
+    /**
+     * Decodes a Firestore VND amount field, stored as a number of đồng. Doubles written
+     * by older app versions are rounded. Returns null for a missing or unparseable value.
+     */
+    public static Money fromFirestore(Object value) {
+        if (value instanceof Long || value instanceof Integer) {
+            return vnd(((Number) value).longValue());
+        } else if (value instanceof Double) {
+            return vnd(Math.round((Double) value));
+        } else if (value instanceof String) {
+            try {
+                return vnd(Math.round(Double.parseDouble((String) value)));
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+        return null;
+    }
+
+    // Firestore value for this amount; VND has no minor unit, so this is a whole number of đồng
+    public Object toFirestore() {
+        return minorUnits;
+    }
+
+    public long getMinorUnits() {
+        return minorUnits;
+    }
+
+    public String getCurrency() {
+        return currency;
+    }
+
+    public boolean isPositive() {
+        return minorUnits > 0;
+    }
+
+    public boolean isLessThan(Money other) {
+        checkCurrency(other);
+        return minorUnits < other.minorUnits;
+    }
+
+    public Money plus(Money other) {
+        checkCurrency(other);
+        return other.minorUnits == 0 ? this : withMinorUnits(Math.addExact(minorUnits, other.minorUnits));
+    }
+
+    public Money times(int quantity) {
+        return quantity == 1 ? this : withMinorUnits(Math.multiplyExact(minorUnits, (long) quantity));
+    }
+
+    // Scales by a whole percentage, rounding half up, e.g. 120 for a 20% surcharge
+    public Money timesPercent(int percent) {
+        long scaled = Math.multiplyExact(minorUnits, (long) percent);
+        return withMinorUnits(Math.floorDiv(scaled + 50, 100));
+    }
+
+    // "1,500,000 VND"
+    public String format() {
+        String result = formatted;
+        if (result == null) {
+            result = buildFormatted();
+            formatted = result;
+        }
+        return result;
+    }
+
+    private String buildFormatted() {
+        StringBuilder builder = new StringBuilder(24);
+        long value = Math.abs(minorUnits);
+        long divisor = 1;
+        for (int i = 0; i < fractionDigits; i++) {
+            divisor *= 10;
+        }
+        long major = value / divisor;
+
+        if (minorUnits < 0) {
+            builder.append('-');
+        }
+        String digits = Long.toString(major);
+        int firstGroup = digits.length() % 3 == 0 ? 3 : digits.length() % 3;
+        builder.append(digits, 0, firstGroup);
+        for (int i = firstGroup; i < digits.length(); i += 3) {
+            builder.append(',').append(digits, i, i + 3);
+        }
+
+        if (fractionDigits > 0) {
+            String minor = Long.toString(value % divisor + divisor);
+            builder.append('.').append(minor, 1, minor.length());
+        }
+        return builder.append(' ').append(currency).toString();
+    }
+
+    private Money withMinorUnits(long newMinorUnits) {
+        return newMinorUnits == minorUnits ? this : new Money(newMinorUnits, currency, fractionDigits);
+    }
+
+    private void checkCurrency(Money other) {
+        if (!currency.equals(other.currency)) {
+            throw new IllegalArgumentException("Currency mismatch: " + currency + " and " + other.currency);
+        }
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof Money)) return false;
+        Money other = (Money) o;
+        return minorUnits == other.minorUnits && currency.equals(other.currency);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * Long.hashCode(minorUnits) + currency.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return format();
+    }
+}
@@ -1,6 +1,7 @@
 package com.example.travelerapp.model;
 
-import java.text.SimpleDateFormat;
+import com.example.travelerapp.util.DateFormats;
+
 import java.util.Date;
 import java.util.Locale;
 import java.util.concurrent.TimeUnit;
@@ -13,16 +14,14 @@ public class PaymentModel {
     private Date tourStartDate;
     private Date tourEndDate;
     private int numberOfTravelers;
-    private double totalAmount;
-    private String currency;
+    private Money totalAmount = Money.ZERO_VND;
     private Date paymentDeadline;
     private long remainingTimeInSeconds;
     private String paymentStatus;
 
     public PaymentModel() {
         // Default constructor
-        this.currency = "VND";
-        this.paymentStatus = "pending";
+        this.paymentStatus = BookingStatus.PENDING.getValue();
     }
 
     // Constructor from Booking
@@ -33,13 +32,14 @@ public class PaymentModel {
         this.tourName = booking.getTourName();
         this.tourStartDate = booking.getTourDateStart();
         // Assuming a 3-day tour by default, can be modified
-        this.tourEndDate = new Date(booking.getTourDateStart().getTime() + TimeUnit.DAYS.toMillis(3));
+        if (tourStartDate != null) {
+            this.tourEndDate = new Date(tourStartDate.getTime() + TimeUnit.DAYS.toMillis(3));
+        }
         this.numberOfTravelers = booking.getNumberOfPerson();
         this.totalAmount = booking.getTotalPrice();
         this.paymentStatus = booking.getPaymentStatus();
 
-        // Set payment deadline to 24 hours from now
-        this.paymentDeadline = new Date(System.currentTimeMillis() + TimeUnit.HOURS.toMillis(24));
+        this.paymentDeadline = booking.getPaymentDeadline();
         updateRemainingTime();
     }
 
@@ -57,17 +57,23 @@ public class PaymentModel {
         }
     }
 
+    // A pending booking is as good as expired once its deadline passes, written or not
+    public boolean isExpired() {
+        BookingStatus status = BookingStatus.fromValue(paymentStatus);
+        return status == BookingStatus.EXPIRED || (status == BookingStatus.PENDING
+                && paymentDeadline != null && paymentDeadline.getTime() <= System.currentTimeMillis());
+    }
+
     // Format tour dates to a readable string
     public String getFormattedTourDates() {
         if (tourStartDate == null) {
             return "No date selected";
         }
 
-        SimpleDateFormat dateFormat = new SimpleDateFormat("dd/MM/yyyy", Locale.getDefault());
-        String startDateStr = dateFormat.format(tourStartDate);
+        String startDateStr = DateFormats.formatDay(tourStartDate, DateFormats.NUMERIC_DATE);
 
         if (tourEndDate != null) {
-            String endDateStr = dateFormat.format(tourEndDate);
+            String endDateStr = DateFormats.formatDay(tourEndDate, DateFormats.NUMERIC_DATE);
             return startDateStr + " - " + endDateStr;
         }
 
@@ -80,8 +86,7 @@ public class PaymentModel {
             return "No deadline set";
         }
 
-        SimpleDateFormat dateFormat = new SimpleDateFormat("HH:mm, dd/MM/yyyy", Locale.getDefault());
-        return dateFormat.format(paymentDeadline);
+        return DateFormats.formatDateTime(paymentDeadline, DateFormats.TIME_AND_DATE);
     }
 
     // Format remaining time to HH:MM:SS
@@ -95,7 +100,7 @@ public class PaymentModel {
 
     // Format total amount with currency
     public String getFormattedTotalAmount() {
-        return String.format(Locale.getDefault(), "%,.0f %s", totalAmount, currency);
+        return totalAmount.format();
     }
 
     // Getters and setters
@@ -155,20 +160,16 @@ public class PaymentModel {
         this.numberOfTravelers = numberOfTravelers;
     }
 
-    public double getTotalAmount() {
+    public Money getTotalAmount() {
         return totalAmount;
     }
 
-    public void setTotalAmount(double totalAmount) {
+    public void setTotalAmount(Money totalAmount) {
         this.totalAmount = totalAmount;
     }
 
     public String getCurrency() {
-        return currency;
-    }
-
-    public void setCurrency(String currency) {
-        this.currency = currency;
+        return totalAmount.getCurrency();
     }
 
     public Date getPaymentDeadline() {
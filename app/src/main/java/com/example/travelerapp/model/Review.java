@@ -0,0 +1,71 @@
+package com.example.travelerapp.model;
+
+import com.google.firebase.Timestamp;
+import com.google.firebase.firestore.DocumentSnapshot;
+
+import java.util.Date;
+
+/**
+ * One document of the reviews collection. Instances are immutable, so review lists
+ * can be diffed by identity like the tour lists.
+ */
+public final class Review {
+    private final String id;
+    private final String tourId;
+    private final String userName;
+    private final double rating;
+    private final String comment;
+    private final long likeCount;
+    private final Date createdAt;
+
+    public Review(String id, String tourId, String userName, double rating,
+                  String comment, long likeCount, Date createdAt) {
+        this.id = id;
+        this.tourId = tourId;
+        this.userName = userName;
+        this.rating = rating;
+        this.comment = comment;
+        this.likeCount = likeCount;
+        this.createdAt = createdAt;
+    }
+
+    // Convert from Firestore document
+    public static Review fromFirestore(DocumentSnapshot document) {
+        if (document == null || !document.exists()) {
+            return null;
+        }
+
+        String userName = document.getString("userName");
+        if (userName == null || userName.isEmpty()) {
+            userName = "Traveler";
+        }
+
+        Object rating = document.get("rating");
+        Object likes = document.get("likes");
+        Timestamp createdAt = document.getTimestamp("createdAt");
+
+        return new Review(document.getId(),
+                document.getString("tourId"),
+                userName,
+                rating instanceof Number ? ((Number) rating).doubleValue() : 0,
+                document.getString("comment"),
+                likes instanceof Number ? ((Number) likes).longValue() : 0,
+                createdAt != null ? createdAt.toDate() : null);
+    }
+
+    public String getId() { return id; }
+    public String getTourId() { return tourId; }
+    public String getUserName() { return userName; }
+    public double getRating() { return rating; }
+    public String getComment() { return comment; }
+    public long getLikeCount() { return likeCount; }
+    public Date getCreatedAt() { return createdAt; }
+
+    // "4.5/5", or "5/5" for whole ratings
+    public String getRatingDisplay() {
+        if (rating == Math.rint(rating)) {
+            return (long) rating + "/5";
+        }
+        return rating + "/5";
+    }
+}
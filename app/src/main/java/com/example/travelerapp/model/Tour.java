@@ -1,13 +1,11 @@
 package com.example.travelerapp.model;
 
-import android.util.Log;
-
 import com.google.firebase.firestore.DocumentId;
 import com.google.firebase.firestore.Exclude;
 
-public class Tour {
-    private static final String TAG = "Tour";
+import java.util.Date;
 
+public class Tour {
     @DocumentId
     private String id;
 
@@ -32,11 +30,12 @@ public class Tour {
     @Exclude private boolean isRecently = false;
     @Exclude private String reviewCount = "0";
     @Exclude private String formattedPrice = null;
-    @Exclude private Double numericPrice = 0.0;
+    @Exclude private Money priceAmount = Money.ZERO_VND;
+    // Date of the cheapest available date when the price comes from the minPrice summary
+    @Exclude private Date minPriceDate;
 
     // Empty constructor required for Firestore
     public Tour() {
-        Log.d(TAG, "Creating empty Tour instance");
     }
 
     // Constructor for local data
@@ -56,34 +55,48 @@ public class Tour {
         this.isRecently = isRecently;
     }
 
+    // Copy constructor used when patching a tour that is already in a published list
+    public Tour(Tour other) {
+        this.id = other.id;
+        this.title = other.title;
+        this.description = other.description;
+        this.tourImageUrl = other.tourImageUrl;
+        this.status = other.status;
+        this.rating = other.rating;
+        this.category = other.category;
+        this.providerPhone = other.providerPhone;
+        this.pickupLoc = other.pickupLoc;
+        this.address = other.address;
+        this.location = other.location;
+        this.priceValue = other.priceValue;
+        this.imageResourceId = other.imageResourceId;
+        this.isBookmarked = other.isBookmarked;
+        this.isRecently = other.isRecently;
+        this.reviewCount = other.reviewCount;
+        this.formattedPrice = other.formattedPrice;
+        this.priceAmount = other.priceAmount;
+        this.minPriceDate = other.minPriceDate;
+    }
+
     // Getters and setters
     public String getId() { return id; }
     public void setId(String id) { this.id = id; }
 
     public String getTitle() { return title; }
-    public void setTitle(String title) {
-        Log.d(TAG, "Setting title: " + title);
-        this.title = title;
-    }
+    public void setTitle(String title) { this.title = title; }
 
     public String getDescription() { return description; }
     public void setDescription(String description) { this.description = description; }
 
     public String getTourImageUrl() { return tourImageUrl; }
-    public void setTourImageUrl(String tourImageUrl) {
-        Log.d(TAG, "Setting tourImageUrl: " + tourImageUrl);
-        this.tourImageUrl = tourImageUrl;
-    }
+    public void setTourImageUrl(String tourImageUrl) { this.tourImageUrl = tourImageUrl; }
 
     public String getStatus() { return status; }
 
     public void setStatus(String status) { this.status = status; }
 
     public Double getRating() { return rating != null ? rating : 0.0; }
-    public void setRating(Double rating) {
-        Log.d(TAG, "Setting rating: " + rating);
-        this.rating = rating;
-    }
+    public void setRating(Double rating) { this.rating = rating; }
 
     public String getCategory() { return category; }
     public void setCategory(String category) { this.category = category; }
@@ -100,33 +113,21 @@ public class Tour {
     public String getLocation() {
         return location != null ? location : (address != null ? address : "");
     }
-    public void setLocation(String location) {
-        Log.d(TAG, "Setting location: " + location);
-        this.location = location;
-    }
+    public void setLocation(String location) { this.location = location; }
 
     // Direct Firestore price field
     public Object getPriceValue() { return priceValue; }
     public void setPriceValue(Object priceValue) {
         this.priceValue = priceValue;
 
-        // Also update the formatted price and numeric price
-        if (priceValue instanceof Double) {
-            this.numericPrice = (Double) priceValue;
-            this.formattedPrice = String.format("%,.0f VND", this.numericPrice);
-        } else if (priceValue instanceof Long) {
-            this.numericPrice = ((Long) priceValue).doubleValue();
-            this.formattedPrice = String.format("%,.0f VND", this.numericPrice);
+        // Also update the price amount; text that is not a number is shown as is
+        Money amount = Money.fromFirestore(priceValue);
+        if (amount != null) {
+            this.priceAmount = amount;
+            this.formattedPrice = null;
         } else if (priceValue instanceof String) {
-            try {
-                this.numericPrice = Double.parseDouble((String) priceValue);
-                this.formattedPrice = String.format("%,.0f VND", this.numericPrice);
-            } catch (NumberFormatException e) {
-                this.formattedPrice = (String) priceValue;
-            }
+            this.formattedPrice = (String) priceValue;
         }
-
-        Log.d(TAG, "Set price value: " + priceValue + " -> " + this.formattedPrice);
     }
 
     // Price handling for UI
@@ -136,31 +137,36 @@ public class Tour {
             return formattedPrice;
         }
 
-        if (numericPrice > 0) {
-            return String.format("%,.0f VND", numericPrice);
+        if (priceAmount.isPositive()) {
+            return priceAmount.format();
         }
 
         return "Contact for price";
     }
 
     @Exclude
-    public void setPrice(String price) {
-        Log.d(TAG, "Setting formatted price: " + price);
-        this.formattedPrice = price;
-    }
+    public void setPrice(String price) { this.formattedPrice = price; }
+
+    // Price text set from the document itself, null when the amount is formatted instead
+    @Exclude
+    public String getPriceText() { return formattedPrice; }
 
     @Exclude
-    public Double getNumericPrice() { return numericPrice; }
+    public Money getPriceAmount() { return priceAmount; }
 
     @Exclude
-    public void setNumericPrice(Double price) {
-        Log.d(TAG, "Setting numeric price: " + price);
-        this.numericPrice = price;
-        if (price > 0) {
-            this.formattedPrice = String.format("%,.0f VND", price);
+    public void setPriceAmount(Money price) {
+        this.priceAmount = price;
+        if (price.isPositive()) {
+            // The amount's own cached text is used from now on
+            this.formattedPrice = null;
         }
     }
 
+    @Exclude
+    public Date getMinPriceDate() { return minPriceDate; }
+    public void setMinPriceDate(Date minPriceDate) { this.minPriceDate = minPriceDate; }
+
     // Local-only getters and setters
     @Exclude
     public int getImageResourceId() { return imageResourceId; }
@@ -176,10 +182,7 @@ public class Tour {
 
     @Exclude
     public String getReviewCount() { return reviewCount; }
-    public void setReviewCount(String reviewCount) {
-        Log.d(TAG, "Setting reviewCount: " + reviewCount);
-        this.reviewCount = reviewCount;
-    }
+    public void setReviewCount(String reviewCount) { this.reviewCount = reviewCount; }
 
     // Compatibility methods to maintain existing code functionality
     @Exclude
@@ -206,7 +209,7 @@ public class Tour {
                 ", location='" + location + '\'' +
                 ", rating=" + rating +
                 ", price='" + formattedPrice + '\'' +
-                ", numericPrice=" + numericPrice +
+                ", priceAmount=" + priceAmount +
                 '}';
     }
 }
@@ -0,0 +1,148 @@
+package com.example.travelerapp.model;
+
+import com.google.firebase.Timestamp;
+import com.google.firebase.firestore.DocumentSnapshot;
+
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Maps tour documents to {@link Tour} objects from one alias table. Each row lists the
+ * document keys a field may be stored under, most preferred first; the document map is
+ * walked once and a key only wins over a less preferred alias of the same field.
+ */
+public final class TourMapper {
+
+    private interface FieldSetter {
+        void set(Tour tour, Object value);
+    }
+
+    private static final class Binding {
+        final int field;
+        final int rank; // 1 for the preferred key, higher for fallbacks
+        final FieldSetter setter;
+
+        Binding(int field, int rank, FieldSetter setter) {
+            this.field = field;
+            this.rank = rank;
+            this.setter = setter;
+        }
+    }
+
+    // Ranks are packed into one long, two bits per field, so at most 3 aliases and 32 fields
+    private static final int RANK_BITS = 2;
+    private static final long RANK_MASK = 3L;
+
+    private static final Map<String, Binding> BINDINGS = new HashMap<>();
+    private static int fieldCount = 0;
+
+    private static final int TITLE = field((tour, value) -> tour.setTitle(asString(value)),
+            "title", "nameTour", "name");
+    private static final int DESCRIPTION = field((tour, value) -> tour.setDescription(asString(value)),
+            "description");
+    private static final int IMAGE_URL = field((tour, value) -> tour.setTourImageUrl(asString(value)),
+            "tourImageUrl", "imageUrl", "image");
+    private static final int STATUS = field((tour, value) -> tour.setStatus(asString(value)),
+            "status");
+    private static final int RATING = field((tour, value) -> tour.setRating(asDouble(value)),
+            "rating", "review");
+    private static final int CATEGORY = field((tour, value) -> tour.setCategory(asString(value)),
+            "category");
+    private static final int PROVIDER_PHONE = field((tour, value) -> tour.setProviderPhone(asString(value)),
+            "providerPhone");
+    private static final int PICKUP_LOCATION = field((tour, value) -> tour.setPickupLoc(asString(value)),
+            "pickupLoc");
+    private static final int ADDRESS = field((tour, value) -> tour.setAddress(asString(value)),
+            "address");
+    private static final int LOCATION = field((tour, value) -> tour.setLocation(asString(value)),
+            "location");
+    // minPrice is the summary of the tour's availableDates, used when there is no fixed price
+    private static final int PRICE = field(Tour::setPriceValue,
+            "price", "minPrice");
+    private static final int MIN_PRICE_DATE = field((tour, value) -> tour.setMinPriceDate(asDate(value)),
+            "minPriceDate");
+    private static final int REVIEW_COUNT = field((tour, value) ->
+                    tour.setReviewCount(String.valueOf(asDouble(value).longValue())),
+            "reviewCount");
+
+    private TourMapper() {
+    }
+
+    private static int field(FieldSetter setter, String... keys) {
+        int field = fieldCount++;
+        for (int i = 0; i < keys.length; i++) {
+            BINDINGS.put(keys[i], new Binding(field, i + 1, setter));
+        }
+        return field;
+    }
+
+    // Returns null for a missing document
+    public static Tour fromDocument(DocumentSnapshot document) {
+        Map<String, Object> data = document.getData();
+        return data != null ? fromMap(document.getId(), data) : null;
+    }
+
+    /**
+     * Maps a tour document's fields. Price and review count are only set when the
+     * document carries them; a missing location falls back to the address.
+     */
+    public static Tour fromMap(String id, Map<String, Object> data) {
+        Tour tour = new Tour();
+        tour.setId(id);
+
+        long ranks = 0;
+        for (Map.Entry<String, Object> entry : data.entrySet()) {
+            Binding binding = BINDINGS.get(entry.getKey());
+            if (binding == null) {
+                continue;
+            }
+
+            int shift = binding.field * RANK_BITS;
+            long current = (ranks >>> shift) & RANK_MASK;
+            if (current != 0 && current <= binding.rank) {
+                continue;
+            }
+
+            ranks = (ranks & ~(RANK_MASK << shift)) | ((long) binding.rank << shift);
+            binding.setter.set(tour, entry.getValue());
+        }
+
+        if (!isSet(ranks, LOCATION) && isSet(ranks, ADDRESS)) {
+            tour.setLocation(tour.getAddress());
+        }
+        return tour;
+    }
+
+    private static boolean isSet(long ranks, int field) {
+        return ((ranks >>> (field * RANK_BITS)) & RANK_MASK) != 0;
+    }
+
+    private static String asString(Object value) {
+        return value != null ? value.toString() : "";
+    }
+
+    private static Date asDate(Object value) {
+        if (value instanceof Timestamp) {
+            return ((Timestamp) value).toDate();
+        } else if (value instanceof Date) {
+            return (Date) value;
+        }
+        return null;
+    }
+
+    private static Double asDouble(Object value) {
+        if (value instanceof Double) {
+            return (Double) value;
+        } else if (value instanceof Long) {
+            return ((Long) value).doubleValue();
+        } else if (value instanceof String) {
+            try {
+                return Double.parseDouble((String) value);
+            } catch (NumberFormatException e) {
+                return 0.0;
+            }
+        }
+        return 0.0;
+    }
+}
@@ -0,0 +1,114 @@
+package com.example.travelerapp.repository;
+
+import android.os.SystemClock;
+
+import com.example.travelerapp.model.BookingDateOption;
+import com.example.travelerapp.util.MemoryBudget;
+import com.google.android.gms.tasks.Task;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Available dates per tour and date window, shared by every BookingRepository so a
+ * list fetched for one screen serves the next. Entries younger than {@link #FRESH_MS}
+ * are used as is; older ones up to {@link #MAX_STALE_MS} are shown while a refresh
+ * runs. Fetches in flight are shared too, so a prefetch and a screen never query twice.
+ * A tour's entries are dropped when a payment takes seats on it, see {@link #invalidateTour}.
+ * Only touched from the main thread.
+ */
+class AvailabilityCache {
+    static final long FRESH_MS = 2 * 60 * 1000;
+    static final long MAX_STALE_MS = 30 * 60 * 1000;
+    private static final int MAX_ENTRIES = 16;
+
+    private static AvailabilityCache instance;
+
+    static final class Entry {
+        // Nothing is selected in cached options; callers must copy before selecting
+        final List<BookingDateOption> options;
+        final long fetchedAt;
+
+        Entry(List<BookingDateOption> options, long fetchedAt) {
+            this.options = options;
+            this.fetchedAt = fetchedAt;
+        }
+
+        boolean isFresh() {
+            return SystemClock.elapsedRealtime() - fetchedAt < FRESH_MS;
+        }
+    }
+
+    private final Map<String, Entry> entries = new LinkedHashMap<String, Entry>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+            return size() > MAX_ENTRIES;
+        }
+    };
+    private final Map<String, Task<List<BookingDateOption>>> inFlight = new HashMap<>();
+    // Bumped per tour by invalidateTour, so a fetch that started before it is not cached
+    private final Map<String, Long> generations = new HashMap<>();
+
+    private AvailabilityCache() {
+        // Fetches in flight are kept, screens are waiting for them
+        MemoryBudget.getInstance().register("AvailabilityCache", MemoryBudget.Priority.CACHED_DATA,
+                keepFraction -> MemoryBudget.trimEldest(entries, keepFraction));
+    }
+
+    static synchronized AvailabilityCache getInstance() {
+        if (instance == null) {
+            instance = new AvailabilityCache();
+        }
+        return instance;
+    }
+
+    // tourId/yyyy-MM-dd/days; the date is the first day of the window
+    static String key(String tourId, LocalDate firstDay, int days) {
+        return tourId + "/" + firstDay + "/" + days;
+    }
+
+    // Returns null when there is no entry or it is too old to show even while refreshing
+    Entry get(String key) {
+        Entry entry = entries.get(key);
+        if (entry != null && SystemClock.elapsedRealtime() - entry.fetchedAt >= MAX_STALE_MS) {
+            entries.remove(key);
+            return null;
+        }
+        return entry;
+    }
+
+    long getGeneration(String tourId) {
+        Long generation = generations.get(tourId);
+        return generation != null ? generation : 0;
+    }
+
+    // generation is the tour's generation when the fetch started; a stale answer is dropped
+    void put(String tourId, String key, List<BookingDateOption> options, long generation) {
+        if (generation == getGeneration(tourId)) {
+            entries.put(key, new Entry(options, SystemClock.elapsedRealtime()));
+        }
+    }
+
+    // Called once a transition changed a tour's booked seats, so no screen offers the old counts
+    void invalidateTour(String tourId) {
+        generations.put(tourId, getGeneration(tourId) + 1);
+        String prefix = tourId + "/";
+        entries.keySet().removeIf(key -> key.startsWith(prefix));
+        inFlight.keySet().removeIf(key -> key.startsWith(prefix));
+    }
+
+    Task<List<BookingDateOption>> getInFlight(String key) {
+        return inFlight.get(key);
+    }
+
+    void setInFlight(String key, Task<List<BookingDateOption>> task) {
+        inFlight.put(key, task);
+    }
+
+    void clearInFlight(String key) {
+        inFlight.remove(key);
+    }
+}
@@ -1,73 +1,81 @@
 package com.example.travelerapp.repository;
 
-import android.util.Log;
-
 import com.example.travelerapp.model.Booking;
+import com.example.travelerapp.model.BookingDateOption;
 import com.example.travelerapp.model.BookingDetailsModel;
+import com.example.travelerapp.model.BookingStatus;
+import com.example.travelerapp.model.Money;
+import com.example.travelerapp.util.AppLog;
 import com.google.firebase.auth.FirebaseAuth;
 import com.google.firebase.auth.FirebaseUser;
-import com.google.firebase.firestore.CollectionReference;
-import com.google.firebase.firestore.DocumentReference;
-import com.google.firebase.firestore.FirebaseFirestore;
+
+import java.util.List;
 
 public class BookingDetailsRepository {
     private static final String TAG = "BookingDetailsRepository";
 
-    private FirebaseFirestore db;
-    private CollectionReference bookingsCollection;
+    private final BookingRepository bookingRepository;
 
     public interface BookingCallback {
         void onBookingCreated(boolean success, String bookingId);
     }
 
     public BookingDetailsRepository() {
-        db = FirebaseFirestore.getInstance();
-        bookingsCollection = db.collection("bookings");
+        bookingRepository = new BookingRepository();
     }
 
+    // Bookings are written by BookingRepository, so both checkout paths share one write
     public void createBooking(BookingDetailsModel bookingDetails, BookingCallback callback) {
         try {
             // Check if user is logged in
             FirebaseUser currentUser = FirebaseAuth.getInstance().getCurrentUser();
             if (currentUser == null) {
-                Log.e(TAG, "Cannot create booking: User not logged in");
+                AppLog.e(TAG, "Cannot create booking: User not logged in");
                 callback.onBookingCreated(false, null);
                 return;
             }
 
-            // Create a new booking document reference with auto-generated ID
-            DocumentReference newBookingRef = bookingsCollection.document();
-            String bookingId = newBookingRef.getId();
+            // Keep the id on the details, so tapping again after a failure retries the same booking
+            if (bookingDetails.getId() == null) {
+                bookingDetails.setId(bookingRepository.allocateBookingId());
+            }
 
             // Create a new booking object
             Booking booking = new Booking();
-            booking.setId(bookingId); // Set the ID immediately
+            booking.setId(bookingDetails.getId());
             booking.setUserId(currentUser.getUid());
             booking.setTourId(bookingDetails.getTourId());
             booking.setTourName(bookingDetails.getTourName()); // Add tour name for easier reference
+            booking.setTourImageUrl(bookingDetails.getTourImageUrl());
+            booking.setTourImageResourceId(bookingDetails.getTourImageResourceId());
             booking.setTourDateStart(bookingDetails.getBookingDate());
+            booking.setDateOptionId(bookingDetails.getDateOptionId());
             booking.setNumberOfPerson(bookingDetails.getVisitorCount());
             booking.setTotalPrice(bookingDetails.getTotalPrice());
             booking.setParticipantName(bookingDetails.getContactName());
             booking.setParticipantEmail(bookingDetails.getContactEmail());
             booking.setParticipantPhoneNumber(bookingDetails.getContactPhone());
-            booking.setPaymentStatus("pending");
+            booking.setPaymentStatus(BookingStatus.PENDING.getValue());
+
+            bookingRepository.createBooking(booking, new BookingRepository.BookingCallback() {
+                @Override
+                public void onBookingDateOptionsLoaded(List<BookingDateOption> dateOptions) {
+                    // Not used here
+                }
 
-            Log.d(TAG, "Creating booking document with ID: " + bookingId);
+                @Override
+                public void onBookingPriceCalculated(Money price) {
+                    // Not used here
+                }
 
-            // Add to Firestore
-            newBookingRef.set(booking.toFirestore())
-                    .addOnSuccessListener(aVoid -> {
-                        Log.d(TAG, "Booking document created successfully with ID: " + bookingId);
-                        callback.onBookingCreated(true, bookingId);
-                    })
-                    .addOnFailureListener(e -> {
-                        Log.e(TAG, "Error creating booking document", e);
-                        callback.onBookingCreated(false, null);
-                    });
+                @Override
+                public void onBookingComplete(boolean success, String bookingId) {
+                    callback.onBookingCreated(success, bookingId);
+                }
+            });
         } catch (Exception e) {
-            Log.e(TAG, "Unexpected error creating booking", e);
+            AppLog.e(TAG, "Unexpected error creating booking", e);
             callback.onBookingCreated(false, null);
         }
     }
-}
\ No newline at end of file
+}
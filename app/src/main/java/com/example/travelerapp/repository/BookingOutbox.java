@@ -0,0 +1,512 @@
+package com.example.travelerapp.repository;
+
+import android.content.Context;
+import android.net.ConnectivityManager;
+import android.net.Network;
+import android.os.Handler;
+import android.os.Looper;
+
+import androidx.annotation.NonNull;
+import androidx.lifecycle.LiveData;
+import androidx.lifecycle.MutableLiveData;
+
+import com.example.travelerapp.model.Booking;
+import com.example.travelerapp.model.BookingStatus;
+import com.example.travelerapp.model.Money;
+import com.example.travelerapp.util.AppLog;
+import com.example.travelerapp.util.Dispatcher;
+import com.google.android.gms.tasks.Task;
+import com.google.firebase.Timestamp;
+import com.google.firebase.firestore.DocumentReference;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.FirebaseFirestoreException;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+
+/**
+ * Booking and payment writes made at checkout, recorded in an append-only log in app
+ * storage until Firestore acknowledges them. Checkout completes as soon as a write is
+ * recorded: it is handed to Firestore at once, so reads on this device see it even
+ * offline. Writes still pending when the app is killed are replayed in order on the next
+ * start, and failed ones are retried with backoff and again when the network returns.
+ * Resending is harmless: a booking is only created if its document is missing, so a
+ * replay never resets a booking that has moved on, and a payment is a state transition
+ * that is a no-op on a booking already paid.
+ * Only touched from the main thread; log I/O runs on a background thread.
+ */
+public class BookingOutbox {
+    private static final String TAG = "BookingOutbox";
+    private static final String FILE_NAME = "booking_outbox.log";
+    private static final int MAGIC = 0x54524f31; // "TRO1"
+    private static final int VERSION = 2;
+
+    private static final byte OP_ADD = 1;
+    private static final byte OP_DONE = 2;
+    private static final byte TYPE_BOOKING = 1;
+    private static final byte TYPE_PAYMENT = 2;
+
+    private static final long RETRY_BASE_MS = 2000;
+    private static final long RETRY_MAX_MS = 5 * 60 * 1000;
+    private static final int MAX_STATUSES = 32;
+
+    private static BookingOutbox instance;
+
+    public enum Status {
+        PENDING,  // Recorded on the device, not acknowledged by Firestore yet
+        SYNCED,
+        FAILED    // Rejected by Firestore; retrying would not help
+    }
+
+    private static final class Entry {
+        final byte type;
+        final String bookingId;
+        final long createdAt;
+        final Booking booking; // Only for TYPE_BOOKING
+        boolean sending;
+        // Set once sent, and for entries replayed from the log; later sends may find the write landed
+        boolean sent;
+        int failures;
+
+        Entry(byte type, String bookingId, long createdAt, Booking booking) {
+            this.type = type;
+            this.bookingId = bookingId;
+            this.createdAt = createdAt;
+            this.booking = booking;
+        }
+
+        String getKey() {
+            return key(type, bookingId);
+        }
+    }
+
+    private final File file;
+    private final FirebaseFirestore db;
+    // One at a time, so records are appended in the order they were made
+    private final Executor executor = Dispatcher.io().newSerialExecutor(Dispatcher.Priority.HIGH);
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final Runnable retry = this::retryFailed;
+
+    // Pending entries by key, in the order they were recorded
+    private final Map<String, Entry> pending = new LinkedHashMap<>();
+    // Until the last run's entries are merged into pending, they exist only in the log
+    private boolean restored = false;
+    // Most recently used last; statuses still pending or observed by a screen are never evicted
+    private final Map<String, MutableLiveData<Status>> statuses = new LinkedHashMap<String, MutableLiveData<Status>>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, MutableLiveData<Status>> eldest) {
+            MutableLiveData<Status> status = eldest.getValue();
+            return size() > MAX_STATUSES && !status.hasObservers() && status.getValue() != Status.PENDING;
+        }
+    };
+
+    private BookingOutbox(Context context) {
+        file = new File(context.getFilesDir(), FILE_NAME);
+        db = FirebaseFirestore.getInstance();
+
+        executor.execute(() -> {
+            List<Entry> restored = readLog();
+            mainHandler.post(() -> restore(restored));
+        });
+
+        ConnectivityManager connectivityManager =
+                (ConnectivityManager) context.getSystemService(Context.CONNECTIVITY_SERVICE);
+        connectivityManager.registerDefaultNetworkCallback(new ConnectivityManager.NetworkCallback() {
+            @Override
+            public void onAvailable(@NonNull Network network) {
+                mainHandler.post(() -> {
+                    mainHandler.removeCallbacks(retry);
+                    retryFailed();
+                });
+            }
+        });
+    }
+
+    // Called from Application.onCreate, so pending writes are replayed on every start
+    public static synchronized void initialize(Context context) {
+        if (instance == null) {
+            instance = new BookingOutbox(context.getApplicationContext());
+        }
+    }
+
+    public static synchronized BookingOutbox getInstance() {
+        if (instance == null) {
+            throw new IllegalStateException("BookingOutbox.initialize() has not been called");
+        }
+        return instance;
+    }
+
+    // The booking must have its id; recording the same booking again while it is pending is a no-op
+    public LiveData<Status> enqueueBooking(Booking booking) {
+        // The screen may keep changing its booking, the outbox keeps what was checked out
+        return enqueue(TYPE_BOOKING, booking.getId(), new Booking(booking));
+    }
+
+    public LiveData<Status> enqueuePayment(String bookingId) {
+        return enqueue(TYPE_PAYMENT, bookingId, null);
+    }
+
+    public LiveData<Status> getBookingStatus(String bookingId) {
+        return getStatusLiveData(key(TYPE_BOOKING, bookingId));
+    }
+
+    public LiveData<Status> getPaymentStatus(String bookingId) {
+        return getStatusLiveData(key(TYPE_PAYMENT, bookingId));
+    }
+
+    private LiveData<Status> enqueue(byte type, String bookingId, Booking booking) {
+        String key = key(type, bookingId);
+        if (pending.containsKey(key)) {
+            return getStatusLiveData(key);
+        }
+
+        // A booking keeps the time it was made, its payment deadline counts from there
+        long createdAt = booking != null && booking.getCreatedAt() != null
+                ? booking.getCreatedAt().getTime() : System.currentTimeMillis();
+        Entry entry = new Entry(type, bookingId, createdAt, booking);
+        AppLog.d(TAG, "Recording {}", key);
+        pending.put(key, entry);
+        getStatusLiveData(key).setValue(Status.PENDING);
+        executor.execute(() -> appendAdd(entry));
+        if (!isWaitingForBooking(entry)) {
+            send(entry);
+        }
+        return getStatusLiveData(key);
+    }
+
+    private MutableLiveData<Status> getStatusLiveData(String key) {
+        MutableLiveData<Status> status = statuses.get(key);
+        if (status == null) {
+            status = new MutableLiveData<>();
+            statuses.put(key, status);
+        }
+        return status;
+    }
+
+    // Entries from the last run go ahead of anything recorded since this one started
+    private void restore(List<Entry> fromLog) {
+        restored = true;
+        if (fromLog.isEmpty()) {
+            return;
+        }
+        AppLog.i(TAG, "Replaying {} pending writes", fromLog.size());
+
+        // A key recorded again since the start is already being sent, its old record is dropped
+        List<Entry> replayed = new ArrayList<>();
+        for (Entry entry : fromLog) {
+            if (!pending.containsKey(entry.getKey())) {
+                entry.sent = true;
+                replayed.add(entry);
+            }
+        }
+
+        Map<String, Entry> recordedSinceStart = new LinkedHashMap<>(pending);
+        pending.clear();
+        for (Entry entry : replayed) {
+            pending.put(entry.getKey(), entry);
+            getStatusLiveData(entry.getKey()).setValue(Status.PENDING);
+        }
+        pending.putAll(recordedSinceStart);
+
+        for (Entry entry : replayed) {
+            if (!isWaitingForBooking(entry)) {
+                send(entry);
+            }
+        }
+    }
+
+    // Payments run as transactions on the server, so they need their booking to be there first
+    private boolean isWaitingForBooking(Entry entry) {
+        return entry.type == TYPE_PAYMENT && pending.containsKey(key(TYPE_BOOKING, entry.bookingId));
+    }
+
+    private void send(Entry entry) {
+        Task<Void> write = write(entry);
+        entry.sending = true;
+        entry.sent = true;
+        write.addOnCompleteListener(task -> {
+            entry.sending = false;
+            if (task.isSuccessful()) {
+                AppLog.d(TAG, "Synced {}", entry.getKey());
+                finish(entry, Status.SYNCED);
+            } else if (isTransient(task.getException())) {
+                entry.failures++;
+                AppLog.w(TAG, "Could not sync {}, attempt {}: {}", entry.getKey(), entry.failures,
+                        task.getException().getMessage());
+                scheduleRetry(entry.failures);
+            } else {
+                AppLog.e(TAG, "Firestore rejected {}", entry.getKey(), task.getException());
+                finish(entry, Status.FAILED);
+            }
+        });
+    }
+
+    private Task<Void> write(Entry entry) {
+        if (entry.type == TYPE_BOOKING) {
+            Map<String, Object> data = entry.booking.toFirestore();
+            // Keep the time of checkout rather than the time of the replay
+            data.put("createdAt", new Timestamp(new Date(entry.createdAt)));
+            DocumentReference bookingRef = db.collection("bookings").document(entry.bookingId);
+            if (!entry.sent) {
+                // Nothing can have moved the booking on before it was first written; a plain
+                // write also lands in the local cache at once, which works offline
+                return bookingRef.set(data);
+            }
+
+            // The booking may have landed and moved on to paid or expired since; never reset it
+            return db.runTransaction(transaction -> {
+                if (!transaction.get(bookingRef).exists()) {
+                    transaction.set(bookingRef, data);
+                }
+                return null;
+            });
+        }
+
+        // Paying a booking that is already paid succeeds, so a replay is still idempotent
+        return BookingStateMachine.getInstance()
+                .transition(entry.bookingId, BookingStatus.PAID, new Date(entry.createdAt))
+                .continueWith(task -> {
+                    if (!task.isSuccessful()) {
+                        throw task.getException();
+                    }
+                    return null;
+                });
+    }
+
+    private void finish(Entry entry, Status status) {
+        pending.remove(entry.getKey());
+        getStatusLiveData(entry.getKey()).setValue(status);
+        if (entry.type == TYPE_BOOKING) {
+            Entry payment = pending.get(key(TYPE_PAYMENT, entry.bookingId));
+            if (payment != null && !payment.sending) {
+                send(payment);
+            }
+        }
+        // Starting the log over before the restore would lose the entries it is about to replay
+        boolean empty = restored && pending.isEmpty();
+        executor.execute(() -> {
+            if (empty) {
+                // Nothing left to replay, start the log over
+                rewriteLog(new ArrayList<>());
+            } else {
+                appendDone(entry.getKey());
+            }
+        });
+    }
+
+    private void scheduleRetry(int failures) {
+        long delay = Math.min(RETRY_MAX_MS, RETRY_BASE_MS << Math.min(failures - 1, 10));
+        mainHandler.removeCallbacks(retry);
+        mainHandler.postDelayed(retry, delay);
+    }
+
+    // Resends failed entries in the order they were recorded
+    private void retryFailed() {
+        for (Entry entry : new ArrayList<>(pending.values())) {
+            if (!entry.sending && entry.failures > 0 && !isWaitingForBooking(entry)) {
+                send(entry);
+            }
+        }
+    }
+
+    // Firestore already retries while offline, so failures that reach us are mostly rejections
+    private static boolean isTransient(Exception e) {
+        if (!(e instanceof FirebaseFirestoreException)) {
+            return true;
+        }
+        switch (((FirebaseFirestoreException) e).getCode()) {
+            case UNAVAILABLE:
+            case DEADLINE_EXCEEDED:
+            case ABORTED:
+            case RESOURCE_EXHAUSTED:
+            case INTERNAL:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    private static String key(byte type, String bookingId) {
+        return (type == TYPE_BOOKING ? "booking/" : "payment/") + bookingId;
+    }
+
+    // Log I/O, background thread only
+
+    private List<Entry> readLog() {
+        Map<String, Entry> entries = new LinkedHashMap<>();
+        if (file.exists()) {
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+                if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                    AppLog.w(TAG, "Ignoring outbox log with unknown format");
+                } else {
+                    readRecords(in, entries);
+                }
+            } catch (IOException | RuntimeException e) {
+                AppLog.e(TAG, "Error reading outbox log", e);
+            }
+        }
+
+        // Drop finished records, so the log only grows with what is still pending
+        List<Entry> restored = new ArrayList<>(entries.values());
+        rewriteLog(restored);
+        return restored;
+    }
+
+    private void readRecords(DataInputStream in, Map<String, Entry> entries) throws IOException {
+        while (true) {
+            int op = in.read();
+            if (op == -1) {
+                return;
+            }
+            try {
+                if (op == OP_ADD) {
+                    Entry entry = readEntry(in);
+                    entries.put(entry.getKey(), entry);
+                } else if (op == OP_DONE) {
+                    // Records are appended in order, so this ends the latest entry for the key
+                    entries.remove(readString(in));
+                } else {
+                    AppLog.w(TAG, "Unknown outbox record {}, ignoring the rest of the log", op);
+                    return;
+                }
+            } catch (EOFException e) {
+                // The app was killed while appending; Firestore's own queue may still hold that write
+                AppLog.w(TAG, "Ignoring a truncated outbox record");
+                return;
+            }
+        }
+    }
+
+    private void rewriteLog(List<Entry> entries) {
+        // Write to a temporary file first so a crash never loses the pending entries
+        File tempFile = new File(file.getPath() + ".tmp");
+        try (FileOutputStream stream = new FileOutputStream(tempFile);
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(stream))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            for (Entry entry : entries) {
+                out.writeByte(OP_ADD);
+                writeEntry(out, entry);
+            }
+            out.flush();
+            stream.getFD().sync();
+        } catch (IOException e) {
+            AppLog.e(TAG, "Error rewriting outbox log", e);
+            tempFile.delete();
+            return;
+        }
+
+        if (!tempFile.renameTo(file)) {
+            AppLog.e(TAG, "Could not replace outbox log");
+            tempFile.delete();
+        }
+    }
+
+    private void appendAdd(Entry entry) {
+        append(out -> {
+            out.writeByte(OP_ADD);
+            writeEntry(out, entry);
+        });
+    }
+
+    private void appendDone(String key) {
+        append(out -> {
+            out.writeByte(OP_DONE);
+            writeString(out, key);
+        });
+    }
+
+    private interface RecordWriter {
+        void write(DataOutputStream out) throws IOException;
+    }
+
+    // Synced to disk before returning, a recorded checkout must survive the app being killed
+    private void append(RecordWriter writer) {
+        try (FileOutputStream stream = new FileOutputStream(file, true);
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(stream))) {
+            writer.write(out);
+            out.flush();
+            stream.getFD().sync();
+        } catch (IOException e) {
+            AppLog.e(TAG, "Error appending to outbox log", e);
+        }
+    }
+
+    private Entry readEntry(DataInputStream in) throws IOException {
+        byte type = in.readByte();
+        String bookingId = readString(in);
+        long createdAt = in.readLong();
+        Booking booking = null;
+        if (type == TYPE_BOOKING) {
+            booking = new Booking();
+            booking.setId(bookingId);
+            booking.setCreatedAt(new Date(createdAt));
+            booking.setUserId(readString(in));
+            booking.setParticipantName(readString(in));
+            booking.setParticipantEmail(readString(in));
+            booking.setParticipantPhoneNumber(readString(in));
+            booking.setTourId(readString(in));
+            long tourDateStart = in.readLong();
+            booking.setTourDateStart(tourDateStart != -1 ? new Date(tourDateStart) : null);
+            booking.setDateOptionId(readString(in));
+            booking.setNumberOfPerson(in.readInt());
+            booking.setTotalPrice(Money.vnd(in.readLong()));
+            booking.setPaymentStatus(readString(in));
+        }
+        return new Entry(type, bookingId, createdAt, booking);
+    }
+
+    private void writeEntry(DataOutputStream out, Entry entry) throws IOException {
+        out.writeByte(entry.type);
+        writeString(out, entry.bookingId);
+        out.writeLong(entry.createdAt);
+        if (entry.type == TYPE_BOOKING) {
+            Booking booking = entry.booking;
+            writeString(out, booking.getUserId());
+            writeString(out, booking.getParticipantName());
+            writeString(out, booking.getParticipantEmail());
+            writeString(out, booking.getParticipantPhoneNumber());
+            writeString(out, booking.getTourId());
+            out.writeLong(booking.getTourDateStart() != null ? booking.getTourDateStart().getTime() : -1);
+            writeString(out, booking.getDateOptionId());
+            out.writeInt(booking.getNumberOfPerson());
+            out.writeLong(booking.getTotalPrice().getMinorUnits());
+            writeString(out, booking.getPaymentStatus());
+        }
+    }
+
+    // Length-prefixed UTF-8, -1 for null
+    private void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private String readString(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -1,10 +1,10 @@
 package com.example.travelerapp.repository;
 
-import android.util.Log;
-
 import com.example.travelerapp.model.Booking;
 import com.example.travelerapp.model.BookingDateOption;
-import com.example.travelerapp.model.Tour;
+import com.example.travelerapp.model.Money;
+import com.example.travelerapp.util.AppLog;
+import com.google.android.gms.tasks.Task;
 import com.google.firebase.auth.FirebaseAuth;
 import com.google.firebase.auth.FirebaseUser;
 import com.google.firebase.firestore.CollectionReference;
@@ -13,79 +13,162 @@ import com.google.firebase.firestore.FirebaseFirestore;
 import com.google.firebase.firestore.Query;
 import com.google.firebase.firestore.QueryDocumentSnapshot;
 
+import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.Calendar;
 import java.util.Date;
 import java.util.List;
 import java.util.Locale;
+import java.util.Objects;
 
 public class BookingRepository {
     private static final String TAG = "BookingRepository";
+    private static final int AVAILABILITY_WINDOW_DAYS = 14;
 
     private FirebaseFirestore db;
     private CollectionReference toursCollection;
     private CollectionReference bookingsCollection;
-    private TourRepository tourRepository;
+    private final AvailabilityCache availabilityCache = AvailabilityCache.getInstance();
 
     public BookingRepository() {
         db = FirebaseFirestore.getInstance();
         toursCollection = db.collection("tours");
         bookingsCollection = db.collection("bookings");
-        tourRepository = new TourRepository();
     }
 
     public interface BookingCallback {
         void onBookingDateOptionsLoaded(List<BookingDateOption> dateOptions);
-        void onBookingPriceCalculated(double price);
+        void onBookingPriceCalculated(Money price);
         void onBookingComplete(boolean success, String bookingId);
     }
 
+    /**
+     * Delivers the bookable dates of the next two weeks, first one selected. A fresh
+     * cached list is delivered at once. A stale one is delivered at once too and
+     * refreshed, and the callback runs a second time only if the dates changed.
+     */
     public void getAvailableDates(String tourId, BookingCallback callback) {
-        Log.d(TAG, "Getting available dates for tour: " + tourId);
+        AppLog.d(TAG, "Getting available dates for tour: {}", tourId);
+        String key = availabilityKey(tourId);
+
+        AvailabilityCache.Entry cached = availabilityCache.get(key);
+        if (cached != null) {
+            callback.onBookingDateOptionsLoaded(copyWithFirstSelected(cached.options));
+            if (!cached.isFresh()) {
+                fetchAvailableDates(tourId, key).addOnSuccessListener(options -> {
+                    if (!isSameDates(cached.options, options)) {
+                        callback.onBookingDateOptionsLoaded(copyWithFirstSelected(options));
+                    }
+                });
+            }
+            return;
+        }
+
+        fetchAvailableDates(tourId, key).addOnCompleteListener(task -> {
+            // If there's an error, generate some default dates; they are not cached
+            List<BookingDateOption> options = task.isSuccessful() ? task.getResult() : generateDefaultDates(tourId);
+            callback.onBookingDateOptionsLoaded(copyWithFirstSelected(options));
+        });
+    }
+
+    /**
+     * Warms the cache, e.g. while the tour detail screen is shown before "Continue" is tapped.
+     * Returns null when the cached dates are still fresh.
+     */
+    public Task<List<BookingDateOption>> prefetchAvailableDates(String tourId) {
+        String key = availabilityKey(tourId);
+        AvailabilityCache.Entry cached = availabilityCache.get(key);
+        if (cached != null && cached.isFresh()) {
+            return null;
+        }
+        AppLog.d(TAG, "Prefetching available dates for tour: {}", tourId);
+        return fetchAvailableDates(tourId, key);
+    }
+
+    // The window starts today, so the key changes at midnight and yesterday's list is never used
+    private String availabilityKey(String tourId) {
+        return AvailabilityCache.key(tourId, LocalDate.now(), AVAILABILITY_WINDOW_DAYS);
+    }
+
+    // When Firestore has no dates default ones are used; the task fails if Firestore cannot be reached
+    private Task<List<BookingDateOption>> fetchAvailableDates(String tourId, String key) {
+        Task<List<BookingDateOption>> running = availabilityCache.getInFlight(key);
+        if (running != null) {
+            return running;
+        }
+        // A payment that takes seats while this runs makes its answer stale
+        long generation = availabilityCache.getGeneration(tourId);
 
         // Get the current date
         Calendar calendar = Calendar.getInstance();
         Date today = calendar.getTime();
 
         // Query the availableDates subcollection for dates after today
-        toursCollection.document(tourId)
+        Task<List<BookingDateOption>> task = toursCollection.document(tourId)
                 .collection("availableDates")
                 .whereGreaterThanOrEqualTo("date", today)
                 .orderBy("date", Query.Direction.ASCENDING)
-                .limit(14) // Get next 14 days
+                .limit(AVAILABILITY_WINDOW_DAYS) // Get next 14 days
                 .get()
-                .addOnSuccessListener(queryDocumentSnapshots -> {
-                    List<BookingDateOption> dateOptions = new ArrayList<>();
+                .continueWith(queryTask -> {
+                    availabilityCache.clearInFlight(key);
+
+                    if (!queryTask.isSuccessful()) {
+                        AppLog.e(TAG, "Error getting available dates: {}", queryTask.getException().getMessage());
+                        throw queryTask.getException();
+                    }
 
-                    if (queryDocumentSnapshots.isEmpty()) {
-                        Log.d(TAG, "No available dates found in Firestore, generating default dates");
+                    List<BookingDateOption> dateOptions = new ArrayList<>();
+                    if (queryTask.getResult().isEmpty()) {
+                        AppLog.d(TAG, "No available dates found in Firestore, generating default dates");
                         // If no dates in Firestore, generate some default ones
                         dateOptions = generateDefaultDates(tourId);
                     } else {
-                        Log.d(TAG, "Found " + queryDocumentSnapshots.size() + " available dates in Firestore");
+                        AppLog.d(TAG, "Found {} available dates in Firestore", queryTask.getResult().size());
                         // Convert Firestore documents to BookingDateOption objects
-                        for (QueryDocumentSnapshot document : queryDocumentSnapshots) {
+                        for (QueryDocumentSnapshot document : queryTask.getResult()) {
                             BookingDateOption option = BookingDateOption.fromFirestore(
                                     document.getId(), document);
                             if (option != null) {
                                 dateOptions.add(option);
                             }
                         }
-
-                        // Select the first date by default
-                        if (!dateOptions.isEmpty()) {
-                            dateOptions.get(0).setSelected(true);
-                        }
                     }
 
-                    callback.onBookingDateOptionsLoaded(dateOptions);
-                })
-                .addOnFailureListener(e -> {
-                    Log.e(TAG, "Error getting available dates: " + e.getMessage());
-                    // If there's an error, generate some default dates
-                    List<BookingDateOption> defaultDates = generateDefaultDates(tourId);
-                    callback.onBookingDateOptionsLoaded(defaultDates);
+                    availabilityCache.put(tourId, key, dateOptions, generation);
+                    return dateOptions;
                 });
+
+        availabilityCache.setInFlight(key, task);
+        return task;
+    }
+
+    private List<BookingDateOption> copyWithFirstSelected(List<BookingDateOption> options) {
+        List<BookingDateOption> copies = new ArrayList<>(options.size());
+        for (BookingDateOption option : options) {
+            BookingDateOption copy = new BookingDateOption(option);
+            // Select the first date by default
+            copy.setSelected(copies.isEmpty());
+            copies.add(copy);
+        }
+        return copies;
+    }
+
+    private boolean isSameDates(List<BookingDateOption> oldOptions, List<BookingDateOption> newOptions) {
+        if (oldOptions.size() != newOptions.size()) {
+            return false;
+        }
+        for (int i = 0; i < oldOptions.size(); i++) {
+            BookingDateOption oldOption = oldOptions.get(i);
+            BookingDateOption newOption = newOptions.get(i);
+            if (!Objects.equals(oldOption.getId(), newOption.getId())
+                    || !Objects.equals(oldOption.getDate(), newOption.getDate())
+                    || !oldOption.getPrice().equals(newOption.getPrice())
+                    || oldOption.isAvailable() != newOption.isAvailable()) {
+                return false;
+            }
+        }
+        return true;
     }
 
     private List<BookingDateOption> generateDefaultDates(String tourId) {
@@ -101,20 +184,15 @@ public class BookingRepository {
             int dayOfWeek = calendar.get(Calendar.DAY_OF_WEEK) - 1; // Convert to 0-based (0 = Sunday)
 
             // Set price based on day (weekend is more expensive)
-            double basePrice = 775000; // Base price
+            Money basePrice = Money.vnd(775000); // Base price
             boolean isWeekend = (dayOfWeek == 0 || dayOfWeek == 6); // Sunday or Saturday
             boolean isHoliday = false; // Default to not a holiday
-            double price = isWeekend ? basePrice * 1.2 : basePrice;
+            Money price = isWeekend ? basePrice.timesPercent(120) : basePrice;
 
             // Create the date option
             String dateId = String.format(Locale.US, "%s_%tF", tourId, date); // tourId_YYYY-MM-DD
             BookingDateOption option = new BookingDateOption(dateId, date, dayOfWeek, price, isHoliday);
 
-            // If it's the first day, select it by default
-            if (i == 0) {
-                option.setSelected(true);
-            }
-
             dates.add(option);
 
             // Move to next day
@@ -126,62 +204,63 @@ public class BookingRepository {
 
     public void calculatePrice(Booking booking, BookingCallback callback) {
         if (booking == null || booking.getSelectedDateOption() == null) {
-            callback.onBookingPriceCalculated(0);
+            callback.onBookingPriceCalculated(Money.ZERO_VND);
             return;
         }
 
         // Get the base price from the selected date
-        double basePrice = booking.getSelectedDateOption().getPrice();
+        Money basePrice = booking.getSelectedDateOption().getPrice();
 
         // Calculate total based on number of persons
-        double totalPrice = basePrice * booking.getNumberOfPerson();
+        Money totalPrice = basePrice.times(booking.getNumberOfPerson());
 
         booking.setTotalPrice(totalPrice);
         callback.onBookingPriceCalculated(totalPrice);
     }
 
+    /**
+     * Writes the booking in a single request through the {@link BookingOutbox}, so checkout
+     * completes on the device and syncs when it can. Its id is allocated on the client the
+     * first time and kept on the booking, so it doubles as the idempotency key: retrying
+     * writes the same document again instead of adding a second booking.
+     */
     public void createBooking(Booking booking, BookingCallback callback) {
         // Check if user is logged in
         FirebaseUser currentUser = FirebaseAuth.getInstance().getCurrentUser();
         if (currentUser == null) {
-            Log.e(TAG, "Cannot create booking: User not logged in");
+            AppLog.e(TAG, "Cannot create booking: User not logged in");
             callback.onBookingComplete(false, null);
             return;
         }
 
         // Ensure we have all required data
         if (booking.getTourId() == null || booking.getTourDateStart() == null) {
-            Log.e(TAG, "Cannot create booking: Missing tour ID or date");
+            AppLog.e(TAG, "Cannot create booking: Missing tour ID or date");
             callback.onBookingComplete(false, null);
             return;
         }
 
-        Log.d(TAG, "Creating booking for tour: " + booking.getTourId());
-
-        // Create the booking document in Firestore
-        bookingsCollection.add(booking.toFirestore())
-                .addOnSuccessListener(documentReference -> {
-                    String bookingId = documentReference.getId();
-                    Log.d(TAG, "Booking created with ID: " + bookingId);
-
-                    // Update the booking with the ID
-                    booking.setId(bookingId);
-
-                    // Update the document with its ID
-                    documentReference.update("id", bookingId)
-                            .addOnSuccessListener(aVoid -> {
-                                Log.d(TAG, "Booking document updated with its ID");
-                                callback.onBookingComplete(true, bookingId);
-                            })
-                            .addOnFailureListener(e -> {
-                                Log.w(TAG, "Error updating booking with ID", e);
-                                // Still consider it successful even if this update fails
-                                callback.onBookingComplete(true, bookingId);
-                            });
-                })
-                .addOnFailureListener(e -> {
-                    Log.e(TAG, "Error creating booking", e);
-                    callback.onBookingComplete(false, null);
-                });
+        if (booking.getId() == null) {
+            booking.setId(allocateBookingId());
+            AppLog.d(TAG, "Creating booking {} for tour: {}", booking.getId(), booking.getTourId());
+        } else {
+            AppLog.d(TAG, "Retrying booking {} for tour: {}", booking.getId(), booking.getTourId());
+        }
+
+        if (booking.getCreatedAt() == null) {
+            booking.setCreatedAt(new Date());
+        }
+
+        // Firestore gets the write now, or once the network is back; see BookingOutbox.getBookingStatus
+        BookingOutbox.getInstance().enqueueBooking(booking);
+        // The payment and confirmation screens read it from memory
+        BookingStore.getInstance().put(booking);
+        AppLog.d(TAG, "Booking recorded with ID: {}", booking.getId());
+        callback.onBookingComplete(true, booking.getId());
+    }
+
+    // Firestore ids are generated on the device, so this needs no round trip
+    public String allocateBookingId() {
+        return bookingsCollection.document().getId();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,132 @@
+package com.example.travelerapp.repository;
+
+import com.example.travelerapp.model.Booking;
+import com.example.travelerapp.model.BookingStatus;
+import com.example.travelerapp.util.AppLog;
+import com.google.android.gms.tasks.Task;
+import com.google.firebase.firestore.DocumentReference;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FieldValue;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.FirebaseFirestoreException;
+import com.google.firebase.firestore.Transaction;
+
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Moves bookings between {@link BookingStatus} states. Each transition is one Firestore
+ * transaction that checks the booking's current state and updates the booking together
+ * with every document the transition affects, so a transition is applied whole or not at
+ * all and two transitions of the same booking can never interleave. The payment deadline
+ * is checked in the transaction too, from the booking's createdAt, so it holds whether or
+ * not any screen is open when it passes.
+ */
+public class BookingStateMachine {
+    private static final String TAG = "BookingStateMachine";
+    private static BookingStateMachine instance;
+
+    private final FirebaseFirestore db;
+
+    private BookingStateMachine() {
+        db = FirebaseFirestore.getInstance();
+    }
+
+    public static synchronized BookingStateMachine getInstance() {
+        if (instance == null) {
+            instance = new BookingStateMachine();
+        }
+        return instance;
+    }
+
+    /**
+     * Resolves to the state the booking ends up in. Moving a booking to the state it is
+     * already in succeeds without writing, so a replayed transition is harmless. Fails with
+     * FAILED_PRECONDITION when the current state does not allow the move, when paying after
+     * the deadline and when expiring before it. at is when the move happened on the device.
+     */
+    public Task<BookingStatus> transition(String bookingId, BookingStatus target, Date at) {
+        DocumentReference bookingRef = db.collection("bookings").document(bookingId);
+        // Set by the transaction when it took seats on one of the tour's dates
+        String[] seatsTakenOnTour = new String[1];
+
+        return db.runTransaction(transaction -> {
+            DocumentSnapshot booking = transaction.get(bookingRef);
+            if (!booking.exists()) {
+                throw new FirebaseFirestoreException("Booking " + bookingId + " not found",
+                        FirebaseFirestoreException.Code.NOT_FOUND);
+            }
+
+            BookingStatus current = BookingStatus.fromValue(booking.getString("paymentStatus"));
+            if (current == target) {
+                return current;
+            }
+            if (!current.canMoveTo(target)) {
+                throw new FirebaseFirestoreException("Cannot move booking " + bookingId + " from "
+                        + current + " to " + target, FirebaseFirestoreException.Code.FAILED_PRECONDITION);
+            }
+
+            Date deadline = Booking.getPaymentDeadline(booking.getDate("createdAt"));
+            if (target == BookingStatus.PAID && deadline != null && at.after(deadline)) {
+                throw new FirebaseFirestoreException("Payment deadline of booking " + bookingId + " has passed",
+                        FirebaseFirestoreException.Code.FAILED_PRECONDITION);
+            }
+            if (target == BookingStatus.EXPIRED && (deadline == null || at.before(deadline))) {
+                throw new FirebaseFirestoreException("Booking " + bookingId + " is not due to expire",
+                        FirebaseFirestoreException.Code.FAILED_PRECONDITION);
+            }
+
+            // All reads must come before the first write of a transaction
+            DocumentSnapshot dateOption = target == BookingStatus.PAID ? getDateOption(transaction, booking) : null;
+
+            Map<String, Object> updates = new HashMap<>();
+            updates.put("paymentStatus", target.getValue());
+            updates.put("statusUpdatedAt", at);
+            switch (target) {
+                case PAID:
+                    updates.put("paymentDate", at);
+                    // Seats are taken once a booking is paid; default dates have no document to count on
+                    if (dateOption != null && dateOption.exists()) {
+                        Long persons = booking.getLong("numberOfPerson");
+                        transaction.update(dateOption.getReference(), "bookedCount",
+                                FieldValue.increment(persons != null ? persons : 1));
+                        seatsTakenOnTour[0] = booking.getString("tourId");
+                    }
+                    break;
+                case CONFIRMED:
+                    updates.put("confirmedAt", at);
+                    break;
+                case EXPIRED:
+                    updates.put("expiredAt", at);
+                    break;
+                default:
+                    break;
+            }
+            transaction.update(bookingRef, updates);
+            return target;
+        }).addOnCompleteListener(task -> {
+            if (task.isSuccessful()) {
+                AppLog.d(TAG, "Booking {} is now {}", bookingId, task.getResult());
+                BookingStore.getInstance().applyStatus(bookingId, task.getResult());
+                if (seatsTakenOnTour[0] != null) {
+                    AvailabilityCache.getInstance().invalidateTour(seatsTakenOnTour[0]);
+                }
+            } else {
+                AppLog.w(TAG, "Could not move booking {} to {}: {}", bookingId, target,
+                        task.getException().getMessage());
+            }
+        });
+    }
+
+    private DocumentSnapshot getDateOption(Transaction transaction, DocumentSnapshot booking)
+            throws FirebaseFirestoreException {
+        String tourId = booking.getString("tourId");
+        String dateOptionId = booking.getString("dateOptionId");
+        if (tourId == null || dateOptionId == null) {
+            return null;
+        }
+        return transaction.get(db.collection("tours").document(tourId)
+                .collection("availableDates").document(dateOptionId));
+    }
+}
@@ -0,0 +1,160 @@
+package com.example.travelerapp.repository;
+
+import androidx.lifecycle.LiveData;
+import androidx.lifecycle.MutableLiveData;
+
+import com.example.travelerapp.model.Booking;
+import com.example.travelerapp.model.BookingStatus;
+import com.example.travelerapp.util.AppLog;
+import com.example.travelerapp.util.MemoryBudget;
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.firestore.CollectionReference;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.ListenerRegistration;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * App-wide bookings by id, so the checkout screens after the booking write are served
+ * from memory instead of reading the booking again. A booking is seeded by the write at
+ * checkout and kept fresh by one document listener, attached only while some screen
+ * observes it. Stored bookings must not be modified. Only touched from the main thread.
+ */
+public class BookingStore {
+    private static final String TAG = "BookingStore";
+    private static final int MAX_BOOKINGS = 16;
+
+    private static BookingStore instance;
+
+    private final CollectionReference bookingsCollection;
+    // Most recently used last; bookings a screen is observing are never evicted
+    private final Map<String, BookingLiveData> bookings = new LinkedHashMap<String, BookingLiveData>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, BookingLiveData> eldest) {
+            return size() > MAX_BOOKINGS && !eldest.getValue().hasActiveObservers();
+        }
+    };
+
+    private BookingStore() {
+        bookingsCollection = FirebaseFirestore.getInstance().collection("bookings");
+        MemoryBudget.getInstance().register(TAG, MemoryBudget.Priority.CACHED_DATA, this::shrink);
+    }
+
+    public static synchronized BookingStore getInstance() {
+        if (instance == null) {
+            instance = new BookingStore();
+        }
+        return instance;
+    }
+
+    // Holds null once the listener finds that the booking does not exist
+    private final class BookingLiveData extends MutableLiveData<Booking> {
+        private final String bookingId;
+        private ListenerRegistration registration;
+
+        BookingLiveData(String bookingId) {
+            this.bookingId = bookingId;
+        }
+
+        @Override
+        protected void onActive() {
+            // Snapshots include this device's pending writes, so a booking made offline shows up too
+            registration = bookingsCollection.document(bookingId).addSnapshotListener((snapshot, e) -> {
+                if (e != null) {
+                    AppLog.w(TAG, "Listening to booking {} failed: {}", bookingId, e.getMessage());
+                    return;
+                }
+                if (snapshot.exists()) {
+                    setValue(withLocalFields(Booking.fromFirestore(snapshot), getValue()));
+                } else if (!snapshot.getMetadata().isFromCache()) {
+                    setValue(null);
+                }
+            });
+        }
+
+        @Override
+        protected void onInactive() {
+            registration.remove();
+            registration = null;
+        }
+    }
+
+    public LiveData<Booking> getBooking(String bookingId) {
+        return getLiveData(bookingId);
+    }
+
+    // Resolves to null when the booking does not exist; reads Firestore only if it is not in memory
+    public Task<Booking> fetchBooking(String bookingId) {
+        Booking booking = getLiveData(bookingId).getValue();
+        if (booking != null) {
+            return Tasks.forResult(booking);
+        }
+
+        AppLog.d(TAG, "Reading booking {}", bookingId);
+        return bookingsCollection.document(bookingId)
+                .get()
+                .continueWith(task -> {
+                    if (!task.isSuccessful()) {
+                        throw task.getException();
+                    }
+                    if (!task.getResult().exists()) {
+                        return null;
+                    }
+                    BookingLiveData liveData = getLiveData(bookingId);
+                    Booking fetched = withLocalFields(Booking.fromFirestore(task.getResult()), liveData.getValue());
+                    liveData.setValue(fetched);
+                    return fetched;
+                });
+    }
+
+    // Called with the booking just written at checkout, including its tour name and image
+    public void put(Booking booking) {
+        getLiveData(booking.getId()).setValue(new Booking(booking));
+    }
+
+    // Called after a state transition commits, so screens not listening still see it
+    void applyStatus(String bookingId, BookingStatus status) {
+        BookingLiveData liveData = bookings.get(bookingId);
+        if (liveData != null && liveData.getValue() != null) {
+            Booking updated = new Booking(liveData.getValue());
+            updated.setPaymentStatus(status.getValue());
+            liveData.setValue(updated);
+        }
+    }
+
+    // Bookings a screen is observing are kept whatever the pressure
+    private void shrink(float keepFraction) {
+        int keep = (int) (bookings.size() * keepFraction);
+        Iterator<BookingLiveData> eldest = bookings.values().iterator();
+        while (bookings.size() > keep && eldest.hasNext()) {
+            if (!eldest.next().hasActiveObservers()) {
+                eldest.remove();
+            }
+        }
+    }
+
+    private BookingLiveData getLiveData(String bookingId) {
+        BookingLiveData liveData = bookings.get(bookingId);
+        if (liveData == null) {
+            liveData = new BookingLiveData(bookingId);
+            bookings.put(bookingId, liveData);
+        }
+        return liveData;
+    }
+
+    // The tour name and image are not stored in the booking document, keep the ones it was seeded with
+    private static Booking withLocalFields(Booking fresh, Booking previous) {
+        if (previous == null) {
+            return fresh;
+        }
+        if (fresh.getTourName() == null || fresh.getTourName().isEmpty()) {
+            fresh.setTourName(previous.getTourName());
+        }
+        fresh.setTourImageUrl(previous.getTourImageUrl());
+        fresh.setTourImageResourceId(previous.getTourImageResourceId());
+        return fresh;
+    }
+}
@@ -1,16 +1,20 @@
 package com.example.travelerapp.repository;
 
-import androidx.annotation.NonNull;
+import androidx.lifecycle.LiveData;
 
 import com.example.travelerapp.model.Booking;
+import com.example.travelerapp.model.BookingStatus;
 import com.example.travelerapp.model.PaymentModel;
-import com.google.android.gms.tasks.OnCompleteListener;
+import com.example.travelerapp.model.Tour;
+import com.example.travelerapp.model.TourMapper;
 import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.firestore.DocumentReference;
 import com.google.firebase.firestore.DocumentSnapshot;
 import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.Source;
 
-import java.util.HashMap;
-import java.util.Map;
+import java.util.Date;
 
 public class PaymentRepository {
     private static final String TAG = "PaymentRepository";
@@ -26,89 +30,87 @@ public class PaymentRepository {
         void onError(Exception e);
     }
 
-    // Get payment details from booking
-    public void getPaymentDetails(String bookingId, PaymentCallback<PaymentModel> callback) {
-        db.collection("bookings").document(bookingId)
-                .get()
-                .addOnCompleteListener(new OnCompleteListener<DocumentSnapshot>() {
-                    @Override
-                    public void onComplete(@NonNull Task<DocumentSnapshot> task) {
-                        if (task.isSuccessful()) {
-                            DocumentSnapshot document = task.getResult();
-                            if (document.exists()) {
-                                try {
-                                    Booking booking = document.toObject(Booking.class);
-                                    if (booking != null) {
-                                        booking.setId(document.getId());
-                                        PaymentModel paymentModel = new PaymentModel(booking);
-
-                                        // If tour ID exists, get tour details to set duration
-                                        if (booking.getTourId() != null && !booking.getTourId().isEmpty()) {
-                                            getTourDetails(booking.getTourId(), paymentModel, callback);
-                                        } else {
-                                            callback.onSuccess(paymentModel);
-                                        }
-                                    } else {
-                                        callback.onError(new Exception("Failed to convert document to Booking"));
-                                    }
-                                } catch (Exception e) {
-                                    callback.onError(e);
-                                }
-                            } else {
-                                callback.onError(new Exception("Booking not found"));
-                            }
-                        } else {
-                            callback.onError(task.getException());
-                        }
-                    }
-                });
+    /**
+     * Loads everything the payment screen shows as one model. The booking usually comes
+     * from the {@link BookingStore}, seeded at checkout. When the booking flow already knows
+     * the tour id, the booking and tour are read at the same time, so the screen waits for
+     * at most one round trip; otherwise the tour read waits for the booking to name it.
+     */
+    public void getPaymentDetails(String bookingId, String tourId, PaymentCallback<PaymentModel> callback) {
+        Task<Booking> bookingRead = BookingStore.getInstance().fetchBooking(bookingId);
+        Task<DocumentSnapshot> tourRead = tourId != null && !tourId.isEmpty()
+                ? readTour(tourId)
+                : bookingRead.continueWithTask(task -> readTour(
+                        task.isSuccessful() && task.getResult() != null ? task.getResult().getTourId() : null));
+
+        Tasks.whenAllSuccess(bookingRead, tourRead).addOnCompleteListener(task -> {
+            if (!task.isSuccessful()) {
+                callback.onError(task.getException());
+                return;
+            }
+
+            Booking booking = bookingRead.getResult();
+            if (booking == null) {
+                callback.onError(new Exception("Booking not found"));
+                return;
+            }
+
+            // Nothing else writes the expiry; the transaction checks the deadline itself
+            Date deadline = booking.getPaymentDeadline();
+            if (BookingStatus.fromValue(booking.getPaymentStatus()) == BookingStatus.PENDING
+                    && deadline != null && !deadline.after(new Date())) {
+                BookingStateMachine.getInstance().transition(bookingId, BookingStatus.EXPIRED, new Date());
+            }
+
+            try {
+                callback.onSuccess(toPaymentModel(booking, tourRead.getResult()));
+            } catch (Exception e) {
+                callback.onError(e);
+            }
+        });
     }
 
-    // Get tour details to enhance the payment model
-    private void getTourDetails(String tourId, PaymentModel paymentModel, PaymentCallback<PaymentModel> callback) {
-        db.collection("tours").document(tourId)
-                .get()
-                .addOnCompleteListener(new OnCompleteListener<DocumentSnapshot>() {
-                    @Override
-                    public void onComplete(@NonNull Task<DocumentSnapshot> task) {
-                        if (task.isSuccessful()) {
-                            DocumentSnapshot document = task.getResult();
-                            if (document.exists()) {
-                                // Set tour duration if available
-                                String duration = document.getString("duration");
-                                if (duration != null && !duration.isEmpty()) {
-                                    paymentModel.setTourDuration(duration);
-                                } else {
-                                    paymentModel.setTourDuration(paymentModel.getFormattedDuration());
-                                }
-                            }
-                            callback.onSuccess(paymentModel);
-                        } else {
-                            // Still return the payment model even if tour details are not found
-                            paymentModel.setTourDuration(paymentModel.getFormattedDuration());
-                            callback.onSuccess(paymentModel);
-                        }
-                    }
-                });
+    /**
+     * Never fails; the payment screen can still be shown without its tour. The tour was
+     * read on the detail screen moments ago, so Firestore's local cache is tried first.
+     */
+    private Task<DocumentSnapshot> readTour(String tourId) {
+        if (tourId == null || tourId.isEmpty()) {
+            return Tasks.forResult(null);
+        }
+        DocumentReference tourRef = db.collection("tours").document(tourId);
+        return tourRef.get(Source.CACHE)
+                .continueWithTask(task -> task.isSuccessful() ? task : tourRef.get())
+                .continueWith(task -> task.isSuccessful() ? task.getResult() : null);
+    }
+
+    private PaymentModel toPaymentModel(Booking booking, DocumentSnapshot tourDocument) {
+        PaymentModel paymentModel = new PaymentModel(booking);
+        if (tourDocument == null || !tourDocument.exists()) {
+            paymentModel.setTourDuration(paymentModel.getFormattedDuration());
+            return paymentModel;
+        }
+
+        // Bookings do not always carry the tour name; the mapper resolves it from any title alias
+        if (paymentModel.getTourName() == null || paymentModel.getTourName().isEmpty()) {
+            Tour tour = TourMapper.fromDocument(tourDocument);
+            if (tour != null) {
+                paymentModel.setTourName(tour.getTitle());
+            }
+        }
+
+        // Set tour duration if available
+        String duration = tourDocument.getString("duration");
+        if (duration != null && !duration.isEmpty()) {
+            paymentModel.setTourDuration(duration);
+        } else {
+            paymentModel.setTourDuration(paymentModel.getFormattedDuration());
+        }
+        return paymentModel;
     }
 
-    // Confirm payment in Firestore
-    public void confirmPayment(String bookingId, PaymentCallback<Boolean> callback) {
-        Map<String, Object> updates = new HashMap<>();
-        updates.put("paymentStatus", "completed");
-        updates.put("paymentDate", new java.util.Date());
-
-        db.collection("bookings").document(bookingId)
-                .update(updates)
-                .addOnCompleteListener(new OnCompleteListener<Void>() {
-                    @Override
-                    public void onComplete(@NonNull Task<Void> task) {
-                        if (task.isSuccessful()) {
-                            callback.onSuccess(true);
-                        } else {
-                            callback.onError(task.getException());
-                        }
-                    }
-                });
+    // Confirm payment; recorded on the device, the outbox syncs it and reports whether Firestore accepted it
+    public LiveData<BookingOutbox.Status> confirmPayment(String bookingId) {
+        return BookingOutbox.getInstance().enqueuePayment(bookingId);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,47 @@
+package com.example.travelerapp.repository;
+
+import android.os.SystemClock;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Review counts per tour with the time they were fetched. Counts aggregated from the
+ * reviews collection expire after {@link #TTL_MS}; counts read from a tour document's
+ * maintained reviewCount field never expire, since the sync listener keeps them current.
+ * Only touched from the main thread.
+ */
+class ReviewCountCache {
+    static final long TTL_MS = 10 * 60 * 1000;
+
+    private static class Entry {
+        final String count;
+        final long expiresAt;
+
+        Entry(String count, long expiresAt) {
+            this.count = count;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    private final Map<String, Entry> entries = new HashMap<>();
+
+    // Returns the last known count, fresh or not, or null if the tour was never counted
+    String get(String tourId) {
+        Entry entry = entries.get(tourId);
+        return entry != null ? entry.count : null;
+    }
+
+    boolean isFresh(String tourId) {
+        Entry entry = entries.get(tourId);
+        return entry != null && SystemClock.elapsedRealtime() < entry.expiresAt;
+    }
+
+    void putAggregated(String tourId, String count) {
+        entries.put(tourId, new Entry(count, SystemClock.elapsedRealtime() + TTL_MS));
+    }
+
+    void putMaintained(String tourId, String count) {
+        entries.put(tourId, new Entry(count, Long.MAX_VALUE));
+    }
+}
@@ -0,0 +1,255 @@
+package com.example.travelerapp.repository;
+
+import androidx.lifecycle.LiveData;
+import androidx.lifecycle.MutableLiveData;
+
+import com.example.travelerapp.model.Review;
+import com.example.travelerapp.util.AppLog;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.Query;
+import com.google.firebase.firestore.QuerySnapshot;
+import com.google.firebase.firestore.Source;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Newest-first reviews of one tour, loaded a page at a time with document cursors.
+ * The page after the last shown one is fetched in the background as soon as the
+ * previous page is shown, so {@link #loadNextPage()} can usually publish it at once.
+ * Feeds are kept by {@link ReviewRepository} and trimmed when their screen goes away.
+ * Only touched from the main thread.
+ */
+public class ReviewFeed {
+    private static final String TAG = "ReviewFeed";
+
+    private static class Page {
+        final List<Review> reviews;
+        final DocumentSnapshot last;
+        final boolean isLastPage;
+
+        Page(List<Review> reviews, DocumentSnapshot last, boolean isLastPage) {
+            this.reviews = reviews;
+            this.last = last;
+            this.isLastPage = isLastPage;
+        }
+    }
+
+    private final Query baseQuery;
+    private final int pageSize;
+    private final List<Page> pages = new ArrayList<>();
+    private final MutableLiveData<List<Review>> reviewsLiveData = new MutableLiveData<>();
+    private final MutableLiveData<Boolean> isLoading = new MutableLiveData<>(false);
+
+    private Page prefetchedPage;
+    private boolean fetchInProgress = false;
+    // Set when the user reached the end before the prefetch arrived
+    private boolean showWhenFetched = false;
+    // Bumped by trim() so answers to queries issued before it are ignored
+    private int generation = 0;
+
+    // Cursors are document snapshots, so reviews with the same date are still paged in a stable order
+    ReviewFeed(Query baseQuery, int pageSize) {
+        this.baseQuery = baseQuery;
+        this.pageSize = pageSize;
+    }
+
+    public LiveData<List<Review>> getReviews() {
+        return reviewsLiveData;
+    }
+
+    public LiveData<Boolean> getIsLoading() {
+        return isLoading;
+    }
+
+    public boolean hasMore() {
+        return prefetchedPage != null || pages.isEmpty() || !pages.get(pages.size() - 1).isLastPage;
+    }
+
+    /**
+     * Shows the first page. Reviews already held by this feed are published at once and
+     * the first page is checked against the server in the background; otherwise
+     * Firestore's local cache is read before the server is asked.
+     */
+    public void start() {
+        if (!pages.isEmpty()) {
+            revalidateFirstPage();
+            prefetchNextPage();
+            return;
+        }
+        if (fetchInProgress) {
+            return;
+        }
+
+        fetchInProgress = true;
+        isLoading.setValue(true);
+        int requestGeneration = generation;
+        Query firstPage = baseQuery.limit(pageSize);
+
+        firstPage.get(Source.CACHE).addOnCompleteListener(cacheTask -> {
+            if (requestGeneration == generation && pages.isEmpty()
+                    && cacheTask.isSuccessful() && !cacheTask.getResult().isEmpty()) {
+                // Shown until the server answers; its cursor is not used for paging
+                reviewsLiveData.setValue(Collections.unmodifiableList(toReviews(cacheTask.getResult())));
+            }
+        });
+
+        firstPage.get().addOnCompleteListener(task -> {
+            if (requestGeneration != generation) {
+                return;
+            }
+            fetchInProgress = false;
+
+            if (!task.isSuccessful()) {
+                AppLog.e(TAG, "Error loading reviews", task.getException());
+                isLoading.setValue(false);
+                return;
+            }
+
+            pages.add(toPage(task.getResult()));
+            isLoading.setValue(false);
+            publish();
+            prefetchNextPage();
+        });
+    }
+
+    // Called when the user scrolls near the end of the shown reviews
+    public void loadNextPage() {
+        if (prefetchedPage != null) {
+            showPrefetchedPage();
+        } else if (hasMore() && !pages.isEmpty()) {
+            showWhenFetched = true;
+            isLoading.setValue(true);
+            prefetchNextPage();
+        }
+    }
+
+    /**
+     * Keeps only the first {@code maxPages} pages and drops the prefetched one, so a
+     * cached feed holds enough to show instantly without growing with every scroll.
+     */
+    void trim(int maxPages) {
+        generation++;
+        fetchInProgress = false;
+        showWhenFetched = false;
+        prefetchedPage = null;
+        isLoading.setValue(false);
+
+        if (pages.size() > maxPages) {
+            pages.subList(maxPages, pages.size()).clear();
+            publish();
+        }
+    }
+
+    // Picks up reviews added, edited or deleted since the held pages were loaded
+    private void revalidateFirstPage() {
+        int requestGeneration = generation;
+        baseQuery.limit(pageSize).get().addOnCompleteListener(task -> {
+            if (requestGeneration != generation || pages.isEmpty()) {
+                return;
+            }
+            if (!task.isSuccessful()) {
+                AppLog.w(TAG, "Error revalidating reviews", task.getException());
+                return;
+            }
+
+            Page fresh = toPage(task.getResult());
+            if (sameReviews(fresh, pages.get(0))) {
+                // Same reviews in the same order, so the later pages' cursors still hold
+                pages.set(0, fresh);
+                publish();
+                return;
+            }
+
+            // Added or deleted reviews shift every later page, so start again from the fresh one
+            generation++;
+            fetchInProgress = false;
+            showWhenFetched = false;
+            prefetchedPage = null;
+            isLoading.setValue(false);
+            pages.clear();
+            pages.add(fresh);
+            publish();
+            prefetchNextPage();
+        });
+    }
+
+    private static boolean sameReviews(Page a, Page b) {
+        if (a.reviews.size() != b.reviews.size() || a.isLastPage != b.isLastPage) {
+            return false;
+        }
+        for (int i = 0; i < a.reviews.size(); i++) {
+            if (!a.reviews.get(i).getId().equals(b.reviews.get(i).getId())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void prefetchNextPage() {
+        if (fetchInProgress || prefetchedPage != null || pages.isEmpty()) {
+            return;
+        }
+        Page lastPage = pages.get(pages.size() - 1);
+        if (lastPage.isLastPage) {
+            return;
+        }
+
+        fetchInProgress = true;
+        int requestGeneration = generation;
+        baseQuery.startAfter(lastPage.last).limit(pageSize).get().addOnCompleteListener(task -> {
+            if (requestGeneration != generation) {
+                return;
+            }
+            fetchInProgress = false;
+
+            if (!task.isSuccessful()) {
+                AppLog.e(TAG, "Error prefetching reviews", task.getException());
+                showWhenFetched = false;
+                isLoading.setValue(false);
+                return;
+            }
+
+            prefetchedPage = toPage(task.getResult());
+            if (showWhenFetched) {
+                showPrefetchedPage();
+            }
+        });
+    }
+
+    private void showPrefetchedPage() {
+        showWhenFetched = false;
+        isLoading.setValue(false);
+        // An empty page is kept too, it marks the end of the feed
+        pages.add(prefetchedPage);
+        prefetchedPage = null;
+        publish();
+        prefetchNextPage();
+    }
+
+    private Page toPage(QuerySnapshot snapshot) {
+        List<DocumentSnapshot> documents = snapshot.getDocuments();
+        DocumentSnapshot last = documents.isEmpty() ? null : documents.get(documents.size() - 1);
+        return new Page(toReviews(snapshot), last, documents.size() < pageSize);
+    }
+
+    private List<Review> toReviews(QuerySnapshot snapshot) {
+        List<Review> reviews = new ArrayList<>();
+        for (DocumentSnapshot document : snapshot.getDocuments()) {
+            Review review = Review.fromFirestore(document);
+            if (review != null) {
+                reviews.add(review);
+            }
+        }
+        return reviews;
+    }
+
+    private void publish() {
+        List<Review> shown = new ArrayList<>();
+        for (Page page : pages) {
+            shown.addAll(page.reviews);
+        }
+        reviewsLiveData.setValue(Collections.unmodifiableList(shown));
+    }
+}
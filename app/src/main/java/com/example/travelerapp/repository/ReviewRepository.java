@@ -0,0 +1,59 @@
+package com.example.travelerapp.repository;
+
+import com.google.firebase.firestore.CollectionReference;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.Query;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Hands out one {@link ReviewFeed} per tour and keeps the feeds of the most recently
+ * opened tours, so reopening a tour shows its first reviews without a query.
+ * Only touched from the main thread.
+ */
+public class ReviewRepository {
+    private static ReviewRepository instance;
+
+    public static final int PAGE_SIZE = 10;
+    // Tours whose feeds are kept, and pages a kept feed holds once its screen is closed
+    private static final int MAX_CACHED_TOURS = 8;
+    private static final int MAX_CACHED_PAGES = 2;
+
+    private final CollectionReference reviewsCollection;
+    private final Map<String, ReviewFeed> feeds = new LinkedHashMap<String, ReviewFeed>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, ReviewFeed> eldest) {
+            return size() > MAX_CACHED_TOURS;
+        }
+    };
+
+    private ReviewRepository() {
+        reviewsCollection = FirebaseFirestore.getInstance().collection("reviews");
+    }
+
+    public static synchronized ReviewRepository getInstance() {
+        if (instance == null) {
+            instance = new ReviewRepository();
+        }
+        return instance;
+    }
+
+    public ReviewFeed getFeed(String tourId) {
+        ReviewFeed feed = feeds.get(tourId);
+        if (feed == null) {
+            // Needs a composite index on reviews: tourId ascending, createdAt descending
+            Query query = reviewsCollection
+                    .whereEqualTo("tourId", tourId)
+                    .orderBy("createdAt", Query.Direction.DESCENDING);
+            feed = new ReviewFeed(query, PAGE_SIZE);
+            feeds.put(tourId, feed);
+        }
+        return feed;
+    }
+
+    // Called when the screen showing the feed goes away
+    public void releaseFeed(ReviewFeed feed) {
+        feed.trim(MAX_CACHED_PAGES);
+    }
+}
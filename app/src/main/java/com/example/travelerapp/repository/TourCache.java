@@ -0,0 +1,74 @@
+package com.example.travelerapp.repository;
+
+import com.example.travelerapp.model.Tour;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Ordered tour list with a hash index from tour id to list slot, so lookups and
+ * in-place replacements are O(1) instead of a scan over the whole catalog.
+ * Only touched from the main thread.
+ */
+class TourCache {
+    private final List<Tour> tours = new ArrayList<>();
+    private final Map<String, Integer> slotsById = new HashMap<>();
+
+    void replaceAll(List<Tour> newTours) {
+        tours.clear();
+        slotsById.clear();
+        for (Tour tour : newTours) {
+            put(tour);
+        }
+    }
+
+    Tour get(String tourId) {
+        Integer slot = slotsById.get(tourId);
+        return slot != null ? tours.get(slot) : null;
+    }
+
+    boolean contains(String tourId) {
+        return slotsById.containsKey(tourId);
+    }
+
+    // Replaces the tour with the same id in its slot, or appends it if it is new
+    void put(Tour tour) {
+        Integer slot = slotsById.get(tour.getId());
+        if (slot != null) {
+            tours.set(slot, tour);
+        } else {
+            slotsById.put(tour.getId(), tours.size());
+            tours.add(tour);
+        }
+    }
+
+    // Removal keeps the list order, so the slots after the removed tour shift down by one
+    boolean remove(String tourId) {
+        Integer slot = slotsById.remove(tourId);
+        if (slot == null) {
+            return false;
+        }
+
+        tours.remove((int) slot);
+        for (int i = slot; i < tours.size(); i++) {
+            slotsById.put(tours.get(i).getId(), i);
+        }
+        return true;
+    }
+
+    int size() {
+        return tours.size();
+    }
+
+    boolean isEmpty() {
+        return tours.isEmpty();
+    }
+
+    // Immutable copy suitable for publishing through LiveData
+    List<Tour> snapshot() {
+        return Collections.unmodifiableList(new ArrayList<>(tours));
+    }
+}
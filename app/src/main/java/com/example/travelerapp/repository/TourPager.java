@@ -0,0 +1,116 @@
+package com.example.travelerapp.repository;
+
+import androidx.lifecycle.LiveData;
+import androidx.lifecycle.MutableLiveData;
+import androidx.lifecycle.Observer;
+
+import com.example.travelerapp.model.Tour;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Shows the tour catalog a page at a time. Pages are slices of the catalog the
+ * repository already holds, so paging and filtering never query Firestore: the filter
+ * runs over every tour, and the shown list grows by a page as the user nears its end.
+ * Every catalog change, such as a bookmark patch, reaches each open pager.
+ * Only touched from the main thread; {@link #close()} it when its screen is done.
+ */
+public class TourPager {
+
+    public interface TourFilter {
+        boolean matches(Tour tour);
+    }
+
+    private final TourRepository repository;
+    private final LiveData<List<Tour>> catalog;
+    private final int pageSize;
+    private final MutableLiveData<List<Tour>> toursLiveData = new MutableLiveData<>();
+    private final MutableLiveData<Boolean> isLoading = new MutableLiveData<>(true);
+    private final Observer<List<Tour>> catalogObserver = tours -> publish();
+
+    private TourFilter filter;
+    private int shownPages = 1;
+    private boolean hasMore = false;
+
+    TourPager(TourRepository repository, LiveData<List<Tour>> catalog, int pageSize, TourFilter filter) {
+        this.repository = repository;
+        this.catalog = catalog;
+        this.pageSize = pageSize;
+        this.filter = filter;
+        catalog.observeForever(catalogObserver);
+    }
+
+    public LiveData<List<Tour>> getTours() {
+        return toursLiveData;
+    }
+
+    // True until the catalog has been loaded, e.g. from the snapshot or Firestore
+    public LiveData<Boolean> getIsLoading() {
+        return isLoading;
+    }
+
+    public boolean hasMore() {
+        return hasMore;
+    }
+
+    public void loadNextPage() {
+        if (hasMore) {
+            shownPages++;
+            publish();
+        }
+    }
+
+    // Changes which tours are shown and starts again from the first page of matches
+    public void setFilter(TourFilter filter) {
+        this.filter = filter;
+        shownPages = 1;
+        publish();
+    }
+
+    /**
+     * Asks for fresh review counts of the shown tours between the given positions,
+     * typically the ones on screen. The counts arrive as a catalog change.
+     */
+    public void refreshReviewCounts(int firstVisible, int lastVisible) {
+        List<Tour> shown = toursLiveData.getValue();
+        if (shown == null || firstVisible < 0) {
+            return;
+        }
+
+        int end = Math.min(lastVisible + 1, shown.size());
+        if (firstVisible < end) {
+            repository.refreshReviewCounts(shown.subList(firstVisible, end), null);
+        }
+    }
+
+    public void close() {
+        catalog.removeObserver(catalogObserver);
+    }
+
+    private void publish() {
+        List<Tour> tours = catalog.getValue();
+        if (tours == null) {
+            return;
+        }
+
+        int limit = shownPages * pageSize;
+        List<Tour> shown = new ArrayList<>(Math.min(limit, tours.size()));
+        hasMore = false;
+        for (Tour tour : tours) {
+            if (filter == null || filter.matches(tour)) {
+                if (shown.size() == limit) {
+                    hasMore = true;
+                    break;
+                }
+                shown.add(tour);
+            }
+        }
+
+        if (Boolean.TRUE.equals(isLoading.getValue())) {
+            isLoading.setValue(false);
+        }
+        toursLiveData.setValue(Collections.unmodifiableList(shown));
+    }
+}
@@ -0,0 +1,194 @@
+package com.example.travelerapp.repository;
+
+import android.content.Context;
+import android.os.SystemClock;
+
+import com.example.travelerapp.model.Tour;
+import com.example.travelerapp.util.AppLog;
+import com.example.travelerapp.util.CancellationToken;
+import com.example.travelerapp.util.ImageLoader;
+import com.example.travelerapp.util.MemoryBudget;
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.Tasks;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Warms what the tour detail screen needs for the tours a list has settled on: the tour
+ * document, the first availability window and the hero image. Each list reports its
+ * visible tours under its own source name. At most {@link #MAX_CONCURRENT} tours are
+ * warmed at once; tours that leave every list before their turn are dropped and their
+ * image fetches cancelled. Only touched from the main thread.
+ */
+public class TourPrefetcher {
+    private static final String TAG = "TourPrefetcher";
+    private static TourPrefetcher instance;
+
+    // Firestore has no request priority, so the budget keeps prefetches from crowding out the screen
+    private static final int MAX_CONCURRENT = 2;
+    // A warmed tour is warmed again once its available dates would be refetched anyway
+    private static final long REWARM_AFTER_MS = AvailabilityCache.FRESH_MS;
+    private static final int MAX_WARMED = 64;
+
+    private final TourRepository tourRepository;
+    private final BookingRepository bookingRepository;
+    private final ImageLoader imageLoader;
+
+    private final Map<String, Set<String>> visibleBySource = new HashMap<>();
+    private final Map<String, Tour> queue = new LinkedHashMap<>();
+    private final Set<String> running = new HashSet<>();
+    private final Map<String, CancellationToken> imageFetches = new HashMap<>();
+    private final Map<String, Long> warmedAt = new LinkedHashMap<String, Long>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Long> eldest) {
+            return size() > MAX_WARMED;
+        }
+    };
+
+    private TourPrefetcher(Context context) {
+        tourRepository = TourRepository.getInstance(context);
+        bookingRepository = new BookingRepository();
+        imageLoader = ImageLoader.getInstance(context);
+        MemoryBudget.getInstance().register(TAG, MemoryBudget.Priority.PREFETCH, keepFraction -> shrink());
+    }
+
+    public static synchronized TourPrefetcher getInstance(Context context) {
+        if (instance == null) {
+            instance = new TourPrefetcher(context.getApplicationContext());
+        }
+        return instance;
+    }
+
+    // Called once a list has settled; queues the tours that are not warm yet
+    public void setVisibleTours(String source, List<Tour> tours) {
+        Set<String> visible = new HashSet<>();
+        for (Tour tour : tours) {
+            visible.add(tour.getId());
+        }
+        visibleBySource.put(source, visible);
+        dropInvisible();
+
+        for (Tour tour : tours) {
+            if (!running.contains(tour.getId()) && !isWarm(tour.getId())) {
+                queue.put(tour.getId(), tour);
+            }
+        }
+        startNext();
+    }
+
+    // Called on every scroll; only forgets tours, so queued work never starts mid-fling
+    public void retainVisibleTours(String source, List<Tour> tours) {
+        Set<String> visible = visibleBySource.get(source);
+        if (visible == null) {
+            return;
+        }
+        Set<String> stillVisible = new HashSet<>();
+        for (Tour tour : tours) {
+            if (visible.contains(tour.getId())) {
+                stillVisible.add(tour.getId());
+            }
+        }
+        if (stillVisible.size() != visible.size()) {
+            visibleBySource.put(source, stillVisible);
+            dropInvisible();
+        }
+    }
+
+    // Called when the list goes away
+    public void clearVisibleTours(String source) {
+        if (visibleBySource.remove(source) != null) {
+            dropInvisible();
+        }
+    }
+
+    private boolean isVisible(String tourId) {
+        for (Set<String> visible : visibleBySource.values()) {
+            if (visible.contains(tourId)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Under memory pressure queued warm-ups are dropped; the lists queue them again once they settle
+    private void shrink() {
+        queue.clear();
+        for (CancellationToken fetch : imageFetches.values()) {
+            fetch.cancel();
+        }
+        imageFetches.clear();
+    }
+
+    private boolean isWarm(String tourId) {
+        Long warmed = warmedAt.get(tourId);
+        return warmed != null && SystemClock.elapsedRealtime() - warmed < REWARM_AFTER_MS;
+    }
+
+    // Firestore reads cannot be cancelled, so running warm-ups only lose their image fetch
+    private void dropInvisible() {
+        Iterator<String> queued = queue.keySet().iterator();
+        while (queued.hasNext()) {
+            if (!isVisible(queued.next())) {
+                queued.remove();
+            }
+        }
+
+        Iterator<Map.Entry<String, CancellationToken>> fetching = imageFetches.entrySet().iterator();
+        while (fetching.hasNext()) {
+            Map.Entry<String, CancellationToken> fetch = fetching.next();
+            if (!isVisible(fetch.getKey())) {
+                fetching.remove();
+                fetch.getValue().cancel();
+            }
+        }
+    }
+
+    private void startNext() {
+        Iterator<Tour> queued = queue.values().iterator();
+        while (running.size() < MAX_CONCURRENT && queued.hasNext()) {
+            Tour tour = queued.next();
+            queued.remove();
+            warm(tour);
+        }
+    }
+
+    private void warm(Tour tour) {
+        String tourId = tour.getId();
+        AppLog.d(TAG, "Warming tour: {}", tourId);
+        running.add(tourId);
+
+        List<Task<?>> loads = new ArrayList<>();
+        Task<Void> tourLoad = tourRepository.prefetchTour(tourId);
+        if (tourLoad != null) {
+            loads.add(tourLoad);
+        }
+        Task<?> datesLoad = bookingRepository.prefetchAvailableDates(tourId);
+        if (datesLoad != null) {
+            loads.add(datesLoad);
+        }
+        prefetchImage(tour);
+
+        Tasks.whenAllComplete(loads).addOnCompleteListener(task -> {
+            running.remove(tourId);
+            warmedAt.put(tourId, SystemClock.elapsedRealtime());
+            startNext();
+        });
+    }
+
+    // Image fetches run on the image loader's network pool at low priority and do not count against the budget
+    private void prefetchImage(Tour tour) {
+        String url = tour.getTourImageUrl();
+        String tourId = tour.getId();
+        if (url == null || url.isEmpty() || imageFetches.containsKey(tourId)) {
+            return;
+        }
+        imageFetches.put(tourId, imageLoader.prefetch(url, () -> imageFetches.remove(tourId)));
+    }
+}
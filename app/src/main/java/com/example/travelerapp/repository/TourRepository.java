@@ -1,36 +1,130 @@
 package com.example.travelerapp.repository;
 
+import android.content.Context;
+import android.os.Handler;
+import android.os.Looper;
 import android.util.Log;
 
 import androidx.lifecycle.LiveData;
 import androidx.lifecycle.MutableLiveData;
 
 import com.example.travelerapp.R;
+import com.example.travelerapp.model.Money;
 import com.example.travelerapp.model.Tour;
+import com.example.travelerapp.model.TourMapper;
+import com.example.travelerapp.util.AppLog;
+import com.example.travelerapp.util.MemoryBudget;
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.Timestamp;
+import com.google.firebase.firestore.AggregateSource;
 import com.google.firebase.firestore.CollectionReference;
+import com.google.firebase.firestore.DocumentChange;
 import com.google.firebase.firestore.DocumentSnapshot;
 import com.google.firebase.firestore.FirebaseFirestore;
 import com.google.firebase.firestore.FirebaseFirestoreSettings;
+import com.google.firebase.firestore.ListenerRegistration;
 import com.google.firebase.firestore.QueryDocumentSnapshot;
 
 import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
 
+/**
+ * Application-wide tour catalog store. ViewModels share the single instance and
+ * subscribe/unsubscribe to it, so the catalog is loaded once however many screens are open.
+ */
 public class TourRepository {
     private static final String TAG = "TourRepository";
+    private static TourRepository instance;
+
+    // Fallback price used when a tour has no priced available date
+    private static final Money DEFAULT_TOUR_PRICE = Money.vnd(1500000);
+
+    // Tours kept from single-document loads that are not in the catalog
+    private static final int MAX_DETAIL_TOURS = 32;
+
+    // Visible-tour review count requests arriving within this window are sent as one batch
+    private static final long REVIEW_COUNT_BATCH_DELAY_MS = 250;
+    // Count aggregations sent per batch; tours beyond it wait for the next batch, which
+    // starts once this one has completed
+    private static final int MAX_REVIEW_COUNTS_PER_BATCH = 8;
+
+    // Incremental sync misses tours deleted outright, so the catalog is fully reloaded this often
+    private static final long MAX_SYNC_AGE_MS = TimeUnit.DAYS.toMillis(1);
+
     private MutableLiveData<List<Tour>> tourListLiveData = new MutableLiveData<>();
+    private final MutableLiveData<Boolean> isLoadingLiveData = new MutableLiveData<>(false);
     private FirebaseFirestore db;
     private CollectionReference toursCollection;
     private CollectionReference reviewsCollection;
-    private List<Tour> cachedTours = new ArrayList<>();
-    private boolean useLocalData = false; // Set to false to use Firebase
+    private final TourCache tourCache = new TourCache();
+    private final TourUpdateBatcher updateBatcher = new TourUpdateBatcher(new TourUpdateBatcher.SnapshotTarget() {
+        // Tours loaded for the detail screen are patched too, so none is changed after delivery
+        @Override
+        public Tour findTour(String tourId) {
+            Tour tour = tourCache.get(tourId);
+            return tour != null ? tour : detailTours.get(tourId);
+        }
+
+        @Override
+        public void replaceTour(Tour tour) {
+            if (tourCache.contains(tour.getId())) {
+                tourCache.put(tour);
+            } else {
+                detailTours.put(tour.getId(), tour);
+            }
+        }
 
-    public TourRepository() {
+        @Override
+        public void publishSnapshot() {
+            tourListLiveData.setValue(tourCache.snapshot());
+        }
+    });
+    private final TourSnapshotStore snapshotStore;
+    private final ReviewCountCache reviewCountCache = new ReviewCountCache();
+    // Tours whose count has been requested but not received yet, with the listeners waiting for it
+    private final Map<String, List<ReviewCountListener>> reviewCountWaiters = new HashMap<>();
+    // Tours loaded one by one for the detail screen, most recently used last
+    private final Map<String, Tour> detailTours = new LinkedHashMap<String, Tour>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Tour> eldest) {
+            return size() > MAX_DETAIL_TOURS;
+        }
+    };
+    private final Map<String, Task<Tour>> tourDocumentLoads = new HashMap<>();
+    private final Set<String> queuedReviewCounts = new LinkedHashSet<>();
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    // From scheduling a review count batch until its counts are applied, so one batch runs at a time
+    private boolean reviewCountBatchActive = false;
+    private boolean useLocalData = false; // Set to false to use Firebase
+    private boolean isLoading = false;
+    private boolean snapshotRestoreAttempted = false;
+    private boolean isRestoringSnapshot = false;
+    private boolean hasNetworkTours = false;
+    private int subscriberCount = 0;
+
+    // Incremental sync: highest updatedAt (ms) merged into the catalog, and its listener
+    private long syncCursor = 0;
+    // When the catalog was last read in full, so syncing from the cursor is trusted only for a while
+    private long lastFullLoadAt = 0;
+    private ListenerRegistration syncRegistration;
+    private boolean isAppInForeground = false;
+
+    private TourRepository(Context context) {
         // Initialize Firestore
         db = FirebaseFirestore.getInstance();
 
-        // Configure Firestore settings for better reliability
+        // Configure Firestore settings for better reliability (only once per process)
         FirebaseFirestoreSettings settings = new FirebaseFirestoreSettings.Builder()
                 .setPersistenceEnabled(true)
                 .build();
@@ -38,116 +132,281 @@ public class TourRepository {
 
         toursCollection = db.collection("tours");
         reviewsCollection = db.collection("reviews");
+        snapshotStore = new TourSnapshotStore(context);
 
-        // Load tours from Firestore
-        if (!useLocalData) {
+        // The catalog itself backs the lists on screen and is never shed, only detail documents are
+        MemoryBudget.getInstance().register(TAG, MemoryBudget.Priority.CACHED_DATA,
+                keepFraction -> MemoryBudget.trimEldest(detailTours, keepFraction));
+    }
+
+    public static synchronized TourRepository getInstance(Context context) {
+        if (instance == null) {
+            instance = new TourRepository(context.getApplicationContext());
+        }
+        return instance;
+    }
+
+    /**
+     * Registers a subscriber (usually a ViewModel) and starts the first catalog load if
+     * nothing is loaded yet. Every call must be balanced by {@link #unsubscribe()}.
+     */
+    public LiveData<List<Tour>> subscribe() {
+        subscriberCount++;
+        AppLog.d(TAG, "Subscribed, {} active subscribers", subscriberCount);
+        LiveData<List<Tour>> tours = getTours();
+        updateSyncListener();
+        return tours;
+    }
+
+    public void unsubscribe() {
+        if (subscriberCount > 0) {
+            subscriberCount--;
+        }
+        // The catalog stays cached so the next screen can show it without reloading
+        AppLog.d(TAG, "Unsubscribed, {} active subscribers", subscriberCount);
+        updateSyncListener();
+    }
+
+    // Called by the application when its first activity starts / last activity stops
+    public void onAppForeground() {
+        isAppInForeground = true;
+        if (subscriberCount > 0 && syncCursor > 0 && isSyncStale()) {
+            // A full load restarts the sync listener from its new cursor
             loadFirestoreTours();
         } else {
+            updateSyncListener();
+        }
+    }
+
+    public void onAppBackground() {
+        isAppInForeground = false;
+        updateSyncListener();
+    }
+
+    private void loadTours() {
+        if (useLocalData) {
             loadLocalTours();
+        } else if (isRestoringSnapshot) {
+            AppLog.d(TAG, "Snapshot restore in progress, skipping");
+        } else if (!snapshotRestoreAttempted && tourCache.isEmpty()) {
+            // Decides whether a full load is needed once the snapshot has been read
+            restoreSnapshot();
+        } else if (syncCursor > 0 && !tourCache.isEmpty() && !isSyncStale()) {
+            // Only pull documents changed since the cursor instead of the whole collection
+            restartSync();
+        } else {
+            loadFirestoreTours();
         }
     }
 
-    private void loadFirestoreTours() {
-        Log.d(TAG, "📥 Loading tours from Firestore...");
+    /**
+     * Shows the catalog saved by the last successful load. If it carries a sync cursor from
+     * a full load within {@link #MAX_SYNC_AGE_MS}, only later changes are pulled; otherwise
+     * a full load replaces it when it arrives.
+     */
+    private void restoreSnapshot() {
+        snapshotRestoreAttempted = true;
+        isRestoringSnapshot = true;
+
+        snapshotStore.read((tours, cursor, fullLoadAt) -> {
+            isRestoringSnapshot = false;
+            if (tours == null || tours.isEmpty() || hasNetworkTours || !tourCache.isEmpty()) {
+                loadFirestoreTours();
+                return;
+            }
 
-        toursCollection
-                .get()
-                .addOnSuccessListener(queryDocumentSnapshots -> {
-                    Log.d(TAG, "✅ Firestore query successful, found " +
-                            queryDocumentSnapshots.size() + " documents");
+            for (Tour tour : tours) {
+                // Resource ids are not stable across builds, so they are not stored
+                if (tour.getTourImageUrl() == null || tour.getTourImageUrl().isEmpty()) {
+                    tour.setImageResourceId(getDefaultImageForTour(tour.getId()));
+                }
+            }
+            publishTourList(tours);
+            AppLog.d(TAG, "Showing {} tours from snapshot", tours.size());
 
-                    if (queryDocumentSnapshots.isEmpty()) {
-                        Log.w(TAG, "⚠️ No tours found in Firestore. Check your data or collection path.");
-                        loadLocalTours(); // Fall back to local data
+            syncCursor = cursor;
+            lastFullLoadAt = fullLoadAt;
+            if (syncCursor > 0 && !isSyncStale()) {
+                updateSyncListener();
+            } else {
+                loadFirestoreTours();
+            }
+        });
+    }
+
+    private boolean isSyncStale() {
+        return System.currentTimeMillis() - lastFullLoadAt > MAX_SYNC_AGE_MS;
+    }
+
+    private void updateSyncListener() {
+        boolean shouldListen = !useLocalData && isAppInForeground
+                && subscriberCount > 0 && syncCursor > 0;
+
+        if (shouldListen && syncRegistration == null) {
+            startSync();
+        } else if (!shouldListen && syncRegistration != null) {
+            AppLog.d(TAG, "Detaching tour sync listener");
+            syncRegistration.remove();
+            syncRegistration = null;
+        }
+    }
+
+    private void restartSync() {
+        if (syncRegistration != null) {
+            syncRegistration.remove();
+            syncRegistration = null;
+        }
+        updateSyncListener();
+    }
+
+    /**
+     * Listens for tours changed after the cursor. Backend contract: a tour is deleted by
+     * setting {@code deleted: true} and bumping updatedAt, so the delete reaches this query.
+     * A document deleted outright is only seen if the listener already holds it; otherwise
+     * it stays in the catalog until the next full load, on pull-to-refresh or after
+     * {@link #MAX_SYNC_AGE_MS}.
+     */
+    private void startSync() {
+        AppLog.d(TAG, "Listening for tour changes since {}", syncCursor);
+
+        syncRegistration = toursCollection
+                .whereGreaterThan("updatedAt", new Timestamp(new Date(syncCursor)))
+                .addSnapshotListener((snapshots, e) -> {
+                    if (e != null) {
+                        AppLog.e(TAG, "Tour sync listener failed", e);
                         return;
                     }
+                    if (snapshots != null && !snapshots.getDocumentChanges().isEmpty()) {
+                        applyTourChanges(snapshots.getDocumentChanges());
+                    }
+                });
+    }
 
-                    List<Tour> tourList = new ArrayList<>();
-
-                    for (QueryDocumentSnapshot document : queryDocumentSnapshots) {
-                        try {
-                            Log.d(TAG, "Processing document: " + document.getId());
-                            Map<String, Object> data = document.getData();
-                            Log.d(TAG, "Document data: " + data);
+    /**
+     * Merges added, modified and removed tour documents into the catalog and publishes
+     * one snapshot. Local-only state such as bookmarks is kept for tours already cached.
+     */
+    private void applyTourChanges(List<DocumentChange> changes) {
+        List<Tour> changedTours = new ArrayList<>();
+        List<Tour> missingPrice = new ArrayList<>();
+        boolean removedAny = false;
+
+        for (DocumentChange change : changes) {
+            QueryDocumentSnapshot document = change.getDocument();
+            Map<String, Object> data = document.getData();
+            detailTours.remove(document.getId());
+
+            // A tombstone, or a document this listener held being deleted outright
+            if (change.getType() == DocumentChange.Type.REMOVED
+                    || Boolean.TRUE.equals(data.get("deleted"))) {
+                removedAny |= tourCache.remove(document.getId());
+                continue;
+            }
 
-                            // Create Tour object
-                            Tour tour = new Tour();
+            syncCursor = Math.max(syncCursor, getUpdatedAt(document));
+            Tour tour = TourMapper.fromMap(document.getId(), data);
+            mergeCachedState(tour, tourCache.get(document.getId()), data, missingPrice);
+            if (tour.getTitle() == null || tour.getTitle().isEmpty()) {
+                tour.setTitle("Tour #" + (tourCache.size() + changedTours.size() + 1));
+            }
+            changedTours.add(tour);
+        }
 
-                            // Set document ID
-                            tour.setId(document.getId());
+        if (changedTours.isEmpty() && !removedAny) {
+            return;
+        }
+        // Runs for every sync snapshot, so the counts are not boxed unless they are logged
+        if (AppLog.isLoggable(Log.DEBUG)) {
+            AppLog.d(TAG, "Sync: {} changed tours, removals: {}", changedTours.size(), removedAny);
+        }
 
-                            // TITLE - Check all possible field names
-                            if (data.containsKey("title")) {
-                                tour.setTitle(getString(data, "title"));
-                            } else if (data.containsKey("nameTour")) {
-                                tour.setTitle(getString(data, "nameTour"));
-                            } else if (data.containsKey("name")) {
-                                tour.setTitle(getString(data, "name"));
-                            }
+        loadMinPrices(missingPrice)
+                .addOnCompleteListener(task -> {
+                    for (Tour tour : changedTours) {
+                        tourCache.put(tour);
+                    }
+                    List<Tour> snapshot = tourCache.snapshot();
+                    tourListLiveData.setValue(snapshot);
+                    snapshotStore.write(snapshot, syncCursor, lastFullLoadAt);
+                });
+    }
 
-                            // DESCRIPTION
-                            if (data.containsKey("description")) {
-                                tour.setDescription(getString(data, "description"));
-                            }
+    /**
+     * Keeps local-only state and an already resolved price of a cached tour on its freshly
+     * mapped copy. Tours whose price is not known yet are added to missingPrice.
+     */
+    private void mergeCachedState(Tour tour, Tour cached, Map<String, Object> data, List<Tour> missingPrice) {
+        if (cached != null) {
+            tour.setBookmarked(cached.isBookmarked());
+            tour.setRecently(cached.isRecently());
+        }
+        if (needsPriceLookup(tour, data)) {
+            if (cached != null && cached.getPriceAmount().isPositive()) {
+                tour.setPriceAmount(cached.getPriceAmount());
+            } else {
+                missingPrice.add(tour);
+            }
+        }
+        applyKnownReviewCount(tour, cached, data);
 
-                            // IMAGE URL - Check all possible field names
-                            if (data.containsKey("tourImageUrl")) {
-                                tour.setTourImageUrl(getString(data, "tourImageUrl"));
-                            } else if (data.containsKey("imageUrl")) {
-                                tour.setTourImageUrl(getString(data, "imageUrl"));
-                            } else if (data.containsKey("image")) {
-                                tour.setTourImageUrl(getString(data, "image"));
-                            }
+        if (tour.getTourImageUrl() == null || tour.getTourImageUrl().isEmpty()) {
+            tour.setImageResourceId(getDefaultImageForTour(tour.getId()));
+        }
+    }
 
-                            // STATUS
-                            if (data.containsKey("status")) {
-                                tour.setStatus(getString(data, "status"));
-                            }
+    /**
+     * Creates a pager over the catalog. The filter may be null; it decides which tours are
+     * shown. The caller closes the pager when its screen is done with it.
+     */
+    public TourPager createPager(int pageSize, TourPager.TourFilter filter) {
+        return new TourPager(this, tourListLiveData, pageSize, filter);
+    }
 
-                            // RATING - Check all possible field names
-                            if (data.containsKey("rating")) {
-                                tour.setRating(getDouble(data, "rating"));
-                            } else if (data.containsKey("review")) {
-                                tour.setRating(getDouble(data, "review"));
-                            }
+    private long getUpdatedAt(DocumentSnapshot document) {
+        Object updatedAt = document.get("updatedAt");
+        if (updatedAt instanceof Timestamp) {
+            return ((Timestamp) updatedAt).toDate().getTime();
+        } else if (updatedAt instanceof Date) {
+            return ((Date) updatedAt).getTime();
+        }
+        return 0;
+    }
 
-                            // CATEGORY
-                            if (data.containsKey("category")) {
-                                tour.setCategory(getString(data, "category"));
-                            }
+    private void loadFirestoreTours() {
+        if (isLoading) {
+            AppLog.d(TAG, "Tour load already in progress, skipping");
+            return;
+        }
+        setLoading(true);
+        AppLog.d(TAG, "📥 Loading tours from Firestore...");
 
-                            // PROVIDER PHONE
-                            if (data.containsKey("providerPhone")) {
-                                tour.setProviderPhone(getString(data, "providerPhone"));
-                            }
+        toursCollection
+                .get()
+                .addOnSuccessListener(queryDocumentSnapshots -> {
+                    AppLog.d(TAG, "✅ Firestore query successful, found {} documents", queryDocumentSnapshots.size());
 
-                            // PICKUP LOCATION
-                            if (data.containsKey("pickupLoc")) {
-                                tour.setPickupLoc(getString(data, "pickupLoc"));
-                            }
+                    if (queryDocumentSnapshots.isEmpty()) {
+                        AppLog.w(TAG, "⚠️ No tours found in Firestore. Check your data or collection path.");
+                        setLoading(false);
+                        loadLocalTours(); // Fall back to local data
+                        return;
+                    }
 
-                            // ADDRESS
-                            if (data.containsKey("address")) {
-                                tour.setAddress(getString(data, "address"));
-                            }
+                    List<Tour> tourList = new ArrayList<>();
+                    List<Tour> missingPrice = new ArrayList<>();
+                    long maxUpdatedAt = 0;
 
-                            // LOCATION
-                            if (data.containsKey("location")) {
-                                tour.setLocation(getString(data, "location"));
-                            } else if (tour.getAddress() != null) {
-                                tour.setLocation(tour.getAddress());
-                            }
+                    for (QueryDocumentSnapshot document : queryDocumentSnapshots) {
+                        try {
+                            Map<String, Object> data = document.getData();
+                            Tour tour = TourMapper.fromMap(document.getId(), data);
 
-                            // PRICE - Check if price is directly in the document
-                            if (data.containsKey("price")) {
-                                tour.setPriceValue(data.get("price"));
-                            } else {
-                                // If not, load from availableDates subcollection
-                                loadTourPrice(tour);
+                            // Tours without a current minPrice summary are priced from their dates below
+                            if (needsPriceLookup(tour, data)) {
+                                missingPrice.add(tour);
                             }
-
-                            // Load review count
-                            loadReviewCount(tour);
+                            applyKnownReviewCount(tour, tourCache.get(document.getId()), data);
+                            maxUpdatedAt = Math.max(maxUpdatedAt, getUpdatedAt(document));
 
                             // Set recently flag based on some criteria (first 3 are recent)
                             tour.setRecently(tourList.size() < 3);
@@ -163,133 +422,290 @@ public class TourRepository {
                             }
 
                             tourList.add(tour);
-                            Log.d(TAG, "✅ Added tour: " + tour);
                         } catch (Exception e) {
-                            Log.e(TAG, "❌ Error processing tour document: " + e.getMessage(), e);
+                            AppLog.e(TAG, "❌ Error processing tour document: {}", e.getMessage(), e);
                         }
                     }
 
-                    cachedTours = tourList;
-                    tourListLiveData.setValue(tourList);
-                    Log.d(TAG, "✅ Set LiveData with " + tourList.size() + " tours");
-
-                    // Log all tours for debugging
-                    for (Tour tour : tourList) {
-                        Log.d(TAG, "Tour in list: " + tour);
-                    }
+                    // Fetch the missing prices, then publish once; review counts follow for visible tours
+                    long finalMaxUpdatedAt = maxUpdatedAt;
+                    loadMinPrices(missingPrice)
+                            .addOnCompleteListener(task -> {
+                                setLoading(false);
+                                hasNetworkTours = true;
+                                publishTourList(tourList);
+                                syncCursor = finalMaxUpdatedAt;
+                                lastFullLoadAt = System.currentTimeMillis();
+                                snapshotStore.write(tourCache.snapshot(), syncCursor, lastFullLoadAt);
+                                AppLog.d(TAG, "✅ Set LiveData with {} tours", tourList.size());
+
+                                // From here on only changed documents are pulled
+                                restartSync();
+                            });
                 })
                 .addOnFailureListener(e -> {
-                    Log.e(TAG, "❌ Error loading tours from Firestore: " + e.getMessage(), e);
-                    loadLocalTours(); // Fall back to local data
+                    AppLog.e(TAG, "❌ Error loading tours from Firestore: {}", e.getMessage(), e);
+                    setLoading(false);
+                    // Keep showing the saved snapshot if there is one
+                    if (tourCache.isEmpty()) {
+                        loadLocalTours(); // Fall back to local data
+                    }
                 });
     }
 
-    // Helper methods to safely extract values from data map
-    private String getString(Map<String, Object> data, String key) {
-        Object value = data.get(key);
-        return value != null ? value.toString() : "";
+    private void setLoading(boolean loading) {
+        isLoading = loading;
+        isLoadingLiveData.setValue(loading);
     }
 
-    private Double getDouble(Map<String, Object> data, String key) {
-        Object value = data.get(key);
-        if (value instanceof Double) {
-            return (Double) value;
-        } else if (value instanceof Long) {
-            return ((Long) value).doubleValue();
-        } else if (value instanceof String) {
-            try {
-                return Double.parseDouble((String) value);
-            } catch (NumberFormatException e) {
-                return 0.0;
-            }
+    /**
+     * A fixed price or a current minPrice summary answers "from X VND" straight from the
+     * tour document. A summary whose cheapest date has passed, or that has no date, is
+     * stale and the tour's availableDates are read instead.
+     */
+    private boolean needsPriceLookup(Tour tour, Map<String, Object> data) {
+        if (data.containsKey("price")) {
+            return false;
         }
-        return 0.0;
+        if (!data.containsKey("minPrice")) {
+            return true;
+        }
+
+        Date minPriceDate = tour.getMinPriceDate();
+        if (minPriceDate != null && minPriceDate.getTime() >= startOfToday()) {
+            return false;
+        }
+        AppLog.w(TAG, "Stale minPrice summary for tour {}, minPriceDate {}", tour.getId(), minPriceDate);
+        return true;
     }
 
-    private void loadTourPrice(Tour tour) {
-        Log.d(TAG, "Loading price for tour: " + tour.getId());
+    private static long startOfToday() {
+        Calendar calendar = Calendar.getInstance();
+        calendar.set(Calendar.HOUR_OF_DAY, 0);
+        calendar.set(Calendar.MINUTE, 0);
+        calendar.set(Calendar.SECOND, 0);
+        calendar.set(Calendar.MILLISECOND, 0);
+        return calendar.getTimeInMillis();
+    }
 
-        // Get the lowest price from available dates
-        toursCollection.document(tour.getId())
-                .collection("availableDates")
-                .orderBy("price")
-                .limit(1)
-                .get()
-                .addOnSuccessListener(queryDocumentSnapshots -> {
-                    if (!queryDocumentSnapshots.isEmpty()) {
-                        DocumentSnapshot priceDoc = queryDocumentSnapshots.getDocuments().get(0);
-                        if (priceDoc.contains("price")) {
-                            Object priceObj = priceDoc.get("price");
-                            Double priceValue = null;
-
-                            if (priceObj instanceof Double) {
-                                priceValue = (Double) priceObj;
-                            } else if (priceObj instanceof Long) {
-                                priceValue = ((Long) priceObj).doubleValue();
-                            } else if (priceObj instanceof String) {
-                                try {
-                                    priceValue = Double.parseDouble((String) priceObj);
-                                } catch (NumberFormatException e) {
-                                    Log.e(TAG, "Could not parse price string: " + priceObj);
-                                }
-                            }
+    /**
+     * Sets the lowest price found in a tour's availableDates. A tour only has a price
+     * before the lookup when its minPrice summary was stale, so a different result is
+     * reported. A failed lookup keeps the price the tour already had.
+     */
+    private void applyLookedUpPrice(Tour tour, Money minPrice, boolean lookupFailed) {
+        if (lookupFailed) {
+            return;
+        }
+        if (minPrice == null) {
+            // Set a fixed price for testing when no date has a price
+            tour.setPriceAmount(DEFAULT_TOUR_PRICE);
+            return;
+        }
+
+        Money summaryPrice = tour.getPriceAmount();
+        if (summaryPrice.isPositive() && !summaryPrice.equals(minPrice)) {
+            AppLog.w(TAG, "minPrice summary of tour {} is {}, availableDates say {}",
+                    tour.getId(), summaryPrice, minPrice);
+        }
+        tour.setPriceAmount(minPrice);
+    }
+
+    private Money parsePrice(Object priceObj) {
+        Money price = Money.fromFirestore(priceObj);
+        if (price == null && priceObj instanceof String) {
+            AppLog.e(TAG, "Could not parse price string: {}", priceObj);
+        }
+        return price;
+    }
+
+    /**
+     * Resolves the lowest price among each given tour's availableDates from today on, with
+     * one query per tour. Only tours whose minPrice summary is missing or stale get here,
+     * so other tours' dates are never read. The minimum is taken on the device, as ordering
+     * by price under a date filter would need a composite index.
+     */
+    private Task<Void> loadMinPrices(List<Tour> tours) {
+        if (tours.isEmpty()) {
+            return Tasks.forResult(null);
+        }
 
-                            if (priceValue != null) {
-                                tour.setNumericPrice(priceValue);
-                                Log.d(TAG, "Set price for tour " + tour.getId() + ": " + tour.getPrice());
+        if (AppLog.isLoggable(Log.DEBUG)) {
+            AppLog.d(TAG, "Loading prices for {} tours from availableDates", tours.size());
+        }
+        Date today = new Date(startOfToday());
+        List<Task<Void>> priceTasks = new ArrayList<>();
 
-                                // Update the tour in the list
-                                updateTourInList(tour);
+        for (Tour tour : tours) {
+            priceTasks.add(toursCollection.document(tour.getId())
+                    .collection("availableDates")
+                    .whereGreaterThanOrEqualTo("date", today)
+                    .get()
+                    .continueWith(task -> {
+                        boolean failed = !task.isSuccessful() || task.getResult() == null;
+                        Money minPrice = null;
+
+                        if (!failed) {
+                            for (QueryDocumentSnapshot priceDoc : task.getResult()) {
+                                Money priceValue = parsePrice(priceDoc.get("price"));
+                                if (priceValue != null && (minPrice == null || priceValue.isLessThan(minPrice))) {
+                                    minPrice = priceValue;
+                                }
                             }
                         } else {
-                            Log.w(TAG, "Price field not found in document");
-                            // Set a fixed price for testing
-                            tour.setNumericPrice(1500000.0);
-                            updateTourInList(tour);
+                            AppLog.e(TAG, "Error loading price for tour {}", tour.getId(), task.getException());
                         }
-                    } else {
-                        Log.d(TAG, "No available dates found for tour: " + tour.getId());
-                        // Set a fixed price for testing
-                        tour.setNumericPrice(1500000.0);
-                        updateTourInList(tour);
-                    }
-                })
-                .addOnFailureListener(e -> {
-                    Log.e(TAG, "Error loading price for tour " + tour.getId() + ": " + e.getMessage());
-                    // Set a fixed price for testing
-                    tour.setNumericPrice(1500000.0);
-                    updateTourInList(tour);
-                });
+                        applyLookedUpPrice(tour, minPrice, failed);
+                        return null;
+                    }));
+        }
+
+        return Tasks.whenAll(priceTasks);
     }
 
-    private void loadReviewCount(Tour tour) {
-        reviewsCollection
-                .whereEqualTo("tourId", tour.getId())
-                .get()
-                .addOnSuccessListener(queryDocumentSnapshots -> {
-                    int count = queryDocumentSnapshots.size();
-                    tour.setReviewCount(String.valueOf(count));
-                    updateTourInList(tour);
-                })
-                .addOnFailureListener(e -> {
-                    Log.e(TAG, "Error loading review count for tour " + tour.getId() + ": " + e.getMessage());
-                });
+    /**
+     * A tour document with a maintained reviewCount field is authoritative. For other tours
+     * the last known count is kept until {@link #refreshReviewCounts} counts them again.
+     */
+    private void applyKnownReviewCount(Tour tour, Tour cached, Map<String, Object> data) {
+        if (data.containsKey("reviewCount")) {
+            reviewCountCache.putMaintained(tour.getId(), tour.getReviewCount());
+            return;
+        }
+
+        String knownCount = reviewCountCache.get(tour.getId());
+        if (knownCount != null) {
+            tour.setReviewCount(knownCount);
+        } else if (cached != null) {
+            tour.setReviewCount(cached.getReviewCount());
+        }
     }
 
-    private void updateTourInList(Tour updatedTour) {
-        List<Tour> currentList = tourListLiveData.getValue();
-        if (currentList != null) {
-            for (int i = 0; i < currentList.size(); i++) {
-                if (currentList.get(i).getId().equals(updatedTour.getId())) {
-                    currentList.set(i, updatedTour);
-                    Log.d(TAG, "Updated tour in list: " + updatedTour);
-                    break;
+    public interface ReviewCountListener {
+        void onReviewCountsLoaded(Map<String, String> countsByTourId);
+    }
+
+    /**
+     * Refreshes the review counts of tours that are on screen. Tours whose count is still
+     * within its TTL are skipped, and requests arriving close together are sent as one
+     * batch of server-side count aggregations, so no review documents are downloaded.
+     * The catalog is patched; the listener, which may be null, gets the counts of its tours.
+     */
+    public void refreshReviewCounts(List<Tour> visibleTours, ReviewCountListener listener) {
+        if (useLocalData) {
+            return;
+        }
+
+        for (Tour tour : visibleTours) {
+            String tourId = tour.getId();
+            if (reviewCountCache.isFresh(tourId)) {
+                continue;
+            }
+
+            List<ReviewCountListener> waiters = reviewCountWaiters.get(tourId);
+            if (waiters == null) {
+                waiters = new ArrayList<>();
+                reviewCountWaiters.put(tourId, waiters);
+                queuedReviewCounts.add(tourId);
+            }
+            if (listener != null && !waiters.contains(listener)) {
+                waiters.add(listener);
+            }
+        }
+
+        if (!queuedReviewCounts.isEmpty() && !reviewCountBatchActive) {
+            reviewCountBatchActive = true;
+            mainHandler.postDelayed(this::flushReviewCounts, REVIEW_COUNT_BATCH_DELAY_MS);
+        }
+    }
+
+    private void flushReviewCounts() {
+        List<String> tourIds = new ArrayList<>();
+        Iterator<String> queued = queuedReviewCounts.iterator();
+        while (queued.hasNext() && tourIds.size() < MAX_REVIEW_COUNTS_PER_BATCH) {
+            tourIds.add(queued.next());
+            queued.remove();
+        }
+        if (AppLog.isLoggable(Log.DEBUG)) {
+            AppLog.d(TAG, "Counting reviews for {} visible tours, {} left queued", tourIds.size(), queuedReviewCounts.size());
+        }
+
+        Map<String, String> counts = new HashMap<>();
+        List<Task<Void>> countTasks = new ArrayList<>();
+        for (String tourId : tourIds) {
+            countTasks.add(reviewsCollection
+                    .whereEqualTo("tourId", tourId)
+                    .count()
+                    .get(AggregateSource.SERVER)
+                    .continueWith(task -> {
+                        if (task.isSuccessful() && task.getResult() != null) {
+                            counts.put(tourId, String.valueOf(task.getResult().getCount()));
+                        } else {
+                            AppLog.e(TAG, "Error counting reviews for tour {}", tourId, task.getException());
+                        }
+                        return null;
+                    }));
+        }
+
+        Tasks.whenAllComplete(countTasks).addOnCompleteListener(task -> {
+            applyReviewCounts(tourIds, counts);
+            // Tours still queued have waited out the batch window already
+            if (queuedReviewCounts.isEmpty()) {
+                reviewCountBatchActive = false;
+            } else {
+                flushReviewCounts();
+            }
+        });
+    }
+
+    // A failed count is not cached, so the next refresh for a visible tour retries it
+    private void applyReviewCounts(List<String> tourIds, Map<String, String> counts) {
+        Map<ReviewCountListener, Map<String, String>> countsByListener = new HashMap<>();
+
+        for (String tourId : tourIds) {
+            List<ReviewCountListener> waiters = reviewCountWaiters.remove(tourId);
+            String count = counts.get(tourId);
+            if (count == null) {
+                continue;
+            }
+
+            reviewCountCache.putAggregated(tourId, count);
+            if (tourCache.contains(tourId) || detailTours.containsKey(tourId)) {
+                updateBatcher.queuePatch(tourId, target -> target.setReviewCount(count));
+            }
+            if (waiters != null) {
+                for (ReviewCountListener waiter : waiters) {
+                    Map<String, String> listenerCounts = countsByListener.get(waiter);
+                    if (listenerCounts == null) {
+                        listenerCounts = new HashMap<>();
+                        countsByListener.put(waiter, listenerCounts);
+                    }
+                    listenerCounts.put(tourId, count);
                 }
             }
-            tourListLiveData.setValue(currentList);
+        }
+
+        for (Map.Entry<ReviewCountListener, Map<String, String>> entry : countsByListener.entrySet()) {
+            entry.getKey().onReviewCountsLoaded(entry.getValue());
         }
     }
 
+    /**
+     * Replaces the whole list. Bookmarks exist only on the device, so each tour keeps the
+     * state it had in the old list. Patches still queued find their tours by id and are
+     * applied to the new list on the next frame.
+     */
+    private void publishTourList(List<Tour> tourList) {
+        for (Tour tour : tourList) {
+            Tour current = tourCache.get(tour.getId());
+            if (current != null) {
+                tour.setBookmarked(current.isBookmarked());
+            }
+        }
+        tourCache.replaceAll(tourList);
+        tourListLiveData.setValue(tourCache.snapshot());
+    }
+
     private int getDefaultImageForTour(String tourId) {
         // Map tour IDs to resource IDs, or return a default
         switch (tourId) {
@@ -304,7 +720,7 @@ public class TourRepository {
     }
 
     private void loadLocalTours() {
-        Log.d(TAG, "⚠️ Falling back to local tour data...");
+        AppLog.d(TAG, "⚠️ Falling back to local tour data...");
         List<Tour> tourList = new ArrayList<>();
 
         // Recently Tours (isRecently = true)
@@ -364,44 +780,46 @@ public class TourRepository {
                 false
         ));
 
-        cachedTours = tourList;
-        tourListLiveData.setValue(tourList);
-        Log.d(TAG, "✅ Set LiveData with " + tourList.size() + " local tours");
+        publishTourList(tourList);
+        AppLog.d(TAG, "✅ Set LiveData with {} local tours", tourList.size());
     }
 
     public LiveData<List<Tour>> getTours() {
         // If we have no data yet, try loading it
         if (tourListLiveData.getValue() == null || tourListLiveData.getValue().isEmpty()) {
-            if (!useLocalData) {
-                loadFirestoreTours();
-            } else {
-                loadLocalTours();
-            }
+            loadTours();
         }
         return tourListLiveData;
     }
 
+    public boolean isRecentlyTour(String tourId) {
+        Tour tour = tourCache.get(tourId);
+        return tour != null && tour.isRecently();
+    }
+
+    // True while the whole catalog is being read from Firestore
+    public LiveData<Boolean> getIsLoading() {
+        return isLoadingLiveData;
+    }
+
+    /**
+     * Reads the whole catalog again, e.g. on pull-to-refresh. Unlike syncing from the
+     * cursor this also drops tours that were deleted outright.
+     */
     public void refreshTours() {
-        // Force a refresh of tour data
-        if (!useLocalData) {
-            loadFirestoreTours();
-        } else {
+        if (useLocalData) {
             loadLocalTours();
+            // Nothing to wait for, but a refresh indicator still has to be told
+            setLoading(false);
+        } else {
+            loadFirestoreTours();
         }
     }
 
     public void updateTour(Tour tour) {
-        // Update local cache
-        List<Tour> currentList = tourListLiveData.getValue();
-        if (currentList != null) {
-            for (int i = 0; i < currentList.size(); i++) {
-                if (currentList.get(i).getId().equals(tour.getId())) {
-                    currentList.set(i, tour);
-                    break;
-                }
-            }
-            tourListLiveData.setValue(currentList);
-        }
+        // Update local cache; the published list picks this up on the next frame
+        boolean bookmarked = tour.isBookmarked();
+        updateBatcher.queuePatch(tour.getId(), target -> target.setBookmarked(bookmarked));
 
         // Update Firestore (if not using local data)
         if (!useLocalData) {
@@ -414,8 +832,7 @@ public class TourRepository {
     private void updateUserFavorites(Tour tour) {
         // This would typically update a user's favorites collection
         // For now, we'll just log it
-        Log.d(TAG, "Would update user favorites for tour: " + tour.getId() +
-                ", bookmarked: " + tour.isBookmarked());
+        AppLog.d(TAG, "Would update user favorites for tour: {}, bookmarked: {}", tour.getId(), tour.isBookmarked());
     }
 
 
@@ -423,137 +840,103 @@ public class TourRepository {
         void onTourLoaded(Tour tour);
     }
 
-    // Replace the getTourById method in TourRepository class
+    /**
+     * Delivers the tour once; the object must not be modified. A stale review count is
+     * refreshed, and the new count reaches the stored tour as a patched copy; screens that
+     * show the count pass their own listener to {@link #refreshReviewCounts}.
+     */
     public void getTourById(String tourId, TourCallback callback) {
-        Log.d(TAG, "Getting tour by ID: " + tourId);
-
-        if (cachedTours != null && !cachedTours.isEmpty()) {
-            // First check if tour is in cache
-            for (Tour tour : cachedTours) {
-                if (tour.getId().equals(tourId)) {
-                    Log.d(TAG, "Found tour in cache: " + tour.getTitle());
-                    callback.onTourLoaded(tour);
-                    return;
-                }
-            }
+        AppLog.d(TAG, "Getting tour by ID: {}", tourId);
+
+        // First check if tour is in cache, then among tours loaded or prefetched for the detail screen
+        Tour cachedTour = tourCache.get(tourId);
+        if (cachedTour == null) {
+            cachedTour = detailTours.get(tourId);
+        }
+        if (cachedTour != null) {
+            AppLog.d(TAG, "Found tour in cache: {}", cachedTour.getTitle());
+            refreshReviewCounts(Collections.singletonList(cachedTour), null);
+            callback.onTourLoaded(cachedTour);
+            return;
         }
 
         // If not in cache, try to get from Firestore
         if (!useLocalData) {
-            toursCollection.document(tourId)
-                    .get()
-                    .addOnSuccessListener(documentSnapshot -> {
-                        if (documentSnapshot.exists()) {
-                            try {
-                                // Manually create the Tour object instead of using toObject()
-                                Tour tour = new Tour();
-                                Map<String, Object> data = documentSnapshot.getData();
-
-                                if (data == null) {
-                                    Log.e(TAG, "Document data is null for ID: " + tourId);
-                                    callback.onTourLoaded(null);
-                                    return;
-                                }
-
-                                // Set ID
-                                tour.setId(documentSnapshot.getId());
-
-                                // Set title - check different possible field names
-                                if (data.containsKey("title")) {
-                                    tour.setTitle(getString(data, "title"));
-                                } else if (data.containsKey("nameTour")) {
-                                    tour.setTitle(getString(data, "nameTour"));
-                                } else if (data.containsKey("name")) {
-                                    tour.setTitle(getString(data, "name"));
-                                }
-
-                                // Set description
-                                if (data.containsKey("description")) {
-                                    tour.setDescription(getString(data, "description"));
-                                }
-
-                                // Set image URL - check different possible field names
-                                if (data.containsKey("tourImageUrl")) {
-                                    tour.setTourImageUrl(getString(data, "tourImageUrl"));
-                                } else if (data.containsKey("imageUrl")) {
-                                    tour.setTourImageUrl(getString(data, "imageUrl"));
-                                } else if (data.containsKey("image")) {
-                                    tour.setTourImageUrl(getString(data, "image"));
-                                }
-
-                                // Set status
-                                if (data.containsKey("status")) {
-                                    tour.setStatus(getString(data, "status"));
-                                }
-
-                                // Set rating - check different possible field names
-                                if (data.containsKey("rating")) {
-                                    tour.setRating(getDouble(data, "rating"));
-                                } else if (data.containsKey("review")) {
-                                    tour.setRating(getDouble(data, "review"));
-                                }
+            loadTourDocument(tourId).addOnCompleteListener(task -> {
+                Tour tour = task.getResult();
+                if (tour != null) {
+                    // The tour is about to be shown, so refresh its count if it is stale
+                    refreshReviewCounts(Collections.singletonList(tour), null);
+                }
+                callback.onTourLoaded(tour);
+            });
+        } else {
+            // If using local data and not found in cache, return null
+            AppLog.e(TAG, "Tour not found in local data for ID: {}", tourId);
+            callback.onTourLoaded(null);
+        }
+    }
 
-                                // Set category
-                                if (data.containsKey("category")) {
-                                    tour.setCategory(getString(data, "category"));
-                                }
+    /**
+     * Loads a tour the user is likely to open next, so getTourById can answer without
+     * waiting for Firestore. Returns null when the tour is already at hand.
+     */
+    public Task<Void> prefetchTour(String tourId) {
+        if (useLocalData || tourCache.contains(tourId) || detailTours.containsKey(tourId)) {
+            return null;
+        }
+        return loadTourDocument(tourId).continueWith(task -> null);
+    }
 
-                                // Set provider phone
-                                if (data.containsKey("providerPhone")) {
-                                    tour.setProviderPhone(getString(data, "providerPhone"));
-                                }
+    // Never fails; the result is null when the tour cannot be loaded. Loads in flight are shared.
+    private Task<Tour> loadTourDocument(String tourId) {
+        Task<Tour> running = tourDocumentLoads.get(tourId);
+        if (running != null) {
+            return running;
+        }
 
-                                // Set pickup location
-                                if (data.containsKey("pickupLoc")) {
-                                    tour.setPickupLoc(getString(data, "pickupLoc"));
-                                }
+        Task<Tour> load = toursCollection.document(tourId)
+                .get()
+                .continueWith(task -> {
+                    tourDocumentLoads.remove(tourId);
+                    if (!task.isSuccessful()) {
+                        AppLog.e(TAG, "Error loading tour from Firestore: {}", task.getException().getMessage());
+                        return null;
+                    }
 
-                                // Set address
-                                if (data.containsKey("address")) {
-                                    tour.setAddress(getString(data, "address"));
-                                }
+                    DocumentSnapshot documentSnapshot = task.getResult();
+                    if (!documentSnapshot.exists()) {
+                        AppLog.e(TAG, "Tour document does not exist for ID: {}", tourId);
+                        return null;
+                    }
 
-                                // Set location
-                                if (data.containsKey("location")) {
-                                    tour.setLocation(getString(data, "location"));
-                                } else if (tour.getAddress() != null) {
-                                    tour.setLocation(tour.getAddress());
-                                }
+                    try {
+                        Tour tour = TourMapper.fromDocument(documentSnapshot);
+                        if (tour == null) {
+                            AppLog.e(TAG, "Document data is null for ID: {}", tourId);
+                            return null;
+                        }
 
-                                // Set price
-                                if (data.containsKey("price")) {
-                                    tour.setPriceValue(data.get("price"));
-                                } else {
-                                    // If price is not directly in document, set a default
-                                    tour.setNumericPrice(1500000.0);
-                                }
+                        // Without a fixed price or a minPrice summary, even a stale one, set a default
+                        if (!tour.getPriceAmount().isPositive()) {
+                            tour.setPriceAmount(DEFAULT_TOUR_PRICE);
+                        }
 
-                                // Set default image resource based on ID
-                                tour.setImageResourceId(getDefaultImageForTour(tour.getId()));
+                        // Set default image resource based on ID
+                        tour.setImageResourceId(getDefaultImageForTour(tour.getId()));
+                        applyKnownReviewCount(tour, null, documentSnapshot.getData());
 
-                                // Load review count (this is async, but we'll return the tour immediately)
-                                loadReviewCount(tour);
+                        detailTours.put(tourId, tour);
+                        AppLog.d(TAG, "Successfully loaded tour: {}", tour.getTitle());
+                        return tour;
+                    } catch (Exception e) {
+                        AppLog.e(TAG, "Error parsing tour document: {}", e.getMessage(), e);
+                        return null;
+                    }
+                });
 
-                                Log.d(TAG, "Successfully loaded tour: " + tour.getTitle());
-                                callback.onTourLoaded(tour);
-                            } catch (Exception e) {
-                                Log.e(TAG, "Error parsing tour document: " + e.getMessage(), e);
-                                callback.onTourLoaded(null);
-                            }
-                        } else {
-                            Log.e(TAG, "Tour document does not exist for ID: " + tourId);
-                            callback.onTourLoaded(null);
-                        }
-                    })
-                    .addOnFailureListener(e -> {
-                        Log.e(TAG, "Error loading tour from Firestore: " + e.getMessage());
-                        callback.onTourLoaded(null);
-                    });
-        } else {
-            // If using local data and not found in cache, return null
-            Log.e(TAG, "Tour not found in local data for ID: " + tourId);
-            callback.onTourLoaded(null);
-        }
+        tourDocumentLoads.put(tourId, load);
+        return load;
     }
 
 }
@@ -0,0 +1,205 @@
+package com.example.travelerapp.repository;
+
+import android.content.Context;
+import android.os.Handler;
+import android.os.Looper;
+
+import com.example.travelerapp.model.Money;
+import com.example.travelerapp.model.Tour;
+import com.example.travelerapp.util.AppLog;
+import com.example.travelerapp.util.Dispatcher;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+/**
+ * Stores the last good tour catalog as a small versioned binary file in app storage,
+ * so the home lists can be drawn on a cold start before Firestore answers.
+ * File I/O runs on a background thread and results are delivered on the main thread.
+ */
+class TourSnapshotStore {
+    private static final String TAG = "TourSnapshotStore";
+    private static final String FILE_NAME = "tour_catalog.bin";
+    private static final int MAGIC = 0x54524331; // "TRC1"
+    private static final int VERSION = 1;
+    private static final int BUFFER_SIZE = 16 * 1024;
+    // Longer strings are never written, so a longer length read back means a corrupt file
+    private static final int MAX_STRING_BYTES = 64 * 1024;
+    // Only sizes the list up front; a corrupt count runs into the end of the file instead
+    private static final int MAX_INITIAL_CAPACITY = 1024;
+
+    interface ReadCallback {
+        // tours is null when there is no usable snapshot
+        void onSnapshotRead(List<Tour> tours, long syncCursor, long fullLoadAt);
+    }
+
+    private final File file;
+    // One at a time, so a read never sees a write half done and writes land in order
+    private final Executor executor = Dispatcher.io().newSerialExecutor(Dispatcher.Priority.HIGH);
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+
+    TourSnapshotStore(Context context) {
+        file = new File(context.getFilesDir(), FILE_NAME);
+    }
+
+    void read(ReadCallback callback) {
+        executor.execute(() -> {
+            // Sync cursor, then the time of the full load the catalog was built from
+            long[] syncState = new long[2];
+            List<Tour> tours = readSnapshot(syncState);
+            mainHandler.post(() -> callback.onSnapshotRead(tours, syncState[0], syncState[1]));
+        });
+    }
+
+    /**
+     * Saves the catalog together with the sync cursor it is current up to and the time
+     * of the full load it started from, so they can never disagree after a crash.
+     * The list must not be modified afterwards.
+     */
+    void write(List<Tour> tours, long syncCursor, long fullLoadAt) {
+        executor.execute(() -> writeSnapshot(tours, syncCursor, fullLoadAt));
+    }
+
+    private List<Tour> readSnapshot(long[] syncState) {
+        if (!file.exists()) {
+            return null;
+        }
+
+        long start = System.currentTimeMillis();
+        try (DataInputStream in = new DataInputStream(
+                new BufferedInputStream(new FileInputStream(file), BUFFER_SIZE))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                AppLog.w(TAG, "Ignoring tour snapshot with unknown format");
+                return null;
+            }
+
+            syncState[0] = in.readLong();
+            syncState[1] = in.readLong();
+            int count = in.readInt();
+            if (count < 0) {
+                throw new IOException("Corrupt tour count " + count);
+            }
+            List<Tour> tours = new ArrayList<>(Math.min(count, MAX_INITIAL_CAPACITY));
+            for (int i = 0; i < count; i++) {
+                tours.add(readTour(in));
+            }
+
+            AppLog.d(TAG, "Read {} tours from snapshot in {} ms", count, (System.currentTimeMillis() - start));
+            return tours;
+        } catch (IOException | RuntimeException e) {
+            AppLog.e(TAG, "Error reading tour snapshot", e);
+            return null;
+        }
+    }
+
+    private void writeSnapshot(List<Tour> tours, long syncCursor, long fullLoadAt) {
+        // Write to a temporary file first so a crash never leaves a half-written snapshot
+        File tempFile = new File(file.getPath() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(new FileOutputStream(tempFile), BUFFER_SIZE))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(syncCursor);
+            out.writeLong(fullLoadAt);
+            out.writeInt(tours.size());
+            for (Tour tour : tours) {
+                writeTour(out, tour);
+            }
+        } catch (IOException e) {
+            AppLog.e(TAG, "Error writing tour snapshot", e);
+            tempFile.delete();
+            return;
+        }
+
+        if (!tempFile.renameTo(file)) {
+            AppLog.e(TAG, "Could not replace tour snapshot");
+            tempFile.delete();
+        }
+    }
+
+    private Tour readTour(DataInputStream in) throws IOException {
+        Tour tour = new Tour();
+        tour.setId(readString(in));
+        tour.setTitle(readString(in));
+        tour.setDescription(readString(in));
+        tour.setTourImageUrl(readString(in));
+        tour.setStatus(readString(in));
+        tour.setRating(in.readDouble());
+        tour.setCategory(readString(in));
+        tour.setProviderPhone(readString(in));
+        tour.setPickupLoc(readString(in));
+        tour.setAddress(readString(in));
+        tour.setLocation(readString(in));
+        tour.setPriceAmount(Money.vnd(in.readLong()));
+        long minPriceDate = in.readLong();
+        tour.setMinPriceDate(minPriceDate != -1 ? new Date(minPriceDate) : null);
+        // Only text that came from the document; otherwise the amount is formatted again
+        String priceText = readString(in);
+        if (priceText != null) {
+            tour.setPrice(priceText);
+        }
+        tour.setReviewCount(readString(in));
+        tour.setRecently(in.readBoolean());
+        tour.setBookmarked(in.readBoolean());
+        return tour;
+    }
+
+    private void writeTour(DataOutputStream out, Tour tour) throws IOException {
+        writeString(out, tour.getId());
+        writeString(out, tour.getTitle());
+        writeString(out, tour.getDescription());
+        writeString(out, tour.getTourImageUrl());
+        writeString(out, tour.getStatus());
+        out.writeDouble(tour.getRating());
+        writeString(out, tour.getCategory());
+        writeString(out, tour.getProviderPhone());
+        writeString(out, tour.getPickupLoc());
+        writeString(out, tour.getAddress());
+        writeString(out, tour.getLocation());
+        out.writeLong(tour.getPriceAmount().getMinorUnits());
+        out.writeLong(tour.getMinPriceDate() != null ? tour.getMinPriceDate().getTime() : -1);
+        writeString(out, tour.getPriceText());
+        writeString(out, tour.getReviewCount());
+        out.writeBoolean(tour.isRecently());
+        out.writeBoolean(tour.isBookmarked());
+    }
+
+    // Length-prefixed UTF-8, -1 for null (writeUTF is limited to 64 KB)
+    private void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > MAX_STRING_BYTES) {
+            // Fails this write, the previous snapshot stays
+            throw new IOException("Tour field of " + bytes.length + " bytes is too long for the snapshot");
+        }
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private String readString(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) {
+            return null;
+        }
+        if (length > MAX_STRING_BYTES) {
+            throw new IOException("Corrupt tour snapshot string of " + length + " bytes");
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,93 @@
+package com.example.travelerapp.repository;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+import android.view.Choreographer;
+
+import com.example.travelerapp.model.Tour;
+import com.example.travelerapp.util.AppLog;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Collects field patches for tours in the published list and applies them once per
+ * display frame. Patched tours are copied rather than mutated, so every emission is a
+ * new immutable snapshot that adapters can diff against the previous one.
+ */
+class TourUpdateBatcher implements Choreographer.FrameCallback {
+    private static final String TAG = "TourUpdateBatcher";
+
+    interface TourPatch {
+        void apply(Tour tour);
+    }
+
+    interface SnapshotTarget {
+        Tour findTour(String tourId);
+        void replaceTour(Tour tour);
+        void publishSnapshot();
+    }
+
+    private final SnapshotTarget target;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final Map<String, List<TourPatch>> pendingPatches = new LinkedHashMap<>();
+    private boolean frameScheduled = false;
+
+    TourUpdateBatcher(SnapshotTarget target) {
+        this.target = target;
+    }
+
+    void queuePatch(String tourId, TourPatch patch) {
+        if (Looper.myLooper() != Looper.getMainLooper()) {
+            mainHandler.post(() -> queuePatch(tourId, patch));
+            return;
+        }
+
+        List<TourPatch> patches = pendingPatches.get(tourId);
+        if (patches == null) {
+            patches = new ArrayList<>();
+            pendingPatches.put(tourId, patches);
+        }
+        patches.add(patch);
+
+        if (!frameScheduled) {
+            frameScheduled = true;
+            Choreographer.getInstance().postFrameCallback(this);
+        }
+    }
+
+    @Override
+    public void doFrame(long frameTimeNanos) {
+        frameScheduled = false;
+        if (pendingPatches.isEmpty()) {
+            return;
+        }
+
+        int patched = 0;
+        for (Map.Entry<String, List<TourPatch>> entry : pendingPatches.entrySet()) {
+            Tour current = target.findTour(entry.getKey());
+            if (current == null) {
+                continue;
+            }
+
+            Tour copy = new Tour(current);
+            for (TourPatch patch : entry.getValue()) {
+                patch.apply(copy);
+            }
+            target.replaceTour(copy);
+            patched++;
+        }
+        pendingPatches.clear();
+
+        if (patched > 0) {
+            // Runs on every frame that has patches
+            if (AppLog.isLoggable(Log.DEBUG)) {
+                AppLog.d(TAG, "Publishing snapshot with {} patched tours", patched);
+            }
+            target.publishSnapshot();
+        }
+    }
+}
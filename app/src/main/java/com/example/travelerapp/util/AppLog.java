@@ -0,0 +1,218 @@
+package com.example.travelerapp.util;
+
+import android.util.Log;
+
+import com.example.travelerapp.BuildConfig;
+
+import java.util.Date;
+
+/**
+ * Logging facade used instead of {@link Log}. Calls below {@link #MIN_LEVEL} return
+ * before any message is built, and messages use "{}" placeholders that are only
+ * filled in when the call passes the gate. Gated levels have overloads for up to three
+ * arguments, so a call below the gate allocates no varargs array; primitive arguments
+ * are still boxed by the caller, so hot paths check {@link #isLoggable} first.
+ * Emitted messages are also kept in a small ring buffer that can be dumped on demand,
+ * e.g. when investigating a bug report.
+ */
+public final class AppLog {
+    // Debug builds log everything from DEBUG up, release builds only warnings and errors
+    public static final int MIN_LEVEL = BuildConfig.DEBUG ? Log.DEBUG : Log.WARN;
+
+    private static final int BUFFER_SIZE = 256;
+    private static final String DUMP_TAG = "AppLog";
+
+    private static final long[] times = new long[BUFFER_SIZE];
+    private static final int[] levels = new int[BUFFER_SIZE];
+    private static final String[] tags = new String[BUFFER_SIZE];
+    private static final String[] messages = new String[BUFFER_SIZE];
+    private static int next = 0;
+    private static int count = 0;
+
+    private AppLog() {
+    }
+
+    public static boolean isLoggable(int level) {
+        return level >= MIN_LEVEL;
+    }
+
+    public static void d(String tag, String message) {
+        if (Log.DEBUG >= MIN_LEVEL) {
+            log(Log.DEBUG, tag, message, null);
+        }
+    }
+
+    public static void d(String tag, String format, Object arg) {
+        if (Log.DEBUG >= MIN_LEVEL) {
+            log(Log.DEBUG, tag, format, new Object[]{arg});
+        }
+    }
+
+    public static void d(String tag, String format, Object arg1, Object arg2) {
+        if (Log.DEBUG >= MIN_LEVEL) {
+            log(Log.DEBUG, tag, format, new Object[]{arg1, arg2});
+        }
+    }
+
+    public static void d(String tag, String format, Object arg1, Object arg2, Object arg3) {
+        if (Log.DEBUG >= MIN_LEVEL) {
+            log(Log.DEBUG, tag, format, new Object[]{arg1, arg2, arg3});
+        }
+    }
+
+    public static void d(String tag, String format, Object... args) {
+        if (Log.DEBUG >= MIN_LEVEL) {
+            log(Log.DEBUG, tag, format, args);
+        }
+    }
+
+    public static void i(String tag, String message) {
+        if (Log.INFO >= MIN_LEVEL) {
+            log(Log.INFO, tag, message, null);
+        }
+    }
+
+    public static void i(String tag, String format, Object arg) {
+        if (Log.INFO >= MIN_LEVEL) {
+            log(Log.INFO, tag, format, new Object[]{arg});
+        }
+    }
+
+    public static void i(String tag, String format, Object arg1, Object arg2) {
+        if (Log.INFO >= MIN_LEVEL) {
+            log(Log.INFO, tag, format, new Object[]{arg1, arg2});
+        }
+    }
+
+    public static void i(String tag, String format, Object arg1, Object arg2, Object arg3) {
+        if (Log.INFO >= MIN_LEVEL) {
+            log(Log.INFO, tag, format, new Object[]{arg1, arg2, arg3});
+        }
+    }
+
+    public static void i(String tag, String format, Object... args) {
+        if (Log.INFO >= MIN_LEVEL) {
+            log(Log.INFO, tag, format, args);
+        }
+    }
+
+    public static void w(String tag, String message) {
+        if (Log.WARN >= MIN_LEVEL) {
+            log(Log.WARN, tag, message, null);
+        }
+    }
+
+    public static void w(String tag, String format, Object arg) {
+        if (Log.WARN >= MIN_LEVEL) {
+            log(Log.WARN, tag, format, new Object[]{arg});
+        }
+    }
+
+    public static void w(String tag, String format, Object arg1, Object arg2) {
+        if (Log.WARN >= MIN_LEVEL) {
+            log(Log.WARN, tag, format, new Object[]{arg1, arg2});
+        }
+    }
+
+    public static void w(String tag, String format, Object arg1, Object arg2, Object arg3) {
+        if (Log.WARN >= MIN_LEVEL) {
+            log(Log.WARN, tag, format, new Object[]{arg1, arg2, arg3});
+        }
+    }
+
+    public static void w(String tag, String format, Object... args) {
+        if (Log.WARN >= MIN_LEVEL) {
+            log(Log.WARN, tag, format, args);
+        }
+    }
+
+    public static void e(String tag, String message) {
+        log(Log.ERROR, tag, message, null);
+    }
+
+    // A trailing Throwable without its own placeholder is logged with its stack trace
+    public static void e(String tag, String format, Object... args) {
+        log(Log.ERROR, tag, format, args);
+    }
+
+    // Writes the buffered messages, oldest first, to logcat
+    public static void dump() {
+        Log.i(DUMP_TAG, dumpToString());
+    }
+
+    public static synchronized String dumpToString() {
+        StringBuilder builder = new StringBuilder("Last ").append(count).append(" log messages:\n");
+        int start = (next - count + BUFFER_SIZE) % BUFFER_SIZE;
+        for (int i = 0; i < count; i++) {
+            int slot = (start + i) % BUFFER_SIZE;
+            builder.append(DateFormats.formatDateTime(new Date(times[slot]), "HH:mm:ss.SSS")).append(' ')
+                    .append(levelChar(levels[slot])).append('/')
+                    .append(tags[slot]).append(": ")
+                    .append(messages[slot]).append('\n');
+        }
+        return builder.toString();
+    }
+
+    private static void log(int level, String tag, String format, Object[] args) {
+        Throwable throwable = null;
+        String message = format;
+        if (args != null && args.length > 0) {
+            int argCount = args.length;
+            if (args[argCount - 1] instanceof Throwable && countPlaceholders(format) < argCount) {
+                throwable = (Throwable) args[argCount - 1];
+                argCount--;
+            }
+            message = format(format, args, argCount);
+        }
+
+        if (throwable != null) {
+            Log.println(level, tag, message + '\n' + Log.getStackTraceString(throwable));
+        } else {
+            Log.println(level, tag, message);
+        }
+        record(level, tag, throwable != null ? message + ": " + throwable : message);
+    }
+
+    private static synchronized void record(int level, String tag, String message) {
+        times[next] = System.currentTimeMillis();
+        levels[next] = level;
+        tags[next] = tag;
+        messages[next] = message;
+        next = (next + 1) % BUFFER_SIZE;
+        if (count < BUFFER_SIZE) {
+            count++;
+        }
+    }
+
+    private static int countPlaceholders(String format) {
+        int placeholders = 0;
+        for (int i = format.indexOf("{}"); i >= 0; i = format.indexOf("{}", i + 2)) {
+            placeholders++;
+        }
+        return placeholders;
+    }
+
+    private static String format(String format, Object[] args, int argCount) {
+        StringBuilder builder = new StringBuilder(format.length() + 16 * argCount);
+        int start = 0;
+        for (int i = 0; i < argCount; i++) {
+            int placeholder = format.indexOf("{}", start);
+            if (placeholder < 0) {
+                break;
+            }
+            builder.append(format, start, placeholder).append(args[i]);
+            start = placeholder + 2;
+        }
+        return builder.append(format, start, format.length()).toString();
+    }
+
+    private static char levelChar(int level) {
+        switch (level) {
+            case Log.VERBOSE: return 'V';
+            case Log.DEBUG: return 'D';
+            case Log.INFO: return 'I';
+            case Log.WARN: return 'W';
+            default: return 'E';
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.example.travelerapp.util;
+
+import androidx.annotation.NonNull;
+import androidx.lifecycle.Lifecycle;
+import androidx.lifecycle.LifecycleEventObserver;
+import androidx.lifecycle.LifecycleOwner;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Cancels a group of jobs run through the {@link Dispatcher}: cancelling the token cancels
+ * every job queued with it that has not finished, and jobs queued with it afterwards never
+ * run. A token made for a lifecycle owner is cancelled when the owner is destroyed.
+ * Thread-safe.
+ */
+public final class CancellationToken {
+    private final List<Runnable> cancelActions = new ArrayList<>();
+    private boolean cancelled;
+
+    // Must be called on the main thread
+    public static CancellationToken forLifecycle(LifecycleOwner owner) {
+        CancellationToken token = new CancellationToken();
+        if (owner.getLifecycle().getCurrentState() == Lifecycle.State.DESTROYED) {
+            token.cancel();
+            return token;
+        }
+        owner.getLifecycle().addObserver(new LifecycleEventObserver() {
+            @Override
+            public void onStateChanged(@NonNull LifecycleOwner source, @NonNull Lifecycle.Event event) {
+                if (event == Lifecycle.Event.ON_DESTROY) {
+                    source.getLifecycle().removeObserver(this);
+                    token.cancel();
+                }
+            }
+        });
+        return token;
+    }
+
+    public synchronized boolean isCancelled() {
+        return cancelled;
+    }
+
+    public void cancel() {
+        List<Runnable> actions;
+        synchronized (this) {
+            if (cancelled) {
+                return;
+            }
+            cancelled = true;
+            actions = new ArrayList<>(cancelActions);
+            cancelActions.clear();
+        }
+        for (Runnable action : actions) {
+            action.run();
+        }
+    }
+
+    // Runs the action right away when the token is already cancelled
+    void addCancelAction(Runnable action) {
+        synchronized (this) {
+            if (!cancelled) {
+                cancelActions.add(action);
+                return;
+            }
+        }
+        action.run();
+    }
+
+    // Called when a job finishes, so a long-lived token does not hold on to it
+    synchronized void removeCancelAction(Runnable action) {
+        cancelActions.remove(action);
+    }
+}
@@ -0,0 +1,148 @@
+package com.example.travelerapp.util;
+
+import java.time.Instant;
+import java.time.format.DateTimeFormatter;
+import java.util.Date;
+import java.util.Locale;
+import java.util.TimeZone;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Date presentation shared by all screens. Formatters are immutable java.time
+ * formatters created once per pattern and locale. Day-level labels are also cached by
+ * epoch day, so rebinding a date strip returns the same strings without allocating.
+ * {@link #clearCaches()} should be called when the time zone changes, and frees the
+ * formatters of a locale no longer in use.
+ */
+public final class DateFormats {
+    public static final String DAY_MONTH = "dd MMM";
+    public static final String DAY_MONTH_YEAR = "dd MMM yyyy";
+    public static final String DAY_OF_WEEK = "EEE";
+    public static final String NUMERIC_DATE = "dd/MM/yyyy";
+    public static final String LONG_DATE = "MMMM d, yyyy";
+    public static final String TIME_AND_DATE = "HH:mm, dd/MM/yyyy";
+
+    private static final long MILLIS_PER_DAY = 24L * 60 * 60 * 1000;
+    // Direct-mapped, so any 64 consecutive days fit without evicting each other
+    private static final int LABEL_CACHE_SIZE = 64;
+
+    private static final class DayLabel {
+        final long epochDay;
+        final String label;
+
+        DayLabel(long epochDay, String label) {
+            this.epochDay = epochDay;
+            this.label = label;
+        }
+    }
+
+    private static final class DayLabelCache {
+        final DateTimeFormatter formatter;
+        final DayLabel[] labels = new DayLabel[LABEL_CACHE_SIZE];
+
+        DayLabelCache(DateTimeFormatter formatter) {
+            this.formatter = formatter;
+        }
+    }
+
+    // By locale, then pattern, so a lookup needs no key object and a label is never served in the wrong language
+    private static final ConcurrentHashMap<Locale, ConcurrentHashMap<String, DateTimeFormatter>> formatters =
+            new ConcurrentHashMap<>();
+    private static final ConcurrentHashMap<Locale, ConcurrentHashMap<String, DayLabelCache>> dayLabelCaches =
+            new ConcurrentHashMap<>();
+    private static volatile TimeZone timeZone;
+
+    private DateFormats() {
+    }
+
+    /**
+     * Formats the calendar day of {@code date} with a pattern that has no time fields,
+     * such as {@link #DAY_MONTH}, in the default locale. Repeated calls for the same day
+     * return the cached label.
+     */
+    public static String formatDay(Date date, String pattern) {
+        return formatDay(date, pattern, Locale.getDefault());
+    }
+
+    public static String formatDay(Date date, String pattern, Locale locale) {
+        if (date == null) {
+            return "";
+        }
+
+        long millis = date.getTime();
+        TimeZone zone = getTimeZone();
+        long epochDay = Math.floorDiv(millis + zone.getOffset(millis), MILLIS_PER_DAY);
+
+        ConcurrentHashMap<String, DayLabelCache> caches = forLocale(dayLabelCaches, locale);
+        DayLabelCache cache = caches.get(pattern);
+        if (cache == null) {
+            cache = new DayLabelCache(getFormatter(pattern, locale));
+            DayLabelCache existing = caches.putIfAbsent(pattern, cache);
+            if (existing != null) {
+                cache = existing;
+            }
+        }
+
+        int slot = (int) Math.floorMod(epochDay, (long) LABEL_CACHE_SIZE);
+        DayLabel cached = cache.labels[slot];
+        if (cached != null && cached.epochDay == epochDay) {
+            return cached.label;
+        }
+
+        String label = cache.formatter.format(Instant.ofEpochMilli(millis).atZone(zone.toZoneId()));
+        cache.labels[slot] = new DayLabel(epochDay, label);
+        return label;
+    }
+
+    // Formats patterns with time fields in the default locale; these are not cached per value
+    public static String formatDateTime(Date date, String pattern) {
+        return formatDateTime(date, pattern, Locale.getDefault());
+    }
+
+    public static String formatDateTime(Date date, String pattern, Locale locale) {
+        if (date == null) {
+            return "";
+        }
+        return getFormatter(pattern, locale)
+                .format(Instant.ofEpochMilli(date.getTime()).atZone(getTimeZone().toZoneId()));
+    }
+
+    public static void clearCaches() {
+        formatters.clear();
+        dayLabelCaches.clear();
+        timeZone = null;
+    }
+
+    private static <V> ConcurrentHashMap<String, V> forLocale(
+            ConcurrentHashMap<Locale, ConcurrentHashMap<String, V>> maps, Locale locale) {
+        ConcurrentHashMap<String, V> map = maps.get(locale);
+        if (map == null) {
+            map = new ConcurrentHashMap<>();
+            ConcurrentHashMap<String, V> existing = maps.putIfAbsent(locale, map);
+            if (existing != null) {
+                map = existing;
+            }
+        }
+        return map;
+    }
+
+    private static DateTimeFormatter getFormatter(String pattern, Locale locale) {
+        ConcurrentHashMap<String, DateTimeFormatter> localeFormatters = forLocale(formatters, locale);
+        DateTimeFormatter formatter = localeFormatters.get(pattern);
+        if (formatter == null) {
+            formatter = DateTimeFormatter.ofPattern(pattern, locale);
+            localeFormatters.putIfAbsent(pattern, formatter);
+        }
+        return formatter;
+    }
+
+    // TimeZone.getDefault() returns a new clone on every call, so the zone is kept here
+    private static TimeZone getTimeZone() {
+        TimeZone zone = timeZone;
+        if (zone == null) {
+            zone = TimeZone.getDefault();
+            timeZone = zone;
+        }
+        return zone;
+    }
+}
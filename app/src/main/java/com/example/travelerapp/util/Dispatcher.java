@@ -0,0 +1,266 @@
+package com.example.travelerapp.util;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.os.Process;
+import android.os.SystemClock;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The app's shared background threads: named pools with a fixed number of threads for
+ * disk I/O, network I/O, CPU work and image decoding, and delayed work on the main thread.
+ * Within a pool, queued jobs run by priority and then in the order they were queued;
+ * a HIGH job also runs at normal thread priority, everything else in the background.
+ * Jobs can be queued with a {@link CancellationToken}, usually one tied to a screen's
+ * lifecycle. Each pool reports thread and queue counters through {@link Pool#getStats()}.
+ */
+public final class Dispatcher {
+    private static final String TAG = "Dispatcher";
+    // Idle threads exit after this, so an idle app holds no pool threads
+    private static final long KEEP_ALIVE_S = 30;
+
+    public enum Priority {
+        HIGH,    // Work the user is waiting for
+        NORMAL,
+        LOW      // Work done ahead of the user
+    }
+
+    private static final Pool IO = new Pool("io", 2);
+    private static final Pool NETWORK = new Pool("network", 4);
+    private static final Pool CPU = new Pool("cpu", Math.max(2, Runtime.getRuntime().availableProcessors() - 1));
+    private static final Pool IMAGE_DECODE = new Pool("image-decode", 2);
+    private static final Handler MAIN = new Handler(Looper.getMainLooper());
+
+    private Dispatcher() {
+    }
+
+    // Disk only, so durable writes never queue behind a slow download
+    public static Pool io() {
+        return IO;
+    }
+
+    // Downloads; threads mostly wait on the network, so there are more of them than cores
+    public static Pool network() {
+        return NETWORK;
+    }
+
+    public static Pool cpu() {
+        return CPU;
+    }
+
+    // Kept apart from the CPU pool so scrolling through images never starves other work
+    public static Pool imageDecode() {
+        return IMAGE_DECODE;
+    }
+
+    public static List<Stats> getStats() {
+        return Arrays.asList(IO.getStats(), NETWORK.getStats(), CPU.getStats(), IMAGE_DECODE.getStats());
+    }
+
+    // Runs the action on the main thread after the delay, unless the token is cancelled first
+    public static void postDelayed(CancellationToken token, Runnable action, long delayMs) {
+        MAIN.postDelayed(new DelayedAction(token, action), delayMs);
+    }
+
+    private static final class DelayedAction implements Runnable {
+        private final CancellationToken token;
+        private final Runnable action;
+        private final Runnable cancelAction = () -> MAIN.removeCallbacks(this);
+
+        DelayedAction(CancellationToken token, Runnable action) {
+            this.token = token;
+            this.action = action;
+            token.addCancelAction(cancelAction);
+        }
+
+        @Override
+        public void run() {
+            token.removeCancelAction(cancelAction);
+            if (!token.isCancelled()) {
+                action.run();
+            }
+        }
+    }
+
+    public static final class Stats {
+        public final String name;
+        public final int threads;
+        public final int activeThreads;
+        public final int queued;
+        public final int maxQueued;
+        public final long completed;
+        public final long averageWaitMs;
+
+        Stats(String name, int threads, int activeThreads, int queued, int maxQueued, long completed, long averageWaitMs) {
+            this.name = name;
+            this.threads = threads;
+            this.activeThreads = activeThreads;
+            this.queued = queued;
+            this.maxQueued = maxQueued;
+            this.completed = completed;
+            this.averageWaitMs = averageWaitMs;
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.US, "%s: %d/%d threads active, %d queued (max %d), %d done, %d ms average wait",
+                    name, activeThreads, threads, queued, maxQueued, completed, averageWaitMs);
+        }
+    }
+
+    public static final class Pool {
+        private final String name;
+        private final ThreadPoolExecutor executor;
+        private final AtomicLong sequence = new AtomicLong();
+        private final AtomicLong startedJobs = new AtomicLong();
+        private final AtomicLong totalWaitMs = new AtomicLong();
+        private final AtomicInteger maxQueued = new AtomicInteger();
+
+        Pool(String name, int threads) {
+            this.name = name;
+            AtomicInteger threadCount = new AtomicInteger();
+            // Jobs must be queued through execute, the queue only orders Job instances
+            executor = new ThreadPoolExecutor(threads, threads, KEEP_ALIVE_S, TimeUnit.SECONDS,
+                    new PriorityBlockingQueue<>(),
+                    runnable -> new Thread(runnable, name + "-" + threadCount.incrementAndGet())) {
+                @Override
+                protected void beforeExecute(Thread thread, Runnable runnable) {
+                    Job job = (Job) runnable;
+                    // Runs on the worker thread, which takes on the priority of the job it picks up
+                    Process.setThreadPriority(job.priority == Priority.HIGH
+                            ? Process.THREAD_PRIORITY_DEFAULT : Process.THREAD_PRIORITY_BACKGROUND);
+                    startedJobs.incrementAndGet();
+                    totalWaitMs.addAndGet(SystemClock.elapsedRealtime() - job.queuedAt);
+                }
+            };
+            executor.allowCoreThreadTimeOut(true);
+        }
+
+        public Future<?> execute(Runnable task) {
+            return execute(Priority.NORMAL, null, task);
+        }
+
+        // token may be null for work that is never cancelled
+        public Future<?> execute(Priority priority, CancellationToken token, Runnable task) {
+            Job job = new Job(name, executor, task, priority, sequence.getAndIncrement(), token);
+            if (token != null) {
+                token.addCancelAction(job.cancelAction);
+                if (job.isCancelled()) {
+                    return job;
+                }
+            }
+            executor.execute(job);
+            maxQueued.accumulateAndGet(executor.getQueue().size(), Math::max);
+            return job;
+        }
+
+        // Runs tasks one at a time in the order they are given, for work that must not overlap
+        public Executor newSerialExecutor(Priority priority) {
+            return new SerialExecutor(this, priority);
+        }
+
+        public Stats getStats() {
+            long started = startedJobs.get();
+            return new Stats(name, executor.getMaximumPoolSize(), executor.getActiveCount(),
+                    executor.getQueue().size(), maxQueued.get(), executor.getCompletedTaskCount(),
+                    started == 0 ? 0 : totalWaitMs.get() / started);
+        }
+    }
+
+    private static final class Job extends FutureTask<Void> implements Comparable<Job> {
+        private final String poolName;
+        private final ThreadPoolExecutor executor;
+        final Priority priority;
+        private final long sequence;
+        private final CancellationToken token;
+        final long queuedAt = SystemClock.elapsedRealtime();
+        final Runnable cancelAction;
+
+        Job(String poolName, ThreadPoolExecutor executor, Runnable task, Priority priority, long sequence,
+            CancellationToken token) {
+            super(task, null);
+            this.poolName = poolName;
+            this.executor = executor;
+            this.priority = priority;
+            this.sequence = sequence;
+            this.token = token;
+            // A cancelled job left in the queue would still count as queued until a thread reached it
+            this.cancelAction = () -> {
+                if (cancel(true)) {
+                    this.executor.remove(this);
+                }
+            };
+        }
+
+        @Override
+        protected void done() {
+            if (token != null) {
+                token.removeCancelAction(cancelAction);
+            }
+            // A FutureTask keeps what its task threw, nothing else would report it
+            try {
+                get();
+            } catch (CancellationException | InterruptedException ignored) {
+                // Cancelled on purpose
+            } catch (ExecutionException e) {
+                AppLog.e(TAG, "Job failed on the {} pool", poolName, e.getCause());
+            }
+        }
+
+        @Override
+        public int compareTo(Job other) {
+            if (priority != other.priority) {
+                return priority.compareTo(other.priority);
+            }
+            return Long.compare(sequence, other.sequence);
+        }
+    }
+
+    private static final class SerialExecutor implements Executor {
+        private final Pool pool;
+        private final Priority priority;
+        private final ArrayDeque<Runnable> tasks = new ArrayDeque<>();
+        private boolean running;
+
+        SerialExecutor(Pool pool, Priority priority) {
+            this.pool = pool;
+            this.priority = priority;
+        }
+
+        @Override
+        public synchronized void execute(Runnable task) {
+            tasks.add(task);
+            if (!running) {
+                scheduleNext();
+            }
+        }
+
+        private synchronized void scheduleNext() {
+            Runnable next = tasks.poll();
+            running = next != null;
+            if (next != null) {
+                pool.execute(priority, null, () -> {
+                    try {
+                        next.run();
+                    } finally {
+                        scheduleNext();
+                    }
+                });
+            }
+        }
+    }
+}
@@ -0,0 +1,404 @@
+package com.example.travelerapp.util;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Encoded image bytes on disk by URL, one file per image, so a repeat session can draw
+ * images without the network. Entries are evicted least recently used first once their
+ * total size passes the byte budget. The index is an append-only journal and an image
+ * file only counts once its record is synced, so a write cut off by the app being killed
+ * is discarded on the next start. Thread-safe; only called from background threads.
+ */
+final class ImageDiskCache {
+    private static final String TAG = "ImageDiskCache";
+    private static final String JOURNAL_NAME = "journal";
+    private static final int MAGIC = 0x54524931; // "TRI1"
+    private static final int VERSION = 1;
+
+    private static final byte OP_PUT = 1;
+    private static final byte OP_REMOVE = 2;
+    private static final byte OP_READ = 3;
+    // The journal is compacted on load once it holds this many records more than entries
+    private static final int MAX_REDUNDANT_RECORDS = 500;
+    // Longer strings are never written, so a longer length read back means a corrupt record
+    private static final int MAX_STRING_BYTES = 8 * 1024;
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+    static final class Entry {
+        final String url;
+        final File file;
+        final long size;
+        // Validators from the response, null when the server sent none
+        final String etag;
+        final String lastModified;
+        // Wall-clock time until which the bytes are used without asking the server
+        final long freshUntil;
+
+        Entry(String url, File file, long size, String etag, String lastModified, long freshUntil) {
+            this.url = url;
+            this.file = file;
+            this.size = size;
+            this.etag = etag;
+            this.lastModified = lastModified;
+            this.freshUntil = freshUntil;
+        }
+
+        boolean isFresh() {
+            return System.currentTimeMillis() < freshUntil;
+        }
+    }
+
+    private final File directory;
+    private final File journal;
+    private final long maxBytes;
+    // Least recently used first
+    private final Map<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    // Entries whose use this run is already journaled
+    private final Set<String> readThisRun = new HashSet<>();
+    private long totalBytes;
+    private boolean loaded;
+    private boolean journalDamaged;
+
+    ImageDiskCache(File directory, long maxBytes) {
+        this.directory = directory;
+        this.journal = new File(directory, JOURNAL_NAME);
+        this.maxBytes = maxBytes;
+    }
+
+    // Returns null when the image is not cached
+    synchronized Entry get(String url) {
+        ensureLoaded();
+        Entry entry = entries.get(url);
+        if (entry != null && readThisRun.add(url)) {
+            // Recency is only a hint for eviction: journaled once per entry and run, and
+            // losing it to a crash is harmless
+            append(out -> {
+                out.writeByte(OP_READ);
+                writeString(out, url);
+            }, false);
+        }
+        return entry;
+    }
+
+    // Returns null when the file is gone or unreadable, and forgets the entry
+    byte[] read(Entry entry) {
+        byte[] data = new byte[(int) entry.size];
+        try (DataInputStream in = new DataInputStream(new FileInputStream(entry.file))) {
+            in.readFully(data);
+            return data;
+        } catch (IOException e) {
+            AppLog.w(TAG, "Could not read cached image {}: {}", entry.url, e.getMessage());
+            remove(entry);
+            return null;
+        }
+    }
+
+    void put(String url, byte[] data, String etag, String lastModified, long freshUntil) {
+        if (data.length > maxBytes || !fitsRecord(url)) {
+            return;
+        }
+        if (!fitsRecord(etag)) {
+            etag = null;
+        }
+        if (!fitsRecord(lastModified)) {
+            lastModified = null;
+        }
+        synchronized (this) {
+            // Loading deletes unreferenced files, it must not catch this one mid-write
+            ensureLoaded();
+        }
+
+        // Written under a unique name first, so concurrent writes of one URL never mix
+        File tempFile;
+        try {
+            directory.mkdirs();
+            tempFile = File.createTempFile("image", ".tmp", directory);
+            try (FileOutputStream stream = new FileOutputStream(tempFile)) {
+                stream.write(data);
+                stream.getFD().sync();
+            }
+        } catch (IOException e) {
+            AppLog.w(TAG, "Could not cache image {}: {}", url, e.getMessage());
+            return;
+        }
+
+        synchronized (this) {
+            File file = fileFor(url);
+            if (!tempFile.renameTo(file)) {
+                AppLog.w(TAG, "Could not store cached image {}", url);
+                tempFile.delete();
+                return;
+            }
+            record(new Entry(url, file, data.length, etag, lastModified, freshUntil));
+            trimToSize();
+        }
+    }
+
+    // Called when the server confirms the cached bytes are still current
+    synchronized Entry refresh(Entry entry, long freshUntil) {
+        ensureLoaded();
+        if (entries.get(entry.url) != entry) {
+            return entry;
+        }
+        Entry refreshed = new Entry(entry.url, entry.file, entry.size, entry.etag, entry.lastModified, freshUntil);
+        record(refreshed);
+        return refreshed;
+    }
+
+    synchronized void remove(Entry entry) {
+        if (entries.get(entry.url) == entry) {
+            evict(entry);
+        }
+    }
+
+    private void record(Entry entry) {
+        Entry previous = entries.put(entry.url, entry);
+        if (previous != null) {
+            totalBytes -= previous.size;
+        }
+        totalBytes += entry.size;
+        append(out -> {
+            out.writeByte(OP_PUT);
+            writeEntry(out, entry);
+        }, true);
+    }
+
+    private void trimToSize() {
+        Iterator<Entry> eldest = entries.values().iterator();
+        while (totalBytes > maxBytes && eldest.hasNext()) {
+            Entry entry = eldest.next();
+            eldest.remove();
+            totalBytes -= entry.size;
+            forget(entry);
+        }
+    }
+
+    private void evict(Entry entry) {
+        entries.remove(entry.url);
+        totalBytes -= entry.size;
+        forget(entry);
+    }
+
+    // The record goes first, so a file is never referenced after it is deleted
+    private void forget(Entry entry) {
+        append(out -> {
+            out.writeByte(OP_REMOVE);
+            writeString(out, entry.url);
+        }, true);
+        entry.file.delete();
+    }
+
+    private File fileFor(String url) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-1").digest(url.getBytes(StandardCharsets.UTF_8));
+            char[] name = new char[digest.length * 2];
+            for (int i = 0; i < digest.length; i++) {
+                name[i * 2] = HEX_DIGITS[(digest[i] >> 4) & 0xf];
+                name[i * 2 + 1] = HEX_DIGITS[digest[i] & 0xf];
+            }
+            return new File(directory, new String(name));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // Journal I/O
+
+    private void ensureLoaded() {
+        if (loaded) {
+            return;
+        }
+        loaded = true;
+
+        long start = System.currentTimeMillis();
+        int records = readJournal();
+
+        // Files without a record were cut off by the app being killed, and leftovers go too
+        Set<String> referenced = new HashSet<>();
+        referenced.add(JOURNAL_NAME);
+        Iterator<Entry> iterator = entries.values().iterator();
+        while (iterator.hasNext()) {
+            Entry entry = iterator.next();
+            if (entry.file.length() != entry.size) {
+                iterator.remove();
+                totalBytes -= entry.size;
+            } else {
+                referenced.add(entry.file.getName());
+            }
+        }
+        File[] files = directory.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                if (!referenced.contains(file.getName())) {
+                    file.delete();
+                }
+            }
+        }
+
+        // A journal that could not be read to its end is rewritten, or new records would
+        // land after the damaged bytes and be lost with them on the next start
+        if (journalDamaged || records - entries.size() > MAX_REDUNDANT_RECORDS || !journal.exists()) {
+            rewriteJournal();
+        }
+        trimToSize();
+        AppLog.d(TAG, "Loaded {} cached images ({} KB) in {} ms",
+                entries.size(), totalBytes / 1024, (System.currentTimeMillis() - start));
+    }
+
+    // Returns the number of records read, and sets journalDamaged when reading stopped early
+    private int readJournal() {
+        if (!journal.exists()) {
+            return 0;
+        }
+
+        int records = 0;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(journal)))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                AppLog.w(TAG, "Ignoring image cache journal with unknown format");
+                journal.delete();
+                return 0;
+            }
+            while (true) {
+                int op = in.read();
+                if (op == -1) {
+                    return records;
+                }
+                records++;
+                if (op == OP_PUT) {
+                    Entry entry = readEntry(in);
+                    Entry previous = entries.put(entry.url, entry);
+                    if (previous != null) {
+                        totalBytes -= previous.size;
+                    }
+                    totalBytes += entry.size;
+                } else if (op == OP_REMOVE) {
+                    Entry removed = entries.remove(readString(in));
+                    if (removed != null) {
+                        totalBytes -= removed.size;
+                    }
+                } else if (op == OP_READ) {
+                    entries.get(readString(in));
+                } else {
+                    AppLog.w(TAG, "Unknown image cache record {}, ignoring the rest of the journal", op);
+                    journalDamaged = true;
+                    return records;
+                }
+            }
+        } catch (EOFException e) {
+            AppLog.w(TAG, "Ignoring a truncated image cache record");
+            journalDamaged = true;
+            return records;
+        } catch (IOException | RuntimeException e) {
+            AppLog.e(TAG, "Error reading image cache journal", e);
+            journalDamaged = true;
+            return records;
+        }
+    }
+
+    private void rewriteJournal() {
+        directory.mkdirs();
+        // Write to a temporary file first so a crash never loses the index
+        File tempFile = new File(directory, JOURNAL_NAME + ".tmp");
+        try (FileOutputStream stream = new FileOutputStream(tempFile);
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(stream))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            for (Entry entry : entries.values()) {
+                out.writeByte(OP_PUT);
+                writeEntry(out, entry);
+            }
+            out.flush();
+            stream.getFD().sync();
+        } catch (IOException e) {
+            AppLog.e(TAG, "Error rewriting image cache journal", e);
+            tempFile.delete();
+            return;
+        }
+
+        if (!tempFile.renameTo(journal)) {
+            AppLog.e(TAG, "Could not replace image cache journal");
+            tempFile.delete();
+        }
+    }
+
+    private interface RecordWriter {
+        void write(DataOutputStream out) throws IOException;
+    }
+
+    private void append(RecordWriter writer, boolean sync) {
+        try (FileOutputStream stream = new FileOutputStream(journal, true);
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(stream))) {
+            writer.write(out);
+            out.flush();
+            if (sync) {
+                stream.getFD().sync();
+            }
+        } catch (IOException e) {
+            AppLog.e(TAG, "Error appending to image cache journal", e);
+        }
+    }
+
+    private Entry readEntry(DataInputStream in) throws IOException {
+        String url = readString(in);
+        long size = in.readLong();
+        if (url == null || size < 0 || size > maxBytes) {
+            throw new IOException("Corrupt image cache entry");
+        }
+        String etag = readString(in);
+        String lastModified = readString(in);
+        long freshUntil = in.readLong();
+        return new Entry(url, fileFor(url), size, etag, lastModified, freshUntil);
+    }
+
+    private void writeEntry(DataOutputStream out, Entry entry) throws IOException {
+        writeString(out, entry.url);
+        out.writeLong(entry.size);
+        writeString(out, entry.etag);
+        writeString(out, entry.lastModified);
+        out.writeLong(entry.freshUntil);
+    }
+
+    private static boolean fitsRecord(String value) {
+        return value == null || value.getBytes(StandardCharsets.UTF_8).length <= MAX_STRING_BYTES;
+    }
+
+    // Length-prefixed UTF-8, -1 for null
+    private void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private String readString(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) {
+            return null;
+        }
+        if (length > MAX_STRING_BYTES) {
+            throw new IOException("Corrupt image cache string of " + length + " bytes");
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
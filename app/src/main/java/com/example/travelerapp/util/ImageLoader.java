@@ -0,0 +1,387 @@
+package com.example.travelerapp.util;
+
+import android.app.ActivityManager;
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.DisplayMetrics;
+import android.util.LruCache;
+import android.widget.ImageView;
+
+import androidx.annotation.DrawableRes;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Loads remote images into ImageViews for every screen. Decoded bitmaps share one
+ * LruCache sized from the app's memory class, images are downsampled while decoding to
+ * the size of the view they are for, and views waiting for the same image share one
+ * download. Loading into a view again, as a recycled view holder does, cancels what the
+ * view was waiting for, so it never shows a stale image. Downloaded bytes are kept in an
+ * {@link ImageDiskCache} and revalidated with the server's ETag or Last-Modified once
+ * they are no longer fresh. Only called from the main thread.
+ */
+public final class ImageLoader {
+    private static final String TAG = "ImageLoader";
+    // Share of the app's heap the decoded bitmaps may take
+    private static final int MEMORY_CACHE_DIVISOR = 8;
+    private static final int TIMEOUT_MS = 15000;
+    private static final String DISK_CACHE_DIR = "images";
+    private static final long DISK_CACHE_BYTES = 50L * 1024 * 1024;
+    // Tour images are rarely replaced under the same URL, so even one the server marks
+    // for revalidation on every use is only revalidated once this has passed
+    private static final long MIN_FRESH_MS = 24 * 60 * 60 * 1000L;
+
+    private static ImageLoader instance;
+
+    private final LruCache<String, Bitmap> memoryCache;
+    private final ImageDiskCache diskCache;
+    private final DisplayMetrics displayMetrics;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+
+    // Requests by cache key, and the request each view is waiting for
+    private final Map<String, Request> inFlight = new HashMap<>();
+    // Values are cache keys: a value holding its view would keep the weak key reachable forever
+    private final Map<ImageView, String> waitingViews = new WeakHashMap<>();
+
+    // Where each load was served from, since the process started
+    private final AtomicLong memoryHits = new AtomicLong();
+    private final AtomicLong diskHits = new AtomicLong();
+    private final AtomicLong revalidatedHits = new AtomicLong();
+    private final AtomicLong networkLoads = new AtomicLong();
+    private final AtomicLong networkBytes = new AtomicLong();
+
+    public static final class Stats {
+        public final long memoryHits;
+        public final long diskHits;
+        // Served from disk after the server answered 304 Not Modified
+        public final long revalidatedHits;
+        public final long networkLoads;
+        public final long networkBytes;
+
+        Stats(long memoryHits, long diskHits, long revalidatedHits, long networkLoads, long networkBytes) {
+            this.memoryHits = memoryHits;
+            this.diskHits = diskHits;
+            this.revalidatedHits = revalidatedHits;
+            this.networkLoads = networkLoads;
+            this.networkBytes = networkBytes;
+        }
+
+        // Share of loads that did not download the image, 0 when nothing was loaded yet
+        public double getHitRate() {
+            long hits = memoryHits + diskHits + revalidatedHits;
+            long total = hits + networkLoads;
+            return total == 0 ? 0 : (double) hits / total;
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.US, "hit rate %.2f (memory %d, disk %d, revalidated %d, network %d, %d KB)",
+                    getHitRate(), memoryHits, diskHits, revalidatedHits, networkLoads, networkBytes / 1024);
+        }
+    }
+
+    private static final class Request {
+        final String key;
+        final String url;
+        final int width;
+        final int height;
+        final List<ImageView> targets = new ArrayList<>();
+        // Cancels the download, or the decode once it has started
+        final CancellationToken token = new CancellationToken();
+
+        Request(String key, String url, int width, int height) {
+            this.key = key;
+            this.url = url;
+            this.width = width;
+            this.height = height;
+        }
+    }
+
+    private ImageLoader(Context context) {
+        ActivityManager activityManager = (ActivityManager) context.getSystemService(Context.ACTIVITY_SERVICE);
+        int cacheBytes = activityManager.getMemoryClass() * 1024 * 1024 / MEMORY_CACHE_DIVISOR;
+        memoryCache = new LruCache<String, Bitmap>(cacheBytes) {
+            @Override
+            protected int sizeOf(String key, Bitmap bitmap) {
+                return bitmap.getByteCount();
+            }
+        };
+        diskCache = new ImageDiskCache(new File(context.getCacheDir(), DISK_CACHE_DIR), DISK_CACHE_BYTES);
+        displayMetrics = context.getResources().getDisplayMetrics();
+        AppLog.d(TAG, "Memory cache holds {} KB of bitmaps", cacheBytes / 1024);
+
+        // Bitmaps on screen stay referenced by their views, only the cache's own hold is dropped
+        MemoryBudget.getInstance().register(TAG, MemoryBudget.Priority.DECODED, keepFraction -> {
+            AppLog.i(TAG, "Trimming memory cache, {}", getStats());
+            memoryCache.trimToSize((int) (memoryCache.maxSize() * keepFraction));
+        });
+    }
+
+    public static synchronized ImageLoader getInstance(Context context) {
+        if (instance == null) {
+            instance = new ImageLoader(context.getApplicationContext());
+        }
+        return instance;
+    }
+
+    /**
+     * Shows the image at url in target, with the placeholder until it is loaded or when
+     * it cannot be. A null or empty url just shows the placeholder.
+     */
+    public void load(String url, ImageView target, @DrawableRes int placeholderResId) {
+        cancel(target);
+        if (url == null || url.isEmpty()) {
+            target.setImageResource(placeholderResId);
+            return;
+        }
+
+        int width = getTargetSize(target.getWidth(), target.getLayoutParams() != null
+                ? target.getLayoutParams().width : 0, displayMetrics.widthPixels);
+        int height = getTargetSize(target.getHeight(), target.getLayoutParams() != null
+                ? target.getLayoutParams().height : 0, displayMetrics.heightPixels);
+        String key = url + "#" + width + "x" + height;
+
+        Bitmap cached = memoryCache.get(key);
+        if (cached != null) {
+            memoryHits.incrementAndGet();
+            target.setImageBitmap(cached);
+            return;
+        }
+
+        target.setImageResource(placeholderResId);
+        Request request = inFlight.get(key);
+        if (request == null) {
+            request = new Request(key, url, width, height);
+            fetch(request);
+            inFlight.put(key, request);
+        }
+        request.targets.add(target);
+        waitingViews.put(target, key);
+    }
+
+    /**
+     * Downloads the image at url into the disk cache at low priority, so its first load
+     * only has to decode it. onDone runs on the main thread, whether or not the download
+     * worked, unless the returned token is cancelled first.
+     */
+    public CancellationToken prefetch(String url, Runnable onDone) {
+        CancellationToken token = new CancellationToken();
+        Dispatcher.network().execute(Dispatcher.Priority.LOW, token, () -> {
+            ImageDiskCache.Entry cached = diskCache.get(url);
+            if (cached == null || !cached.isFresh()) {
+                try {
+                    loadBytes(url);
+                } catch (IOException | RuntimeException e) {
+                    AppLog.w(TAG, "Error prefetching image {}: {}", url, e.getMessage());
+                }
+            }
+            mainHandler.post(() -> {
+                if (!token.isCancelled()) {
+                    onDone.run();
+                }
+            });
+        });
+        return token;
+    }
+
+    // The download is abandoned once no view waits for it any more
+    public void cancel(ImageView target) {
+        String key = waitingViews.remove(target);
+        Request request = key != null ? inFlight.get(key) : null;
+        if (request == null || !request.targets.remove(target)) {
+            return;
+        }
+        if (request.targets.isEmpty()) {
+            request.token.cancel();
+            inFlight.remove(request.key);
+        }
+    }
+
+    public Stats getStats() {
+        return new Stats(memoryHits.get(), diskHits.get(), revalidatedHits.get(), networkLoads.get(), networkBytes.get());
+    }
+
+    private void deliver(Request request, Bitmap bitmap) {
+        if (inFlight.get(request.key) == request) {
+            inFlight.remove(request.key);
+        }
+        if (bitmap != null) {
+            memoryCache.put(request.key, bitmap);
+        }
+
+        // Released on failure too, so no view outlives its screen in here; failed views keep the placeholder
+        for (ImageView target : request.targets) {
+            waitingViews.remove(target);
+            if (bitmap != null) {
+                target.setImageBitmap(bitmap);
+            }
+        }
+        request.targets.clear();
+    }
+
+    // A view that is not laid out yet uses its fixed layout size, or else the screen's
+    private static int getTargetSize(int measured, int layoutSize, int screenSize) {
+        if (measured > 0) {
+            return measured;
+        }
+        return layoutSize > 0 ? layoutSize : screenSize;
+    }
+
+    // Downloads on the network pool and decodes on the image pool, then delivers on the main thread
+    private void fetch(Request request) {
+        Dispatcher.network().execute(Dispatcher.Priority.NORMAL, request.token, () -> {
+            byte[] data;
+            try {
+                data = loadBytes(request.url);
+            } catch (IOException | RuntimeException e) {
+                AppLog.w(TAG, "Error loading image {}: {}", request.url, e.getMessage());
+                data = null;
+            }
+            if (data == null) {
+                mainHandler.post(() -> deliver(request, null));
+                return;
+            }
+
+            byte[] encoded = data;
+            Dispatcher.imageDecode().execute(Dispatcher.Priority.NORMAL, request.token, () -> {
+                Bitmap bitmap;
+                try {
+                    bitmap = decodeSampled(encoded, request.width, request.height);
+                } catch (RuntimeException | OutOfMemoryError e) {
+                    AppLog.w(TAG, "Error decoding image {}: {}", request.url, e.getMessage());
+                    bitmap = null;
+                }
+                Bitmap decoded = bitmap;
+                mainHandler.post(() -> deliver(request, decoded));
+            });
+        });
+    }
+
+    private byte[] loadBytes(String url) throws IOException {
+        ImageDiskCache.Entry cached = diskCache.get(url);
+        if (cached != null && cached.isFresh()) {
+            byte[] data = diskCache.read(cached);
+            if (data != null) {
+                diskHits.incrementAndGet();
+                return data;
+            }
+            cached = null;
+        }
+
+        HttpURLConnection connection = (HttpURLConnection) new URL(url).openConnection();
+        connection.setConnectTimeout(TIMEOUT_MS);
+        connection.setReadTimeout(TIMEOUT_MS);
+        if (cached != null) {
+            if (cached.etag != null) {
+                connection.setRequestProperty("If-None-Match", cached.etag);
+            }
+            if (cached.lastModified != null) {
+                connection.setRequestProperty("If-Modified-Since", cached.lastModified);
+            }
+        }
+
+        try {
+            int responseCode = connection.getResponseCode();
+            if (responseCode == HttpURLConnection.HTTP_NOT_MODIFIED && cached != null) {
+                ImageDiskCache.Entry refreshed = diskCache.refresh(cached, getFreshUntil(connection));
+                byte[] data = diskCache.read(refreshed);
+                if (data != null) {
+                    revalidatedHits.incrementAndGet();
+                }
+                return data;
+            }
+            if (responseCode != HttpURLConnection.HTTP_OK) {
+                return null;
+            }
+
+            byte[] data = readBody(connection);
+            if (data == null) {
+                return null;
+            }
+            networkLoads.incrementAndGet();
+            networkBytes.addAndGet(data.length);
+            diskCache.put(url, data, connection.getHeaderField("ETag"),
+                    connection.getHeaderField("Last-Modified"), getFreshUntil(connection));
+            return data;
+        } catch (IOException e) {
+            // Offline, a stale copy is better than no image
+            byte[] data = cached != null ? diskCache.read(cached) : null;
+            if (data == null) {
+                throw e;
+            }
+            diskHits.incrementAndGet();
+            return data;
+        } finally {
+            connection.disconnect();
+        }
+    }
+
+    // Returns null when the request was cancelled while reading
+    private static byte[] readBody(HttpURLConnection connection) throws IOException {
+        try (InputStream input = connection.getInputStream()) {
+            ByteArrayOutputStream output = new ByteArrayOutputStream();
+            byte[] buffer = new byte[16 * 1024];
+            int read;
+            while ((read = input.read(buffer)) != -1) {
+                if (Thread.currentThread().isInterrupted()) {
+                    return null;
+                }
+                output.write(buffer, 0, read);
+            }
+            return output.toByteArray();
+        }
+    }
+
+    // Uses the response's Cache-Control max-age, but never less than MIN_FRESH_MS
+    private static long getFreshUntil(HttpURLConnection connection) {
+        long maxAgeMs = 0;
+        String cacheControl = connection.getHeaderField("Cache-Control");
+        if (cacheControl != null) {
+            for (String directive : cacheControl.split(",")) {
+                directive = directive.trim();
+                if (directive.startsWith("max-age=")) {
+                    try {
+                        maxAgeMs = Long.parseLong(directive.substring("max-age=".length())) * 1000;
+                    } catch (NumberFormatException ignored) {
+                        // Treated as no max-age
+                    }
+                }
+            }
+        }
+        return System.currentTimeMillis() + Math.max(maxAgeMs, MIN_FRESH_MS);
+    }
+
+    // Decodes at the largest power-of-two reduction that still covers the target size
+    private static Bitmap decodeSampled(byte[] data, int width, int height) {
+        BitmapFactory.Options options = new BitmapFactory.Options();
+        options.inJustDecodeBounds = true;
+        BitmapFactory.decodeByteArray(data, 0, data.length, options);
+        if (options.outWidth <= 0 || options.outHeight <= 0) {
+            return null;
+        }
+
+        int sampleSize = 1;
+        while (options.outWidth / (sampleSize * 2) >= width && options.outHeight / (sampleSize * 2) >= height) {
+            sampleSize *= 2;
+        }
+
+        options.inJustDecodeBounds = false;
+        options.inSampleSize = sampleSize;
+        return BitmapFactory.decodeByteArray(data, 0, data.length, options);
+    }
+}
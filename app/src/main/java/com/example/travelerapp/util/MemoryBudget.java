@@ -0,0 +1,138 @@
+package com.example.travelerapp.util;
+
+import android.content.ComponentCallbacks2;
+import android.content.res.Configuration;
+
+import androidx.annotation.NonNull;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Sheds the app's in-memory caches when the system reports memory pressure. Each cache
+ * registers once with a priority and a shrink callback; as onTrimMemory levels escalate,
+ * the caches are walked from the cheapest to rebuild to the dearest and each is told what
+ * share of its contents it may keep. Caches never drop what a screen is showing.
+ * Registered with the application in TravelerApplication. Only touched from the main thread.
+ */
+public final class MemoryBudget implements ComponentCallbacks2 {
+    private static final String TAG = "MemoryBudget";
+
+    private static MemoryBudget instance;
+
+    // In the order caches are shed
+    public enum Priority {
+        PREFETCH,    // Work done ahead of the user, redone on demand
+        DECODED,     // Decoded images, decoded again from the disk cache
+        CACHED_DATA  // Documents and query results, read again from Firestore
+    }
+
+    public interface Shrinkable {
+        // keepFraction is the share of its entries the cache may keep, 0 to drop all it can
+        void shrink(float keepFraction);
+    }
+
+    // Share each priority keeps, by severity (rows) and priority (columns)
+    private static final float[][] KEEP_FRACTIONS = {
+            {1f, 1f, 1f},
+            {0f, 0.5f, 1f},     // UI hidden, or running moderate
+            {0f, 0.25f, 0.5f},  // In the background, or running low
+            {0f, 0f, 0.25f},    // Middle of the background list
+            {0f, 0f, 0f}        // Next to be killed, or running critical
+    };
+
+    private static final class Registration {
+        final String name;
+        final Priority priority;
+        final Shrinkable shrinkable;
+
+        Registration(String name, Priority priority, Shrinkable shrinkable) {
+            this.name = name;
+            this.priority = priority;
+            this.shrinkable = shrinkable;
+        }
+    }
+
+    private final List<Registration> registrations = new ArrayList<>();
+
+    public static synchronized MemoryBudget getInstance() {
+        if (instance == null) {
+            instance = new MemoryBudget();
+        }
+        return instance;
+    }
+
+    public void register(String name, Priority priority, Shrinkable shrinkable) {
+        // Kept sorted by priority, in registration order within one
+        int index = 0;
+        while (index < registrations.size() && registrations.get(index).priority.compareTo(priority) <= 0) {
+            index++;
+        }
+        registrations.add(index, new Registration(name, priority, shrinkable));
+    }
+
+    public void unregister(Shrinkable shrinkable) {
+        Iterator<Registration> iterator = registrations.iterator();
+        while (iterator.hasNext()) {
+            if (iterator.next().shrinkable == shrinkable) {
+                iterator.remove();
+            }
+        }
+    }
+
+    @Override
+    public void onTrimMemory(int level) {
+        int severity = getSeverity(level);
+        if (severity == 0) {
+            return;
+        }
+
+        AppLog.i(TAG, "Trim memory level {}, shedding caches at severity {}", level, severity);
+        for (Registration registration : new ArrayList<>(registrations)) {
+            float keepFraction = KEEP_FRACTIONS[severity][registration.priority.ordinal()];
+            if (keepFraction < 1f) {
+                AppLog.d(TAG, "Shrinking {} to {}", registration.name, keepFraction);
+                registration.shrinkable.shrink(keepFraction);
+            }
+        }
+    }
+
+    @Override
+    public void onLowMemory() {
+        onTrimMemory(TRIM_MEMORY_COMPLETE);
+    }
+
+    @Override
+    public void onConfigurationChanged(@NonNull Configuration newConfig) { }
+
+    private static int getSeverity(int level) {
+        if (level >= TRIM_MEMORY_COMPLETE) {
+            return 4;
+        } else if (level >= TRIM_MEMORY_MODERATE) {
+            return 3;
+        } else if (level >= TRIM_MEMORY_BACKGROUND) {
+            return 2;
+        } else if (level >= TRIM_MEMORY_UI_HIDDEN) {
+            return 1;
+        } else if (level >= TRIM_MEMORY_RUNNING_CRITICAL) {
+            return 4;
+        } else if (level >= TRIM_MEMORY_RUNNING_LOW) {
+            return 2;
+        } else if (level >= TRIM_MEMORY_RUNNING_MODERATE) {
+            return 1;
+        }
+        return 0;
+    }
+
+    // For caches kept in an access-ordered LinkedHashMap: drops the least recently used entries
+    public static <K, V> void trimEldest(Map<K, V> map, float keepFraction) {
+        int keep = (int) (map.size() * keepFraction);
+        Iterator<V> eldest = map.values().iterator();
+        while (map.size() > keep && eldest.hasNext()) {
+            eldest.next();
+            eldest.remove();
+        }
+    }
+}
@@ -4,9 +4,6 @@ import android.content.ClipData;
 import android.content.ClipboardManager;
 import android.content.Context;
 import android.content.Intent;
-import android.graphics.Bitmap;
-import android.graphics.BitmapFactory;
-import android.os.AsyncTask;
 import android.os.Bundle;
 import android.util.Log;
 import android.view.View;
@@ -19,15 +16,14 @@ import androidx.appcompat.app.AppCompatActivity;
 import androidx.cardview.widget.CardView;
 
 import com.example.travelerapp.R;
-import com.google.firebase.firestore.DocumentSnapshot;
-import com.google.firebase.firestore.FirebaseFirestore;
+import com.example.travelerapp.model.Booking;
+import com.example.travelerapp.repository.BookingOutbox;
+import com.example.travelerapp.repository.BookingStore;
+import com.example.travelerapp.repository.TourRepository;
+import com.example.travelerapp.util.DateFormats;
+import com.example.travelerapp.util.ImageLoader;
 
-import java.io.InputStream;
-import java.net.HttpURLConnection;
-import java.net.URL;
-import java.text.SimpleDateFormat;
 import java.util.Date;
-import java.util.Locale;
 
 public class BookingConfirmationActivity extends AppCompatActivity {
 
@@ -46,16 +42,13 @@ public class BookingConfirmationActivity extends AppCompatActivity {
     private CardView tourDetailsCard;
 
     private String bookingId;
-    private FirebaseFirestore db;
+    private boolean tourDetailsLoaded = false;
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
         setContentView(R.layout.activity_recipt);
 
-        // Initialize Firestore
-        db = FirebaseFirestore.getInstance();
-
         // Initialize views
         initializeViews();
 
@@ -73,6 +66,20 @@ public class BookingConfirmationActivity extends AppCompatActivity {
         // Load booking details
         loadBookingDetails(bookingId);
 
+        // Checkout completes on the device; tell the user if Firestore later rejects it
+        BookingOutbox outbox = BookingOutbox.getInstance();
+        outbox.getBookingStatus(bookingId).observe(this, status -> {
+            if (status == BookingOutbox.Status.FAILED) {
+                showSyncFailure("This booking could not be saved. Please try booking again.");
+            }
+        });
+        // A payment is rejected when the booking expired first, the booking itself still exists
+        outbox.getPaymentStatus(bookingId).observe(this, status -> {
+            if (status == BookingOutbox.Status.FAILED) {
+                showSyncFailure("This payment could not be confirmed. Your booking may have expired.");
+            }
+        });
+
         // Set up click listeners
         setupClickListeners();
     }
@@ -114,89 +121,69 @@ public class BookingConfirmationActivity extends AppCompatActivity {
         });
     }
 
-    private void loadBookingDetails(String bookingId) {
-        db.collection("bookings").document(bookingId)
-                .get()
-                .addOnSuccessListener(documentSnapshot -> {
-                    if (documentSnapshot.exists()) {
-                        updateUI(documentSnapshot);
-                    } else {
-                        Toast.makeText(this, "Booking not found", Toast.LENGTH_SHORT).show();
-                    }
-                })
-                .addOnFailureListener(e -> {
-                    Toast.makeText(this, "Error loading booking details: " + e.getMessage(),
-                            Toast.LENGTH_SHORT).show();
-                });
+    private void showSyncFailure(String message) {
+        Toast.makeText(this, message, Toast.LENGTH_LONG).show();
     }
 
-    private void updateUI(DocumentSnapshot document) {
-        // Get data from document
-        String tourId = document.getString("tourId");
-        Date tourDate = document.getDate("tourDateStart");
-        Long numberOfPersons = document.getLong("numberOfPerson");
-        Double totalPrice = document.getDouble("totalPrice");
+    private void loadBookingDetails(String bookingId) {
+        // Served from memory after checkout; the store keeps it fresh while this screen is shown
+        BookingStore.getInstance().getBooking(bookingId).observe(this, booking -> {
+            if (booking != null) {
+                updateUI(booking);
+            } else {
+                Toast.makeText(this, "Booking not found", Toast.LENGTH_SHORT).show();
+            }
+        });
+    }
 
+    private void updateUI(Booking booking) {
         // Format date
+        Date tourDate = booking.getTourDateStart();
         if (tourDate != null) {
-            SimpleDateFormat sdf = new SimpleDateFormat("MMMM d, yyyy", Locale.getDefault());
-            tourDateText.setText(sdf.format(tourDate));
+            tourDateText.setText(DateFormats.formatDay(tourDate, DateFormats.LONG_DATE));
         }
 
         // Set number of travelers
-        if (numberOfPersons != null) {
-            travelersCountText.setText(String.valueOf(numberOfPersons));
-            tourDetailsCard.setVisibility(View.VISIBLE);
-        } else {
-            tourDetailsCard.setVisibility(View.GONE);
-        }
+        travelersCountText.setText(String.valueOf(booking.getNumberOfPerson()));
+        tourDetailsCard.setVisibility(View.VISIBLE);
 
         // Set total payment
-        if (totalPrice != null) {
-            totalPaymentText.setText(String.format(Locale.getDefault(), "%,.0f VND", totalPrice));
-        }
+        totalPaymentText.setText(booking.getTotalPrice().format());
 
-        // Load tour details
-        if (tourId != null && !tourId.isEmpty()) {
+        // Load tour details once; they do not change with the booking
+        String tourId = booking.getTourId();
+        if (!tourDetailsLoaded && tourId != null && !tourId.isEmpty()) {
+            tourDetailsLoaded = true;
             loadTourDetails(tourId);
         }
     }
 
+    // The tour was opened just before checkout, so the repository usually has it in memory
     private void loadTourDetails(String tourId) {
-        db.collection("tours").document(tourId)
-                .get()
-                .addOnSuccessListener(documentSnapshot -> {
-                    if (documentSnapshot.exists()) {
-                        // Get tour name
-                        String tourName = documentSnapshot.getString("title");
-                        if (tourName == null) {
-                            tourName = documentSnapshot.getString("nameTour");
-                        }
-
-                        if (tourName != null && !tourName.isEmpty()) {
-                            tourTitleText.setText(tourName);
-                        }
-
-                        // Get tour image URL
-                        String imageUrl = documentSnapshot.getString("tourImageUrl");
-                        if (imageUrl == null) {
-                            imageUrl = documentSnapshot.getString("imageUrl");
-                        }
-
-                        if (imageUrl != null && !imageUrl.isEmpty()) {
-                            loadImageFromUrl(imageUrl);
-                        }
-                    }
-                })
-                .addOnFailureListener(e -> {
-                    // Just log error, not critical
-                    Log.e(TAG, "Error loading tour details", e);
-                    tourTitleText.setText("Tour Details");
-                });
+        TourRepository.getInstance(this).getTourById(tourId, tour -> {
+            if (tour == null) {
+                Log.e(TAG, "Error loading tour details");
+                tourTitleText.setText("Tour Details");
+                return;
+            }
+
+            // Get tour name
+            String tourName = tour.getTitle();
+            if (tourName != null && !tourName.isEmpty()) {
+                tourTitleText.setText(tourName);
+            }
+
+            // Get tour image URL
+            String imageUrl = tour.getTourImageUrl();
+            if (imageUrl != null && !imageUrl.isEmpty()) {
+                loadImageFromUrl(imageUrl);
+            }
+        });
     }
 
     private void loadImageFromUrl(String imageUrl) {
-        new DownloadImageTask(tourImageView).execute(imageUrl);
+        // The tour screens before checkout usually leave this image in the shared caches
+        ImageLoader.getInstance(this).load(imageUrl, tourImageView, R.drawable.bana_hill);
     }
 
     private void navigateToMain() {
@@ -212,38 +199,4 @@ public class BookingConfirmationActivity extends AppCompatActivity {
         intent.putExtra(EXTRA_BOOKING_ID, bookingId);
         context.startActivity(intent);
     }
-
-    // AsyncTask to download images without using Glide
-    private static class DownloadImageTask extends AsyncTask<String, Void, Bitmap> {
-        ImageView imageView;
-
-        public DownloadImageTask(ImageView imageView) {
-            this.imageView = imageView;
-        }
-
-        @Override
-        protected Bitmap doInBackground(String... urls) {
-            String imageUrl = urls[0];
-            Bitmap bitmap = null;
-            try {
-                URL url = new URL(imageUrl);
-                HttpURLConnection connection = (HttpURLConnection) url.openConnection();
-                connection.setDoInput(true);
-                connection.connect();
-                InputStream input = connection.getInputStream();
-                bitmap = BitmapFactory.decodeStream(input);
-                return bitmap;
-            } catch (Exception e) {
-                Log.e("DownloadImageTask", "Error downloading image", e);
-                return null;
-            }
-        }
-
-        @Override
-        protected void onPostExecute(Bitmap result) {
-            if (result != null) {
-                imageView.setImageBitmap(result);
-            }
-        }
-    }
-}
\ No newline at end of file
+}
@@ -15,6 +15,7 @@ import androidx.lifecycle.ViewModelProvider;
 
 import com.example.travelerapp.R;
 import com.example.travelerapp.model.Booking;
+import com.example.travelerapp.model.BookingDetailsModel;
 import com.example.travelerapp.viewmodel.BookingDetailsViewModel;
 
 public class BookingDetailsActivity extends AppCompatActivity {
@@ -214,8 +215,9 @@ public class BookingDetailsActivity extends AppCompatActivity {
         Log.d(TAG, "Navigating to PaymentActivity with booking ID: " + bookingId);
 
         try {
-            // Try the static method first
-            PaymentActivity.start(this, bookingId);
+            // Try the static method first; the tour id lets the payment screen load both at once
+            BookingDetailsModel bookingDetails = viewModel.getBookingDetails().getValue();
+            PaymentActivity.start(this, bookingId, bookingDetails != null ? bookingDetails.getTourId() : null);
             Log.d(TAG, "Successfully started PaymentActivity using static method");
         } catch (Exception e) {
             Log.e(TAG, "Error starting PaymentActivity with static method", e);
@@ -3,7 +3,6 @@ package com.example.travelerapp.view;
 import android.content.Context;
 import android.content.Intent;
 import android.os.Bundle;
-import android.os.CountDownTimer;
 import android.util.Log;
 import android.view.View;
 import android.widget.Button;
@@ -12,23 +11,24 @@ import android.widget.TextView;
 import android.widget.Toast;
 
 import androidx.appcompat.app.AppCompatActivity;
+import androidx.lifecycle.ViewModelProvider;
 
 import com.example.travelerapp.R;
-import com.google.firebase.firestore.DocumentSnapshot;
-import com.google.firebase.firestore.FirebaseFirestore;
+import com.example.travelerapp.model.BookingStatus;
+import com.example.travelerapp.model.PaymentModel;
+import com.example.travelerapp.repository.PaymentRepository;
+import com.example.travelerapp.util.CancellationToken;
+import com.example.travelerapp.util.Dispatcher;
+import com.example.travelerapp.viewmodel.PaymentViewModel;
+import com.example.travelerapp.viewmodel.PaymentViewModelFactory;
 
-import java.text.SimpleDateFormat;
-import java.util.Calendar;
-import java.util.Date;
 import java.util.Locale;
 import java.util.concurrent.TimeUnit;
 
 public class PaymentActivity extends AppCompatActivity {
     private static final String TAG = "PaymentActivity";
     private static final String EXTRA_BOOKING_ID = "extra_booking_id";
-
-    // Payment time limit in milliseconds (2 hours)
-    private static final long PAYMENT_TIME_LIMIT = 2 * 60 * 60 * 1000;
+    private static final String EXTRA_TOUR_ID = "extra_tour_id";
 
     // UI components
     private ImageView backIcon;
@@ -43,12 +43,17 @@ public class PaymentActivity extends AppCompatActivity {
     private Button confirmPaymentButton;
 
     private String bookingIdValue;
-    private FirebaseFirestore db;
-    private CountDownTimer countDownTimer;
-    private long timeRemaining = PAYMENT_TIME_LIMIT;
+    private String tourIdValue;
+    private PaymentViewModel viewModel;
+    private boolean confirmationShown = false;
 
     // Static method to start this activity
     public static void start(Context context, String bookingId) {
+        start(context, bookingId, null);
+    }
+
+    // With the tour id the screen reads the booking and the tour at the same time
+    public static void start(Context context, String bookingId, String tourId) {
         if (context == null) {
             Log.e("PaymentActivity", "Cannot start activity with null context");
             return;
@@ -63,6 +68,7 @@ public class PaymentActivity extends AppCompatActivity {
             Log.d("PaymentActivity", "Starting PaymentActivity with booking ID: " + bookingId);
             Intent intent = new Intent(context, PaymentActivity.class);
             intent.putExtra(EXTRA_BOOKING_ID, bookingId);
+            intent.putExtra(EXTRA_TOUR_ID, tourId);
             context.startActivity(intent);
         } catch (Exception e) {
             Log.e("PaymentActivity", "Error starting PaymentActivity", e);
@@ -109,8 +115,11 @@ public class PaymentActivity extends AppCompatActivity {
             }
         }
 
-        // Initialize Firestore
-        db = FirebaseFirestore.getInstance();
+        tourIdValue = intent.getStringExtra(EXTRA_TOUR_ID);
+
+        // Payment data and confirmation go through the view model
+        viewModel = new ViewModelProvider(this, new PaymentViewModelFactory(new PaymentRepository()))
+                .get(PaymentViewModel.class);
 
         try {
             // Initialize UI components
@@ -118,9 +127,7 @@ public class PaymentActivity extends AppCompatActivity {
 
             // Setup UI elements
             setupUI();
-
-            // Start countdown timer
-            startCountdownTimer();
+            observeViewModel();
 
             // Load payment details
             loadPaymentDetails(bookingIdValue);
@@ -171,37 +178,58 @@ public class PaymentActivity extends AppCompatActivity {
 
         // Set default values
         bookingId.setText(bookingIdValue);
-
-        // Set payment deadline (2 hours from now)
-        Calendar calendar = Calendar.getInstance();
-        calendar.add(Calendar.HOUR, 2);
-        Date deadline = calendar.getTime();
-        SimpleDateFormat sdf = new SimpleDateFormat("HH:mm, dd/MM/yyyy", Locale.getDefault());
-        paymentDeadline.setText("Please pay before: " + sdf.format(deadline));
     }
 
-    private void startCountdownTimer() {
-        if (countDownTimer != null) {
-            countDownTimer.cancel();
-        }
+    private void observeViewModel() {
+        viewModel.getPaymentData().observe(this, payment -> {
+            showPaymentDetails(payment);
+            confirmPaymentButton.setEnabled(canConfirm());
+        });
 
-        countDownTimer = new CountDownTimer(timeRemaining, 1000) {
-            @Override
-            public void onTick(long millisUntilFinished) {
-                timeRemaining = millisUntilFinished;
-                updateCountdownDisplay(millisUntilFinished);
+        // The view model owns the countdown to the booking's deadline, this only shows it
+        viewModel.getRemainingMillis().observe(this, this::updateCountdownDisplay);
+
+        viewModel.isExpired().observe(this, expired -> {
+            if (expired) {
+                showExpired();
             }
+        });
 
-            @Override
-            public void onFinish() {
-                paymentCountdown.setText("Payment time expired!");
-                confirmPaymentButton.setEnabled(false);
-                confirmPaymentButton.setText("Payment Time Expired");
+        viewModel.getErrorMessage().observe(this, message -> {
+            Log.e(TAG, message);
+            Toast.makeText(this, message, Toast.LENGTH_SHORT).show();
+            if (canConfirm()) {
+                confirmPaymentButton.setEnabled(true);
+                confirmPaymentButton.setText("Confirm Payment");
+            }
+        });
+
+        viewModel.getPaymentStatus().observe(this, status -> {
+            if (status == PaymentViewModel.PaymentStatus.SUCCESS) {
+                Log.d(TAG, "Payment confirmed successfully");
+                confirmPaymentButton.setText("Payment Completed");
+                paymentCountdown.setText("Payment completed");
 
-                // You might want to update the booking status in Firestore to "expired"
-                Toast.makeText(PaymentActivity.this, "Payment time has expired", Toast.LENGTH_LONG).show();
+                Toast.makeText(this, "Payment confirmed successfully", Toast.LENGTH_SHORT).show();
+
+                // Navigate to booking confirmation screen
+                navigateToBookingConfirmation(bookingIdValue);
             }
-        }.start();
+        });
+    }
+
+    // Only while the payment is pending and the deadline has not passed
+    private boolean canConfirm() {
+        PaymentModel payment = viewModel.getPaymentData().getValue();
+        return payment != null
+                && !BookingStatus.fromValue(payment.getPaymentStatus()).isPaid()
+                && !Boolean.TRUE.equals(viewModel.isExpired().getValue());
+    }
+
+    private void showExpired() {
+        paymentCountdown.setText("Payment time expired!");
+        confirmPaymentButton.setEnabled(false);
+        confirmPaymentButton.setText("Payment Time Expired");
     }
 
     private void updateCountdownDisplay(long millisUntilFinished) {
@@ -229,156 +257,50 @@ public class PaymentActivity extends AppCompatActivity {
         // Show loading state
         Log.d(TAG, "Loading payment details for booking: " + bookingId);
         confirmPaymentButton.setEnabled(false);
-
-        // Load booking details from Firestore
-        db.collection("bookings").document(bookingId)
-                .get()
-                .addOnSuccessListener(documentSnapshot -> {
-                    Log.d(TAG, "Booking document retrieved successfully");
-                    if (documentSnapshot.exists()) {
-                        updateUI(documentSnapshot);
-                    } else {
-                        Log.e(TAG, "Booking document does not exist");
-                        Toast.makeText(this, "Booking not found", Toast.LENGTH_SHORT).show();
-                        finish();
-                    }
-                    confirmPaymentButton.setEnabled(true);
-                })
-                .addOnFailureListener(e -> {
-                    Log.e(TAG, "Error loading booking details", e);
-                    Toast.makeText(this, "Error: " + e.getMessage(), Toast.LENGTH_SHORT).show();
-                    confirmPaymentButton.setEnabled(true);
-                });
+        viewModel.loadPaymentDetails(bookingId, tourIdValue);
     }
 
-    private void updateUI(DocumentSnapshot document) {
-        try {
-            Log.d(TAG, "Updating UI with document data: " + document.getData());
-
-            // Set booking ID
-            bookingId.setText(document.getId());
-
-            // Set tour details
-            String tourId = document.getString("tourId");
-
-            // Check if tour name is directly in the booking
-            String tourNameValue = document.getString("tourName");
-            if (tourNameValue != null && !tourNameValue.isEmpty()) {
-                tourName.setText(tourNameValue);
-            } else if (tourId != null) {
-                // If not, load from tours collection
-                loadTourDetails(tourId);
-            } else {
-                Log.w(TAG, "Tour ID is null in booking document");
-                tourName.setText("Tour Details");
-            }
-
-            // Set number of travelers
-            Long numberOfPersons = document.getLong("numberOfPerson");
-            if (numberOfPersons != null) {
-                numberOfTravelers.setText(String.valueOf(numberOfPersons));
-            } else {
-                Log.w(TAG, "Number of persons is null in booking document");
-                numberOfTravelers.setText("1"); // Default value
-            }
-
-            // Set total payment
-            Double totalPriceValue = document.getDouble("totalPrice");
-            if (totalPriceValue != null) {
-                totalPayment.setText(String.format("%,.0f VND", totalPriceValue));
-            } else {
-                Log.w(TAG, "Total price is null in booking document");
-                totalPayment.setText("0 VND"); // Default value
-            }
-
-            // Set payment status
-            String paymentStatus = document.getString("paymentStatus");
-            if ("completed".equals(paymentStatus)) {
-                confirmPaymentButton.setEnabled(false);
-                confirmPaymentButton.setText("Payment Completed");
-                if (countDownTimer != null) {
-                    countDownTimer.cancel();
-                }
-                paymentCountdown.setText("Payment completed");
-
-                // If payment is already completed, navigate to confirmation screen
-                navigateToBookingConfirmation(bookingIdValue);
-            }
-
-        } catch (Exception e) {
-            Log.e(TAG, "Error updating UI", e);
+    private void showPaymentDetails(PaymentModel payment) {
+        // Set booking ID
+        bookingId.setText(payment.getBookingId());
+
+        String tourNameValue = payment.getTourName();
+        tourName.setText(tourNameValue != null && !tourNameValue.isEmpty() ? tourNameValue : "Tour Details");
+        tourDuration.setText("Duration: " + payment.getTourDuration());
+        tourDate.setText("Date: " + payment.getFormattedTourDates());
+        numberOfTravelers.setText(String.valueOf(payment.getNumberOfTravelers()));
+        totalPayment.setText(payment.getFormattedTotalAmount());
+        paymentDeadline.setText("Please pay before: " + payment.getFormattedPaymentDeadline());
+
+        // If payment is already completed, navigate to confirmation screen
+        if (BookingStatus.fromValue(payment.getPaymentStatus()).isPaid()) {
+            confirmPaymentButton.setText("Payment Completed");
+            paymentCountdown.setText("Payment completed");
+            navigateToBookingConfirmation(bookingIdValue);
         }
     }
 
-    private void loadTourDetails(String tourId) {
-        Log.d(TAG, "Loading tour details for tour ID: " + tourId);
-        db.collection("tours").document(tourId)
-                .get()
-                .addOnSuccessListener(documentSnapshot -> {
-                    if (documentSnapshot.exists()) {
-                        Log.d(TAG, "Tour document retrieved successfully");
-
-                        // Try to get title from different fields
-                        String title = documentSnapshot.getString("title");
-                        if (title == null) {
-                            title = documentSnapshot.getString("nameTour");
-                        }
-                        if (title != null) {
-                            tourName.setText(title);
-                        } else {
-                            Log.w(TAG, "Tour title not found in document");
-                            tourName.setText("Tour Details"); // Default value
-                        }
-
-                        // Set duration (default to 3 days if not found)
-                        tourDuration.setText("Duration: 3 days");
-
-                        // Set date range (default for demo)
-                        tourDate.setText("Date: 18/03/2025 - 21/03/2025");
-                    } else {
-                        Log.w(TAG, "Tour document does not exist");
-                    }
-                })
-                .addOnFailureListener(e -> Log.e(TAG, "Error loading tour details", e));
-    }
-
     private void confirmPayment() {
         Log.d(TAG, "Confirming payment for booking: " + bookingIdValue);
         confirmPaymentButton.setEnabled(false);
         confirmPaymentButton.setText("Processing...");
 
-        // Update payment status in Firestore
-        db.collection("bookings").document(bookingIdValue)
-                .update("paymentStatus", "completed", "paymentDate", new java.util.Date())
-                .addOnSuccessListener(aVoid -> {
-                    Log.d(TAG, "Payment confirmed successfully");
-                    confirmPaymentButton.setText("Payment Completed");
-
-                    // Stop the countdown timer
-                    if (countDownTimer != null) {
-                        countDownTimer.cancel();
-                    }
-                    paymentCountdown.setText("Payment completed");
-
-                    Toast.makeText(this, "Payment confirmed successfully", Toast.LENGTH_SHORT).show();
-
-                    // Navigate to booking confirmation screen
-                    navigateToBookingConfirmation(bookingIdValue);
-                })
-                .addOnFailureListener(e -> {
-                    Log.e(TAG, "Error confirming payment", e);
-                    confirmPaymentButton.setEnabled(true);
-                    confirmPaymentButton.setText("Confirm Payment");
-                    Toast.makeText(this, "Payment confirmation failed: " + e.getMessage(), Toast.LENGTH_SHORT).show();
-                });
+        // Recorded on the device and synced to Firestore by the outbox; stays processing until Firestore accepts it
+        viewModel.confirmPayment();
     }
 
     /**
      * Navigate to the BookingConfirmationActivity with the booking ID
      */
     private void navigateToBookingConfirmation(String bookingId) {
-        // Add a small delay to show the success message
-        new android.os.Handler().postDelayed(() -> {
+        // Confirming updates the payment data too, which would navigate a second time
+        if (confirmationShown) {
+            return;
+        }
+        confirmationShown = true;
+
+        // Add a small delay to show the success message; dropped if the screen goes away first
+        Dispatcher.postDelayed(CancellationToken.forLifecycle(this), () -> {
             try {
                 Log.d(TAG, "Navigating to BookingConfirmationActivity with booking ID: " + bookingId);
                 Intent intent = new Intent(PaymentActivity.this, BookingConfirmationActivity.class);
@@ -398,30 +320,9 @@ public class PaymentActivity extends AppCompatActivity {
         }, 1500); // 1.5 second delay
     }
 
-    @Override
-    protected void onPause() {
-        super.onPause();
-        // Pause the timer when the activity is not visible
-        if (countDownTimer != null) {
-            countDownTimer.cancel();
-        }
-    }
-
-    @Override
-    protected void onResume() {
-        super.onResume();
-        // Resume the timer when the activity becomes visible again
-        if (timeRemaining > 0) {
-            startCountdownTimer();
-        }
-    }
-
     @Override
     protected void onDestroy() {
         Log.d(TAG, "PaymentActivity onDestroy");
-        if (countDownTimer != null) {
-            countDownTimer.cancel();
-        }
         super.onDestroy();
     }
 }
\ No newline at end of file
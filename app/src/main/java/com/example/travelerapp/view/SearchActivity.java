@@ -19,7 +19,10 @@ import androidx.recyclerview.widget.RecyclerView;
 
 import com.example.travelerapp.R;
 import com.example.travelerapp.model.Tour;
+import com.example.travelerapp.repository.TourPager;
+import com.example.travelerapp.view.adapter.PagingScrollListener;
 import com.example.travelerapp.view.adapter.SearchTourAdapter;
+import com.example.travelerapp.view.adapter.VisibleTourTracker;
 import com.example.travelerapp.viewmodel.TourViewModel;
 
 import java.util.ArrayList;
@@ -44,7 +47,9 @@ public class SearchActivity extends AppCompatActivity implements SearchTourAdapt
 
     private TourViewModel viewModel;
     private SearchTourAdapter adapter;
-    private List<Tour> allTours = new ArrayList<>();
+    private GridLayoutManager layoutManager;
+    private TourPager tourPager;
+    private VisibleTourTracker visibleTourTracker;
     private List<Tour> filteredTours = new ArrayList<>();
     private String currentCategory = null;
 
@@ -66,11 +71,12 @@ public class SearchActivity extends AppCompatActivity implements SearchTourAdapt
         // Set up the back button
         backButton.setOnClickListener(v -> finish());
 
-        // Set up RecyclerView
-        setupRecyclerView();
-
         // Initialize ViewModel properly using ViewModelProvider
         viewModel = new ViewModelProvider(this).get(TourViewModel.class);
+        tourPager = viewModel.getSearchPager();
+
+        // Set up RecyclerView
+        setupRecyclerView();
 
         // Load data
         loadTours();
@@ -166,13 +172,43 @@ public class SearchActivity extends AppCompatActivity implements SearchTourAdapt
 
     private void setupRecyclerView() {
         // Set up RecyclerView with a grid layout (2 columns)
-        GridLayoutManager layoutManager = new GridLayoutManager(this, 2);
+        layoutManager = new GridLayoutManager(this, 2);
         toursRecyclerView.setLayoutManager(layoutManager);
 
         // Initialize adapter with empty list
-        filteredTours = new ArrayList<>();
-        adapter = new SearchTourAdapter(this, filteredTours, this);
+        adapter = new SearchTourAdapter(this, new ArrayList<>(), this);
         toursRecyclerView.setAdapter(adapter);
+        visibleTourTracker = new VisibleTourTracker(this, "search");
+
+        // Show the next page of matches half a page before the end of the grid
+        toursRecyclerView.addOnScrollListener(new PagingScrollListener(layoutManager,
+                TourViewModel.FEED_PAGE_SIZE / 2, () -> tourPager.loadNextPage()));
+
+        // Count reviews only for the cards the user stops on, not for every card scrolled past
+        toursRecyclerView.addOnScrollListener(new RecyclerView.OnScrollListener() {
+            @Override
+            public void onScrollStateChanged(RecyclerView recyclerView, int newState) {
+                if (newState == RecyclerView.SCROLL_STATE_IDLE) {
+                    refreshVisibleReviewCounts();
+                }
+            }
+
+            @Override
+            public void onScrolled(RecyclerView recyclerView, int dx, int dy) {
+                checkVisibleTours();
+            }
+        });
+    }
+
+    // Warms the detail screen for the cards the grid settles on
+    private void checkVisibleTours() {
+        visibleTourTracker.onVisibleRangeChanged(adapter.getCurrentList(),
+                layoutManager.findFirstVisibleItemPosition(), layoutManager.findLastVisibleItemPosition());
+    }
+
+    private void refreshVisibleReviewCounts() {
+        tourPager.refreshReviewCounts(layoutManager.findFirstVisibleItemPosition(),
+                layoutManager.findLastVisibleItemPosition());
     }
 
     private void updateCategoryFilterText() {
@@ -203,27 +239,17 @@ public class SearchActivity extends AppCompatActivity implements SearchTourAdapt
         toursRecyclerView.setVisibility(View.GONE);
         noResultsText.setVisibility(View.GONE);
 
-        // Observe tours data from ViewModel
-        viewModel.getAllTours().observe(this, tours -> {
-            progressBar.setVisibility(View.GONE);
-
-            if (tours != null && !tours.isEmpty()) {
-                Log.d(TAG, "Received " + tours.size() + " tours from Firestore");
-                allTours = new ArrayList<>(tours);
-
-                // Apply current search filter and category filter
-                filterTours(searchInput.getText().toString());
-            } else {
-                Log.d(TAG, "No tours received from Firestore");
-                noResultsText.setVisibility(View.VISIBLE);
-
-                if (currentCategory != null && !currentCategory.isEmpty()) {
-                    noResultsText.setText("No tours available in category: " + currentCategory);
-                } else {
-                    noResultsText.setText("No tours available. Please try again later.");
-                }
-            }
+        // The pager publishes the first pages of catalog tours matching the search and category
+        tourPager.getTours().observe(this, tours -> {
+            filteredTours = tours;
+            Log.d(TAG, "Showing " + tours.size() + " matching tours");
+            showResults();
+            toursRecyclerView.post(this::refreshVisibleReviewCounts);
+            toursRecyclerView.post(this::checkVisibleTours);
         });
+        tourPager.getIsLoading().observe(this, loading -> showResults());
+
+        filterTours(searchInput.getText().toString());
     }
 
     private void setupSearch() {
@@ -258,93 +284,81 @@ public class SearchActivity extends AppCompatActivity implements SearchTourAdapt
     }
 
     private void filterTours(String query) {
-        if (allTours == null || allTours.isEmpty()) {
-            Log.d(TAG, "Cannot filter: tour list is empty or null");
-            return;
+        String lowerCaseQuery = query.toLowerCase(Locale.getDefault());
+        String category = currentCategory;
+
+        // Filtering runs over the whole catalog; only the first page of matches is shown at once
+        tourPager.setFilter(tour -> matchesFilter(tour, category, lowerCaseQuery));
+    }
+
+    private boolean matchesFilter(Tour tour, String category, String lowerCaseQuery) {
+        // First filter by category if applicable
+        if (category != null && !category.isEmpty() && !matchesCategory(tour, category)) {
+            return false;
         }
 
-        progressBar.setVisibility(View.VISIBLE);
+        // Show all category-filtered tours if query is empty
+        if (lowerCaseQuery.isEmpty()) {
+            return true;
+        }
 
-        // Clear previous results
-        filteredTours.clear();
+        // Filter tours based on title, description, or location containing the query (case insensitive)
+        boolean matchesTitle = tour.getTitle() != null &&
+                tour.getTitle().toLowerCase(Locale.getDefault()).contains(lowerCaseQuery);
 
-        // First filter by category if applicable
-        List<Tour> categoryFilteredTours = new ArrayList<>();
-        if (currentCategory != null && !currentCategory.isEmpty()) {
-            for (Tour tour : allTours) {
-                if (matchesCategory(tour, currentCategory)) {
-                    categoryFilteredTours.add(tour);
-                }
-            }
-            Log.d(TAG, "Category filter applied: " + currentCategory +
-                    ", found " + categoryFilteredTours.size() + " tours");
-        } else {
-            categoryFilteredTours.addAll(allTours);
+        boolean matchesLocation = false;
+        if (tour.getLocation() != null) {
+            matchesLocation = tour.getLocation().toLowerCase(Locale.getDefault()).contains(lowerCaseQuery);
+        } else if (tour.getAddress() != null) {
+            matchesLocation = tour.getAddress().toLowerCase(Locale.getDefault()).contains(lowerCaseQuery);
         }
 
-        // Then filter by search query
-        if (query.isEmpty()) {
-            // Show all category-filtered tours if query is empty
-            filteredTours.addAll(categoryFilteredTours);
-            Log.d(TAG, "Empty query: showing all " + filteredTours.size() + " tours");
-        } else {
-            // Filter tours based on title, description, or location containing the query (case insensitive)
-            String lowerCaseQuery = query.toLowerCase(Locale.getDefault());
-
-            for (Tour tour : categoryFilteredTours) {
-                // Check if tour matches search criteria
-                boolean matchesTitle = tour.getTitle() != null &&
-                        tour.getTitle().toLowerCase(Locale.getDefault()).contains(lowerCaseQuery);
-
-                boolean matchesLocation = false;
-                if (tour.getLocation() != null) {
-                    matchesLocation = tour.getLocation().toLowerCase(Locale.getDefault()).contains(lowerCaseQuery);
-                } else if (tour.getAddress() != null) {
-                    matchesLocation = tour.getAddress().toLowerCase(Locale.getDefault()).contains(lowerCaseQuery);
-                }
+        boolean matchesDescription = tour.getDescription() != null &&
+                tour.getDescription().toLowerCase(Locale.getDefault()).contains(lowerCaseQuery);
 
-                boolean matchesDescription = tour.getDescription() != null &&
-                        tour.getDescription().toLowerCase(Locale.getDefault()).contains(lowerCaseQuery);
+        return matchesTitle || matchesLocation || matchesDescription;
+    }
 
-                if (matchesTitle || matchesLocation || matchesDescription) {
-                    filteredTours.add(tour);
-                }
-            }
+    private void showResults() {
+        boolean loading = Boolean.TRUE.equals(tourPager.getIsLoading().getValue());
+        String query = searchInput.getText().toString();
 
-            Log.d(TAG, "Found " + filteredTours.size() + " tours matching query: " + query);
+        adapter.updateData(filteredTours);
+
+        if (!filteredTours.isEmpty()) {
+            progressBar.setVisibility(View.GONE);
+            noResultsText.setVisibility(View.GONE);
+            toursRecyclerView.setVisibility(View.VISIBLE);
+            return;
         }
 
-        // Update UI
-        progressBar.setVisibility(View.GONE);
+        // Nothing to match against until the catalog has loaded
+        toursRecyclerView.setVisibility(View.GONE);
+        if (loading) {
+            progressBar.setVisibility(View.VISIBLE);
+            noResultsText.setVisibility(View.GONE);
+            return;
+        }
 
-        // Show/hide no results message
-        if (filteredTours.isEmpty()) {
-            noResultsText.setVisibility(View.VISIBLE);
-            toursRecyclerView.setVisibility(View.GONE);
+        progressBar.setVisibility(View.GONE);
+        noResultsText.setVisibility(View.VISIBLE);
 
-            if (currentCategory != null && !currentCategory.isEmpty()) {
-                String displayCategory = currentCategory.substring(0, 1).toUpperCase() +
-                        currentCategory.substring(1);
+        if (currentCategory != null && !currentCategory.isEmpty()) {
+            String displayCategory = currentCategory.substring(0, 1).toUpperCase() +
+                    currentCategory.substring(1);
 
-                if (query.isEmpty()) {
-                    noResultsText.setText("No tours found in category: " + displayCategory);
-                } else {
-                    noResultsText.setText("No tours found in category \"" + displayCategory +
-                            "\" matching \"" + query + "\"");
-                }
+            if (query.isEmpty()) {
+                noResultsText.setText("No tours found in category: " + displayCategory);
             } else {
-                if (query.isEmpty()) {
-                    noResultsText.setText("No tours available");
-                } else {
-                    noResultsText.setText("No tours found matching \"" + query + "\"");
-                }
+                noResultsText.setText("No tours found in category \"" + displayCategory +
+                        "\" matching \"" + query + "\"");
             }
         } else {
-            noResultsText.setVisibility(View.GONE);
-            toursRecyclerView.setVisibility(View.VISIBLE);
-
-            // Notify adapter of data change
-            adapter.notifyDataSetChanged();
+            if (query.isEmpty()) {
+                noResultsText.setText("No tours available");
+            } else {
+                noResultsText.setText("No tours found matching \"" + query + "\"");
+            }
         }
     }
 
@@ -380,6 +394,12 @@ public class SearchActivity extends AppCompatActivity implements SearchTourAdapt
         }
     }
 
+    @Override
+    protected void onDestroy() {
+        super.onDestroy();
+        visibleTourTracker.stop();
+    }
+
     @Override
     public void onTourClick(Tour tour) {
         // Handle tour click
@@ -394,17 +414,16 @@ public class SearchActivity extends AppCompatActivity implements SearchTourAdapt
     @Override
     public void onBookmarkClick(Tour tour, int position) {
         // Toggle bookmark status
-        viewModel.toggleBookmark(tour);
+        boolean bookmarked = viewModel.toggleBookmark(tour);
 
         // Show notification toast
-        if (tour.isBookmarked()) {
+        if (bookmarked) {
             Toast.makeText(this, "Bookmarked: " + tour.getTitle(), Toast.LENGTH_SHORT).show();
         } else {
             Toast.makeText(this, "Removed bookmark from: " + tour.getTitle(), Toast.LENGTH_SHORT).show();
         }
 
-        // Update the specific item
-        adapter.notifyItemChanged(position);
+        // The updated tour arrives with the next list snapshot from the ViewModel
     }
 
 
@@ -2,24 +2,40 @@ package com.example.travelerapp.view;
 
 import android.content.Intent;
 import android.graphics.BitmapFactory;
+import android.graphics.Rect;
 import android.os.Bundle;
 import android.util.Log;
+import android.view.View;
 import android.widget.ImageView;
 import android.widget.TextView;
 import android.widget.Toast;
 
+import androidx.annotation.NonNull;
 import androidx.appcompat.app.AppCompatActivity;
 import androidx.lifecycle.ViewModelProvider;
+import androidx.recyclerview.widget.ConcatAdapter;
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
 
 import com.example.travelerapp.R;
+import com.example.travelerapp.model.Review;
 import com.example.travelerapp.model.Tour;
+import com.example.travelerapp.repository.ReviewFeed;
+import com.example.travelerapp.util.ImageLoader;
+import com.example.travelerapp.view.adapter.PagingScrollListener;
+import com.example.travelerapp.view.adapter.ReviewAdapter;
+import com.example.travelerapp.view.adapter.SingleViewAdapter;
 import com.example.travelerapp.viewmodel.TourDetailViewModel;
 import com.google.android.material.button.MaterialButton;
 
+import java.util.List;
+
 public class TourDetailActivity extends AppCompatActivity {
 
     private static final String TAG = "TourDetailActivity";
     public static final String EXTRA_TOUR_ID = "tour_id";
+    // The next page of reviews is shown once the last one shown is this many items away
+    private static final int REVIEW_PREFETCH_DISTANCE = 5;
 
     private TourDetailViewModel viewModel;
     private ImageView tourImageView;
@@ -30,6 +46,12 @@ public class TourDetailActivity extends AppCompatActivity {
     private MaterialButton bookmarkButton;
     private MaterialButton backButton;
     private MaterialButton continueButton;
+    private RecyclerView reviewRecyclerView;
+    private View detailsHeader;
+    private View reviewStatusFooter;
+    private TextView reviewStatusTextView;
+    private ReviewAdapter reviewAdapter;
+    private ReviewFeed reviewFeed;
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -56,21 +78,83 @@ public class TourDetailActivity extends AppCompatActivity {
         // Observe tour data
         viewModel.getTourLiveData().observe(this, this::updateUI);
 
+        setupReviews(tourId);
+
         // Set click listeners
         setClickListeners();
     }
 
     private void initViews() {
-        tourImageView = findViewById(R.id.tour_image);
-        titleTextView = findViewById(R.id.tour_title);
-        ratingTextView = findViewById(R.id.tour_rating);
-        descriptionTextView = findViewById(R.id.tour_description);
+        // The tour details and the review status scroll with the reviews, as the list's first and last items
+        reviewRecyclerView = findViewById(R.id.review_list);
+        detailsHeader = getLayoutInflater().inflate(R.layout.header_tour_detail, reviewRecyclerView, false);
+        reviewStatusFooter = getLayoutInflater().inflate(R.layout.footer_review_status, reviewRecyclerView, false);
+
+        tourImageView = detailsHeader.findViewById(R.id.tour_image);
+        titleTextView = detailsHeader.findViewById(R.id.tour_title);
+        ratingTextView = detailsHeader.findViewById(R.id.tour_rating);
+        descriptionTextView = detailsHeader.findViewById(R.id.tour_description);
+        bookmarkButton = detailsHeader.findViewById(R.id.bookmark_button);
+        backButton = detailsHeader.findViewById(R.id.back_button);
+        reviewStatusTextView = reviewStatusFooter.findViewById(R.id.review_status);
         priceTextView = findViewById(R.id.tour_price);
-        bookmarkButton = findViewById(R.id.bookmark_button);
-        backButton = findViewById(R.id.back_button);
         continueButton = findViewById(R.id.continue_button);
     }
 
+    private void setupReviews(String tourId) {
+        reviewAdapter = new ReviewAdapter();
+        LinearLayoutManager layoutManager = new LinearLayoutManager(this);
+        reviewRecyclerView.setLayoutManager(layoutManager);
+        reviewRecyclerView.setAdapter(new ConcatAdapter(new SingleViewAdapter(detailsHeader), reviewAdapter,
+                new SingleViewAdapter(reviewStatusFooter)));
+        addReviewInsets();
+
+        reviewFeed = viewModel.getReviewFeed(tourId);
+        reviewFeed.getReviews().observe(this, reviews -> {
+            reviewAdapter.submitList(reviews);
+            updateReviewStatus();
+        });
+        reviewFeed.getIsLoading().observe(this, loading -> updateReviewStatus());
+
+        // Layout passes report a scroll too, so a short first page still asks for the next one
+        reviewRecyclerView.addOnScrollListener(new PagingScrollListener(layoutManager,
+                REVIEW_PREFETCH_DISTANCE, () -> {
+            if (reviewFeed.hasMore()) {
+                reviewFeed.loadNextPage();
+            }
+        }));
+    }
+
+    // Reviews keep the screen's side margins; the tour details span the full width
+    private void addReviewInsets() {
+        int inset = Math.round(16 * getResources().getDisplayMetrics().density);
+        reviewRecyclerView.addItemDecoration(new RecyclerView.ItemDecoration() {
+            @Override
+            public void getItemOffsets(@NonNull Rect outRect, @NonNull View view,
+                                       @NonNull RecyclerView parent, @NonNull RecyclerView.State state) {
+                if (parent.getChildAdapterPosition(view) > 0) {
+                    outRect.left = inset;
+                    outRect.right = inset;
+                }
+            }
+        });
+    }
+
+    private void updateReviewStatus() {
+        List<Review> reviews = reviewFeed.getReviews().getValue();
+        boolean loading = Boolean.TRUE.equals(reviewFeed.getIsLoading().getValue());
+
+        if (loading) {
+            reviewStatusTextView.setText("Loading reviews...");
+            reviewStatusTextView.setVisibility(View.VISIBLE);
+        } else if (reviews != null && reviews.isEmpty()) {
+            reviewStatusTextView.setText("No reviews yet");
+            reviewStatusTextView.setVisibility(View.VISIBLE);
+        } else {
+            reviewStatusTextView.setVisibility(View.GONE);
+        }
+    }
+
     private void setClickListeners() {
         backButton.setOnClickListener(v -> finish());
 
@@ -118,13 +202,11 @@ public class TourDetailActivity extends AppCompatActivity {
         // Set price
         priceTextView.setText(tour.getPrice());
 
-        // Load image - using resource ID instead of URL
-        if (tour.getImageResourceId() != 0) {
-            tourImageView.setImageResource(tour.getImageResourceId());
-        } else {
-            // Set a default image if no image resource is available
-            tourImageView.setImageResource(R.drawable.ic_launcher_background);
-        }
+        // Load image from its URL, which the home lists may already have prefetched,
+        // falling back to the resource ID
+        int imageResourceId = tour.getImageResourceId() != 0
+                ? tour.getImageResourceId() : R.drawable.ic_launcher_background;
+        ImageLoader.getInstance(this).load(tour.getTourImageUrl(), tourImageView, imageResourceId);
 
         // Update bookmark icon
         updateBookmarkIcon();
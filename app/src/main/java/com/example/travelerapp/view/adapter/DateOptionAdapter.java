@@ -13,10 +13,9 @@ import androidx.recyclerview.widget.RecyclerView;
 
 import com.example.travelerapp.R;
 import com.example.travelerapp.model.BookingDateOption;
+import com.example.travelerapp.util.DateFormats;
 
-import java.text.SimpleDateFormat;
 import java.util.List;
-import java.util.Locale;
 
 public class DateOptionAdapter extends RecyclerView.Adapter<DateOptionAdapter.DateViewHolder> {
 
@@ -45,14 +44,11 @@ public class DateOptionAdapter extends RecyclerView.Adapter<DateOptionAdapter.Da
     public void onBindViewHolder(@NonNull DateViewHolder holder, int position) {
         BookingDateOption dateOption = dateOptions.get(position);
 
-        // Format date
-        SimpleDateFormat dateFormat = new SimpleDateFormat("dd MMM", Locale.getDefault());
-
         // Set day of week
         holder.dayOfWeekText.setText(dateOption.getDayName());
 
         // Set date
-        holder.dateText.setText(dateFormat.format(dateOption.getDate()));
+        holder.dateText.setText(DateFormats.formatDay(dateOption.getDate(), DateFormats.DAY_MONTH));
 
         // Update styling based on selection state
         if (dateOption.isSelected()) {
@@ -0,0 +1,35 @@
+package com.example.travelerapp.view.adapter;
+
+import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
+
+/**
+ * Asks for the next page once the last visible item comes within
+ * {@code prefetchDistance} items of the end of the list.
+ */
+public class PagingScrollListener extends RecyclerView.OnScrollListener {
+
+    public interface PageLoader {
+        void loadNextPage();
+    }
+
+    private final LinearLayoutManager layoutManager;
+    private final int prefetchDistance;
+    private final PageLoader loader;
+
+    public PagingScrollListener(LinearLayoutManager layoutManager, int prefetchDistance, PageLoader loader) {
+        this.layoutManager = layoutManager;
+        this.prefetchDistance = prefetchDistance;
+        this.loader = loader;
+    }
+
+    @Override
+    public void onScrolled(@NonNull RecyclerView recyclerView, int dx, int dy) {
+        int lastVisible = layoutManager.findLastVisibleItemPosition();
+        if (lastVisible != RecyclerView.NO_POSITION
+                && lastVisible >= layoutManager.getItemCount() - 1 - prefetchDistance) {
+            loader.loadNextPage();
+        }
+    }
+}
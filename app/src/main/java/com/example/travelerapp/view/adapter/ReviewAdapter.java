@@ -0,0 +1,72 @@
+package com.example.travelerapp.view.adapter;
+
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.TextView;
+
+import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.DiffUtil;
+import androidx.recyclerview.widget.ListAdapter;
+import androidx.recyclerview.widget.RecyclerView;
+
+import com.example.travelerapp.R;
+import com.example.travelerapp.model.Review;
+import com.example.travelerapp.util.DateFormats;
+
+public class ReviewAdapter extends ListAdapter<Review, ReviewAdapter.ReviewViewHolder> {
+
+    // Reviews are immutable, so a changed review is always a new instance
+    private static final DiffUtil.ItemCallback<Review> DIFF_CALLBACK = new DiffUtil.ItemCallback<Review>() {
+        @Override
+        public boolean areItemsTheSame(@NonNull Review oldItem, @NonNull Review newItem) {
+            return oldItem.getId().equals(newItem.getId());
+        }
+
+        @Override
+        public boolean areContentsTheSame(@NonNull Review oldItem, @NonNull Review newItem) {
+            return oldItem == newItem;
+        }
+    };
+
+    public ReviewAdapter() {
+        super(DIFF_CALLBACK);
+    }
+
+    @NonNull
+    @Override
+    public ReviewViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
+        View view = LayoutInflater.from(parent.getContext()).inflate(R.layout.item_review, parent, false);
+        return new ReviewViewHolder(view);
+    }
+
+    @Override
+    public void onBindViewHolder(@NonNull ReviewViewHolder holder, int position) {
+        Review review = getItem(position);
+
+        holder.userTextView.setText(review.getUserName());
+        holder.ratingTextView.setText(review.getRatingDisplay());
+        holder.commentTextView.setText(review.getComment());
+        holder.commentTextView.setVisibility(review.getComment() != null && !review.getComment().isEmpty()
+                ? View.VISIBLE : View.GONE);
+        holder.dateTextView.setText(DateFormats.formatDay(review.getCreatedAt(), DateFormats.DAY_MONTH_YEAR));
+        holder.likesTextView.setText(String.valueOf(review.getLikeCount()));
+    }
+
+    public static class ReviewViewHolder extends RecyclerView.ViewHolder {
+        TextView userTextView;
+        TextView ratingTextView;
+        TextView commentTextView;
+        TextView dateTextView;
+        TextView likesTextView;
+
+        public ReviewViewHolder(@NonNull View itemView) {
+            super(itemView);
+            userTextView = itemView.findViewById(R.id.tvReviewUser);
+            ratingTextView = itemView.findViewById(R.id.tvReviewRating);
+            commentTextView = itemView.findViewById(R.id.tvReviewComment);
+            dateTextView = itemView.findViewById(R.id.tvReviewDate);
+            likesTextView = itemView.findViewById(R.id.tvReviewLikes);
+        }
+    }
+}
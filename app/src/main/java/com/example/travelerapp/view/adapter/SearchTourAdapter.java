@@ -9,6 +9,8 @@ import android.widget.ImageView;
 import android.widget.TextView;
 
 import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.DiffUtil;
+import androidx.recyclerview.widget.ListAdapter;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.example.travelerapp.R;
@@ -16,10 +18,9 @@ import com.example.travelerapp.model.Tour;
 
 import java.util.List;
 
-public class SearchTourAdapter extends RecyclerView.Adapter<SearchTourAdapter.TourViewHolder> {
+public class SearchTourAdapter extends ListAdapter<Tour, SearchTourAdapter.TourViewHolder> {
 
     private Context context;
-    private List<Tour> tourList;
     private OnTourClickListener listener;
 
     public interface OnTourClickListener {
@@ -27,10 +28,24 @@ public class SearchTourAdapter extends RecyclerView.Adapter<SearchTourAdapter.To
         void onBookmarkClick(Tour tour, int position);
     }
 
+    // Published lists are immutable snapshots, so a changed tour is always a new instance
+    private static final DiffUtil.ItemCallback<Tour> DIFF_CALLBACK = new DiffUtil.ItemCallback<Tour>() {
+        @Override
+        public boolean areItemsTheSame(@NonNull Tour oldItem, @NonNull Tour newItem) {
+            return oldItem.getId() != null && oldItem.getId().equals(newItem.getId());
+        }
+
+        @Override
+        public boolean areContentsTheSame(@NonNull Tour oldItem, @NonNull Tour newItem) {
+            return oldItem == newItem;
+        }
+    };
+
     public SearchTourAdapter(Context context, List<Tour> tourList, OnTourClickListener listener) {
+        super(DIFF_CALLBACK);
         this.context = context;
-        this.tourList = tourList;
         this.listener = listener;
+        submitList(tourList);
     }
 
     @NonNull
@@ -42,7 +57,7 @@ public class SearchTourAdapter extends RecyclerView.Adapter<SearchTourAdapter.To
 
     @Override
     public void onBindViewHolder(@NonNull TourViewHolder holder, int position) {
-        Tour tour = tourList.get(position);
+        Tour tour = getItem(position);
 
         holder.nameTextView.setText(tour.getName());
         holder.locationTextView.setText(tour.getLocation());
@@ -70,14 +85,13 @@ public class SearchTourAdapter extends RecyclerView.Adapter<SearchTourAdapter.To
 
         holder.bookmarkButton.setOnClickListener(v -> {
             if (listener != null) {
-                listener.onBookmarkClick(tour, position);
+                listener.onBookmarkClick(tour, holder.getAdapterPosition());
             }
         });
     }
 
-    @Override
-    public int getItemCount() {
-        return tourList.size();
+    public void updateData(List<Tour> newTours) {
+        submitList(newTours);
     }
 
     public static class TourViewHolder extends RecyclerView.ViewHolder {
@@ -0,0 +1,38 @@
+package com.example.travelerapp.view.adapter;
+
+import android.view.View;
+import android.view.ViewGroup;
+
+import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.RecyclerView;
+
+/**
+ * Shows one fixed view as a single list item, e.g. put before or after a list's own
+ * adapter with a ConcatAdapter so a header or footer scrolls with the list.
+ */
+public class SingleViewAdapter extends RecyclerView.Adapter<RecyclerView.ViewHolder> {
+
+    private final View view;
+
+    // The view should be inflated with the RecyclerView as its parent, without attaching it
+    public SingleViewAdapter(View view) {
+        this.view = view;
+    }
+
+    @NonNull
+    @Override
+    public RecyclerView.ViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
+        return new RecyclerView.ViewHolder(view) {
+        };
+    }
+
+    @Override
+    public void onBindViewHolder(@NonNull RecyclerView.ViewHolder holder, int position) {
+        // The owner of the view binds it
+    }
+
+    @Override
+    public int getItemCount() {
+        return 1;
+    }
+}
@@ -1,10 +1,6 @@
 package com.example.travelerapp.view.adapter;
 
 import android.content.Context;
-import android.graphics.Bitmap;
-import android.graphics.BitmapFactory;
-import android.os.AsyncTask;
-import android.util.Log;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
@@ -13,45 +9,57 @@ import android.widget.ImageView;
 import android.widget.TextView;
 
 import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.DiffUtil;
+import androidx.recyclerview.widget.ListAdapter;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.example.travelerapp.R;
 import com.example.travelerapp.model.Tour;
+import com.example.travelerapp.util.ImageLoader;
 
-import java.io.InputStream;
-import java.net.HttpURLConnection;
-import java.net.URL;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
-import java.util.Map;
 
-public class TourAdapter extends RecyclerView.Adapter<RecyclerView.ViewHolder> {
+public class TourAdapter extends ListAdapter<Tour, RecyclerView.ViewHolder> {
     private static final String TAG = "TourAdapter";
     private static final int VIEW_TYPE_RECENTLY = 0;
     private static final int VIEW_TYPE_MAIN = 1;
 
     private Context context;
-    private List<Tour> tourList;
     private OnTourClickListener listener;
 
-    // Simple image cache
-    private Map<String, Bitmap> imageCache = new HashMap<>();
+    private final ImageLoader imageLoader;
 
     public interface OnTourClickListener {
         void onTourClick(Tour tour);
         void onBookmarkClick(Tour tour, int position);
     }
 
+    // The repository never mutates a published tour, it swaps in a patched copy,
+    // so a changed instance is all that is needed to detect changed contents
+    private static final DiffUtil.ItemCallback<Tour> DIFF_CALLBACK = new DiffUtil.ItemCallback<Tour>() {
+        @Override
+        public boolean areItemsTheSame(@NonNull Tour oldItem, @NonNull Tour newItem) {
+            return oldItem.getId() != null && oldItem.getId().equals(newItem.getId());
+        }
+
+        @Override
+        public boolean areContentsTheSame(@NonNull Tour oldItem, @NonNull Tour newItem) {
+            return oldItem == newItem;
+        }
+    };
+
     public TourAdapter(Context context, List<Tour> tourList, OnTourClickListener listener) {
+        super(DIFF_CALLBACK);
         this.context = context;
-        this.tourList = tourList;
         this.listener = listener;
+        this.imageLoader = ImageLoader.getInstance(context);
+        submitList(tourList);
     }
 
     @Override
     public int getItemViewType(int position) {
-        return tourList.get(position).isRecently() ? VIEW_TYPE_RECENTLY : VIEW_TYPE_MAIN;
+        return getItem(position).isRecently() ? VIEW_TYPE_RECENTLY : VIEW_TYPE_MAIN;
     }
 
     @NonNull
@@ -66,9 +74,19 @@ public class TourAdapter extends RecyclerView.Adapter<RecyclerView.ViewHolder> {
         }
     }
 
+    @Override
+    public void onViewRecycled(@NonNull RecyclerView.ViewHolder holder) {
+        super.onViewRecycled(holder);
+        if (holder instanceof RecentlyTourViewHolder) {
+            imageLoader.cancel(((RecentlyTourViewHolder) holder).imageView);
+        } else if (holder instanceof MainTourViewHolder) {
+            imageLoader.cancel(((MainTourViewHolder) holder).imageView);
+        }
+    }
+
     @Override
     public void onBindViewHolder(@NonNull RecyclerView.ViewHolder holder, int position) {
-        Tour tour = tourList.get(position);
+        Tour tour = getItem(position);
 
         if (holder instanceof RecentlyTourViewHolder) {
             bindRecentlyTourViewHolder((RecentlyTourViewHolder) holder, tour, position);
@@ -97,7 +115,7 @@ public class TourAdapter extends RecyclerView.Adapter<RecyclerView.ViewHolder> {
         updateBookmarkIcon(holder.bookmarkButton, tour.isBookmarked());
 
         // Set click listeners
-        setupClickListeners(holder.itemView, holder.bookmarkButton, tour, position);
+        setupClickListeners(holder, holder.bookmarkButton, tour);
     }
 
     private void bindMainTourViewHolder(MainTourViewHolder holder, Tour tour, int position) {
@@ -119,64 +137,18 @@ public class TourAdapter extends RecyclerView.Adapter<RecyclerView.ViewHolder> {
         updateBookmarkIcon(holder.bookmarkButton, tour.isBookmarked());
 
         // Set click listeners
-        setupClickListeners(holder.itemView, holder.bookmarkButton, tour, position);
+        setupClickListeners(holder, holder.bookmarkButton, tour);
     }
 
     private void loadTourImage(ImageView imageView, Tour tour) {
-        // First set a placeholder or default image
-        imageView.setImageResource(R.drawable.ic_launcher_background); // Use a placeholder resource
-
-        // Check if we have a URL first
+        // Loading into a rebound holder's view cancels the load for the tour it showed before
         if (tour.getTourImageUrl() != null && !tour.getTourImageUrl().isEmpty()) {
-            // Check if image is in cache
-            if (imageCache.containsKey(tour.getTourImageUrl())) {
-                imageView.setImageBitmap(imageCache.get(tour.getTourImageUrl()));
-                return;
-            }
-
-            // Load image in background
-            new ImageLoadTask(imageView, tour.getTourImageUrl()).execute();
+            imageLoader.load(tour.getTourImageUrl(), imageView, R.drawable.ic_launcher_background);
         } else {
             // Fall back to resource ID if no URL
+            imageLoader.cancel(imageView);
             int resourceId = tour.getImageResourceId();
-            if (resourceId != 0) {
-                imageView.setImageResource(resourceId);
-            }
-        }
-    }
-
-    // AsyncTask for loading images without using a library
-    private class ImageLoadTask extends AsyncTask<Void, Void, Bitmap> {
-        private ImageView imageView;
-        private String url;
-
-        public ImageLoadTask(ImageView imageView, String url) {
-            this.imageView = imageView;
-            this.url = url;
-        }
-
-        @Override
-        protected Bitmap doInBackground(Void... params) {
-            try {
-                URL urlConnection = new URL(url);
-                HttpURLConnection connection = (HttpURLConnection) urlConnection.openConnection();
-                connection.setDoInput(true);
-                connection.connect();
-                InputStream input = connection.getInputStream();
-                return BitmapFactory.decodeStream(input);
-            } catch (Exception e) {
-                Log.e(TAG, "Error loading image: " + e.getMessage());
-                return null;
-            }
-        }
-
-        @Override
-        protected void onPostExecute(Bitmap result) {
-            if (result != null) {
-                // Add to cache
-                imageCache.put(url, result);
-                imageView.setImageBitmap(result);
-            }
+            imageView.setImageResource(resourceId != 0 ? resourceId : R.drawable.ic_launcher_background);
         }
     }
 
@@ -186,31 +158,27 @@ public class TourAdapter extends RecyclerView.Adapter<RecyclerView.ViewHolder> {
                 R.drawable.bookmark);
     }
 
-    private void setupClickListeners(View itemView, ImageButton bookmarkButton, Tour tour, int position) {
+    private void setupClickListeners(RecyclerView.ViewHolder holder, ImageButton bookmarkButton, Tour tour) {
         // Item click listener
-        itemView.setOnClickListener(v -> {
+        holder.itemView.setOnClickListener(v -> {
             if (listener != null) {
                 listener.onTourClick(tour);
             }
         });
 
         // Bookmark click listener
+        // Read the position at click time, items are not rebound when only their position shifts
         bookmarkButton.setOnClickListener(v -> {
-            if (listener != null) {
+            int position = holder.getAdapterPosition();
+            if (listener != null && position != RecyclerView.NO_POSITION) {
                 listener.onBookmarkClick(tour, position);
             }
         });
     }
 
-    @Override
-    public int getItemCount() {
-        return tourList != null ? tourList.size() : 0;
-    }
-
-    // Update data method for refreshing adapter data
+    // Update data method for refreshing adapter data; only changed items are rebound
     public void updateData(List<Tour> newTours) {
-        this.tourList = newTours;
-        notifyDataSetChanged();
+        submitList(newTours);
     }
 
     public static class RecentlyTourViewHolder extends RecyclerView.ViewHolder {
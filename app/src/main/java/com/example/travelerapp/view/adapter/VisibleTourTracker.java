@@ -0,0 +1,54 @@
+package com.example.travelerapp.view.adapter;
+
+import android.content.Context;
+import android.os.Handler;
+import android.os.Looper;
+
+import androidx.recyclerview.widget.RecyclerView;
+
+import com.example.travelerapp.model.Tour;
+import com.example.travelerapp.repository.TourPrefetcher;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Reports the tours one list shows to the {@link TourPrefetcher}. Tours that scroll away
+ * are dropped right away; new ones are handed over only once the list has rested on
+ * them for {@link #SETTLE_MS}, so cards flung past are never warmed.
+ */
+public class VisibleTourTracker {
+    private static final long SETTLE_MS = 300;
+
+    private final String source;
+    private final TourPrefetcher prefetcher;
+    private final Handler handler = new Handler(Looper.getMainLooper());
+    private List<Tour> settling = Collections.emptyList();
+    private final Runnable settle;
+
+    public VisibleTourTracker(Context context, String source) {
+        this.source = source;
+        this.prefetcher = TourPrefetcher.getInstance(context);
+        this.settle = () -> prefetcher.setVisibleTours(source, settling);
+    }
+
+    public void onVisibleRangeChanged(List<Tour> tours, int firstVisible, int lastVisible) {
+        List<Tour> visible = new ArrayList<>();
+        if (firstVisible != RecyclerView.NO_POSITION) {
+            for (int i = Math.max(firstVisible, 0); i <= lastVisible && i < tours.size(); i++) {
+                visible.add(tours.get(i));
+            }
+        }
+
+        settling = visible;
+        prefetcher.retainVisibleTours(source, visible);
+        handler.removeCallbacks(settle);
+        handler.postDelayed(settle, SETTLE_MS);
+    }
+
+    public void stop() {
+        handler.removeCallbacks(settle);
+        prefetcher.clearVisibleTours(source);
+    }
+}
@@ -1,6 +1,7 @@
 package com.example.travelerapp.view.fragment;
 
 import android.content.Intent;
+import android.graphics.Rect;
 import android.os.Bundle;
 import android.view.LayoutInflater;
 import android.view.View;
@@ -14,21 +15,28 @@ import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.fragment.app.Fragment;
 import androidx.lifecycle.ViewModelProvider;
+import androidx.recyclerview.widget.ConcatAdapter;
 import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
+import androidx.swiperefreshlayout.widget.SwipeRefreshLayout;
 
 import com.example.travelerapp.R;
 import com.example.travelerapp.model.Tour;
+import com.example.travelerapp.repository.TourPager;
 import com.example.travelerapp.view.LoginActivity;
 import com.example.travelerapp.view.MainActivity;
 import com.example.travelerapp.view.SearchActivity;
 import com.example.travelerapp.view.TourDetailActivity;
+import com.example.travelerapp.view.adapter.PagingScrollListener;
+import com.example.travelerapp.view.adapter.SingleViewAdapter;
 import com.example.travelerapp.view.adapter.TourAdapter;
+import com.example.travelerapp.view.adapter.VisibleTourTracker;
 import com.example.travelerapp.viewmodel.TourViewModel;
 import com.google.firebase.auth.FirebaseAuth;
 import com.google.firebase.auth.FirebaseUser;
 import com.google.firebase.firestore.FirebaseFirestore;
 
+import java.util.ArrayList;
 import java.util.List;
 
 public class HomeFragment extends Fragment implements TourAdapter.OnTourClickListener {
@@ -41,6 +49,11 @@ public class HomeFragment extends Fragment implements TourAdapter.OnTourClickLis
     private TourAdapter recentlyTourAdapter;
     private TourAdapter mainTourAdapter;
     private TourViewModel viewModel;
+    private LinearLayoutManager mainLayoutManager;
+    private SwipeRefreshLayout swipeRefreshLayout;
+    private TourPager mainTourPager;
+    private VisibleTourTracker recentlyTourTracker;
+    private VisibleTourTracker mainTourTracker;
 
     // Category buttons
     private ImageButton btnBeach;
@@ -63,14 +76,17 @@ public class HomeFragment extends Fragment implements TourAdapter.OnTourClickLis
     public View onCreateView(@NonNull LayoutInflater inflater, @Nullable ViewGroup container,
                              @Nullable Bundle savedInstanceState) {
         View view = inflater.inflate(R.layout.fragment_home, container, false);
+        // Everything above the main tours scrolls with them as the list's first item
+        mainTourRecyclerView = view.findViewById(R.id.rcvMainTour);
+        View header = inflater.inflate(R.layout.header_home, mainTourRecyclerView, false);
 
         // Initialize Firebase Auth
         mAuth = FirebaseAuth.getInstance();
 
         // Find views
-        btnSignIn = view.findViewById(R.id.btnSignIn);
-        tvWelcomeUser = view.findViewById(R.id.tvWelcomeUser); // Tìm TextView tên người dùng
-        btnProfile = view.findViewById(R.id.btnProfile); // Tìm nút profile
+        btnSignIn = header.findViewById(R.id.btnSignIn);
+        tvWelcomeUser = header.findViewById(R.id.tvWelcomeUser); // Tìm TextView tên người dùng
+        btnProfile = header.findViewById(R.id.btnProfile); // Tìm nút profile
 
         // Set click listeners
         btnSignIn.setOnClickListener(v -> {
@@ -93,24 +109,68 @@ public class HomeFragment extends Fragment implements TourAdapter.OnTourClickLis
         viewModel = new ViewModelProvider(requireActivity()).get(TourViewModel.class);
 
         // Setup Recently Tours RecyclerView
-        recentlyTourRecyclerView = view.findViewById(R.id.rcvRecentlyTour);
+        recentlyTourRecyclerView = header.findViewById(R.id.rcvRecentlyTour);
         LinearLayoutManager recentlyLayoutManager = new LinearLayoutManager(
                 getContext(), LinearLayoutManager.HORIZONTAL, false);
         recentlyTourRecyclerView.setLayoutManager(recentlyLayoutManager);
+        recentlyTourAdapter = new TourAdapter(getContext(), new ArrayList<>(), this);
+        recentlyTourRecyclerView.setAdapter(recentlyTourAdapter);
+
+        // Warm the detail screen for the tours either list settles on
+        recentlyTourTracker = new VisibleTourTracker(requireContext(), "home_recently");
+        mainTourTracker = new VisibleTourTracker(requireContext(), "home_main");
+        recentlyTourRecyclerView.addOnScrollListener(new RecyclerView.OnScrollListener() {
+            @Override
+            public void onScrolled(@NonNull RecyclerView recyclerView, int dx, int dy) {
+                checkRecentlyTourViewport();
+            }
+        });
 
         // Setup Main Tours RecyclerView
-        mainTourRecyclerView = view.findViewById(R.id.rcvMainTour);
-        LinearLayoutManager mainLayoutManager = new LinearLayoutManager(getContext());
+        mainLayoutManager = new LinearLayoutManager(getContext());
         mainTourRecyclerView.setLayoutManager(mainLayoutManager);
+        mainTourAdapter = new TourAdapter(getContext(), new ArrayList<>(), this);
+        mainTourRecyclerView.setAdapter(new ConcatAdapter(new SingleViewAdapter(header), mainTourAdapter));
+        addMainTourInsets();
+
+        // Observe tours data; adapters diff each snapshot and rebind only changed items
+        viewModel.getAllTours().observe(getViewLifecycleOwner(), tours -> updateRecentlyToursAdapter());
+
+        // Pulling down reloads the whole catalog, not just the tours changed since the last sync
+        swipeRefreshLayout = (SwipeRefreshLayout) view;
+        swipeRefreshLayout.setOnRefreshListener(() -> viewModel.refreshTours());
+        viewModel.getIsLoading().observe(getViewLifecycleOwner(), loading -> {
+            if (!loading) {
+                swipeRefreshLayout.setRefreshing(false);
+            }
+        });
 
-        // Observe tours data and update UI
-        viewModel.getAllTours().observe(getViewLifecycleOwner(), tours -> {
-            updateRecentlyToursAdapter();
-            updateMainToursAdapter();
+        // The main list is paged over the catalog; the next page is shown half a page before the end
+        mainTourPager = viewModel.getMainTourPager();
+        mainTourRecyclerView.addOnScrollListener(new PagingScrollListener(mainLayoutManager,
+                TourViewModel.FEED_PAGE_SIZE / 2, () -> mainTourPager.loadNextPage()));
+        mainTourRecyclerView.addOnScrollListener(new RecyclerView.OnScrollListener() {
+            @Override
+            public void onScrollStateChanged(@NonNull RecyclerView recyclerView, int newState) {
+                // Count reviews only for the cards the user stops on
+                if (newState == RecyclerView.SCROLL_STATE_IDLE) {
+                    refreshVisibleReviewCounts();
+                }
+            }
+
+            @Override
+            public void onScrolled(@NonNull RecyclerView recyclerView, int dx, int dy) {
+                checkMainTourViewport();
+            }
+        });
+        mainTourPager.getTours().observe(getViewLifecycleOwner(), tours -> {
+            mainTourAdapter.updateData(tours);
+            mainTourRecyclerView.post(this::refreshVisibleReviewCounts);
+            mainTourRecyclerView.post(this::checkMainTourViewport);
         });
 
         // Set up search bar click
-        View searchBar = view.findViewById(R.id.searchBar);
+        View searchBar = header.findViewById(R.id.searchBar);
         searchBar.setOnClickListener(v -> {
             // Launch the search activity without category filter
             Intent intent = new Intent(getActivity(), SearchActivity.class);
@@ -118,7 +178,7 @@ public class HomeFragment extends Fragment implements TourAdapter.OnTourClickLis
         });
 
         // Initialize and set up category buttons
-        initCategoryButtons(view);
+        initCategoryButtons(header);
 
         return view;
     }
@@ -154,19 +214,58 @@ public class HomeFragment extends Fragment implements TourAdapter.OnTourClickLis
     private void updateRecentlyToursAdapter() {
         List<Tour> recentlyTours = viewModel.getRecentlyTours();
         if (recentlyTours != null) {
-            recentlyTourAdapter = new TourAdapter(getContext(), recentlyTours, this);
-            recentlyTourRecyclerView.setAdapter(recentlyTourAdapter);
+            recentlyTourAdapter.updateData(recentlyTours);
+            // The row only holds a few tours, so all of them count as visible
+            viewModel.refreshReviewCounts(recentlyTours);
+            recentlyTourRecyclerView.post(this::checkRecentlyTourViewport);
         }
     }
 
-    private void updateMainToursAdapter() {
-        List<Tour> mainTours = viewModel.getMainTours();
-        if (mainTours != null) {
-            mainTourAdapter = new TourAdapter(getContext(), mainTours, this);
-            mainTourRecyclerView.setAdapter(mainTourAdapter);
+    private void checkRecentlyTourViewport() {
+        LinearLayoutManager layoutManager = (LinearLayoutManager) recentlyTourRecyclerView.getLayoutManager();
+        recentlyTourTracker.onVisibleRangeChanged(recentlyTourAdapter.getCurrentList(),
+                layoutManager.findFirstVisibleItemPosition(), layoutManager.findLastVisibleItemPosition());
+    }
+
+    // Tour cards keep the screen's side margins; the header spans the full width
+    private void addMainTourInsets() {
+        int inset = Math.round(16 * getResources().getDisplayMetrics().density);
+        mainTourRecyclerView.addItemDecoration(new RecyclerView.ItemDecoration() {
+            @Override
+            public void getItemOffsets(@NonNull Rect outRect, @NonNull View view,
+                                       @NonNull RecyclerView parent, @NonNull RecyclerView.State state) {
+                if (parent.getChildAdapterPosition(view) > 0) {
+                    outRect.left = inset;
+                    outRect.right = inset;
+                }
+            }
+        });
+    }
+
+    // Positions of the main list count the header first, the pager's positions do not
+    private int firstVisibleMainTour() {
+        int first = mainLayoutManager.findFirstVisibleItemPosition();
+        return first == RecyclerView.NO_POSITION ? RecyclerView.NO_POSITION : Math.max(first - 1, 0);
+    }
+
+    private int lastVisibleMainTour() {
+        int last = mainLayoutManager.findLastVisibleItemPosition();
+        return last <= 0 ? RecyclerView.NO_POSITION : last - 1;
+    }
+
+    private void refreshVisibleReviewCounts() {
+        int lastVisible = lastVisibleMainTour();
+        if (lastVisible != RecyclerView.NO_POSITION) {
+            mainTourPager.refreshReviewCounts(firstVisibleMainTour(), lastVisible);
         }
     }
 
+    private void checkMainTourViewport() {
+        int lastVisible = lastVisibleMainTour();
+        int firstVisible = lastVisible == RecyclerView.NO_POSITION ? RecyclerView.NO_POSITION : firstVisibleMainTour();
+        mainTourTracker.onVisibleRangeChanged(mainTourAdapter.getCurrentList(), firstVisible, lastVisible);
+    }
+
     @Override
     public void onTourClick(Tour tour) {
         // Check if user is logged in before allowing tour details or booking
@@ -192,16 +291,23 @@ public class HomeFragment extends Fragment implements TourAdapter.OnTourClickLis
         }
 
         // Toggle bookmark status
-        viewModel.toggleBookmark(tour);
+        boolean bookmarked = viewModel.toggleBookmark(tour);
 
         // Show notification toast
-        if (tour.isBookmarked()) {
+        if (bookmarked) {
             Toast.makeText(getContext(), "Bookmarked tour: " + tour.getName(), Toast.LENGTH_SHORT).show();
         } else {
             Toast.makeText(getContext(), "Removed bookmark from tour: " + tour.getName(), Toast.LENGTH_SHORT).show();
         }
     }
 
+    @Override
+    public void onDestroyView() {
+        super.onDestroyView();
+        recentlyTourTracker.stop();
+        mainTourTracker.stop();
+    }
+
     @Override
     public void onResume() {
         super.onResume();
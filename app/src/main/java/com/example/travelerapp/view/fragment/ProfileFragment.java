@@ -1,14 +1,8 @@
 package com.example.travelerapp.view.fragment;
 
 import android.content.Intent;
-import android.graphics.Bitmap;
-import android.graphics.BitmapFactory;
 import android.graphics.Color;
-import android.os.AsyncTask;
 import android.os.Bundle;
-import android.os.Handler;
-import android.os.Looper;
-import android.util.Log;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
@@ -26,6 +20,7 @@ import androidx.appcompat.app.AlertDialog;
 import androidx.fragment.app.Fragment;
 
 import com.example.travelerapp.R;
+import com.example.travelerapp.util.ImageLoader;
 import com.example.travelerapp.view.ChangePasswordActivity;
 import com.example.travelerapp.view.EditProfileActivity;
 import com.example.travelerapp.view.LoginActivity;
@@ -36,13 +31,6 @@ import com.google.firebase.auth.FirebaseUser;
 import com.google.firebase.firestore.DocumentSnapshot;
 import com.google.firebase.firestore.FirebaseFirestore;
 
-import java.io.InputStream;
-import java.lang.ref.WeakReference;
-import java.net.HttpURLConnection;
-import java.net.URL;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-
 public class ProfileFragment extends Fragment {
 
     private static final String TAG = "ProfileFragment";
@@ -203,35 +191,8 @@ public class ProfileFragment extends Fragment {
     }
 
     private void loadImageFromUrl(String imageUrl) {
-        // Use ExecutorService to load image from URL (modern approach)
-        ExecutorService executor = Executors.newSingleThreadExecutor();
-        Handler handler = new Handler(Looper.getMainLooper());
-
-        executor.execute(() -> {
-            Bitmap bitmap = null;
-
-            try {
-                URL url = new URL(imageUrl);
-                HttpURLConnection connection = (HttpURLConnection) url.openConnection();
-                connection.setDoInput(true);
-                connection.connect();
-                InputStream input = connection.getInputStream();
-                bitmap = BitmapFactory.decodeStream(input);
-
-                Bitmap finalBitmap = bitmap;
-                handler.post(() -> {
-                    if (finalBitmap != null && profileImage != null) {
-                        profileImage.setImageBitmap(finalBitmap);
-                    }
-                });
-            } catch (Exception e) {
-                Log.e(TAG, "Error loading image: " + e.getMessage());
-                handler.post(() -> {
-                    // Set default image on error
-                    profileImage.setImageResource(R.drawable.user__1_);
-                });
-            }
-        });
+        // Shows the default avatar until the image is loaded, and when it cannot be
+        ImageLoader.getInstance(requireContext()).load(imageUrl, profileImage, R.drawable.user__1_);
     }
 
     private void logoutUser() {
@@ -1,7 +1,6 @@
 package com.example.travelerapp.viewmodel;
 
 import android.app.Application;
-import android.util.Log;
 
 import androidx.annotation.NonNull;
 import androidx.lifecycle.AndroidViewModel;
@@ -10,17 +9,18 @@ import androidx.lifecycle.MutableLiveData;
 
 import com.example.travelerapp.model.Booking;
 import com.example.travelerapp.model.BookingDateOption;
+import com.example.travelerapp.model.Money;
 import com.example.travelerapp.model.Tour;
 import com.example.travelerapp.repository.BookingRepository;
 import com.example.travelerapp.repository.TourRepository;
+import com.example.travelerapp.util.AppLog;
+import com.example.travelerapp.util.DateFormats;
 import com.google.firebase.auth.FirebaseAuth;
 import com.google.firebase.auth.FirebaseUser;
 
-import java.text.SimpleDateFormat;
 import java.util.Calendar;
 import java.util.Date;
 import java.util.List;
-import java.util.Locale;
 
 public class BookingDateViewModel extends AndroidViewModel {
     private static final String TAG = "BookingDateViewModel";
@@ -39,7 +39,8 @@ public class BookingDateViewModel extends AndroidViewModel {
     public BookingDateViewModel(@NonNull Application application) {
         super(application);
         bookingRepository = new BookingRepository();
-        tourRepository = new TourRepository();
+        tourRepository = TourRepository.getInstance(application);
+        tourRepository.subscribe();
 
         // Check if user is logged in
         FirebaseUser currentUser = FirebaseAuth.getInstance().getCurrentUser();
@@ -87,6 +88,8 @@ public class BookingDateViewModel extends AndroidViewModel {
         bookingRepository.getAvailableDates(tourId, new BookingRepository.BookingCallback() {
             @Override
             public void onBookingDateOptionsLoaded(List<BookingDateOption> dateOptions) {
+                // Cached dates can be followed by fresher ones; keep the user's choice if still offered
+                keepSelectedDate(dateOptions);
                 dateOptionsLiveData.setValue(dateOptions);
 
                 // Find the selected date and update the booking
@@ -106,7 +109,7 @@ public class BookingDateViewModel extends AndroidViewModel {
             }
 
             @Override
-            public void onBookingPriceCalculated(double price) {
+            public void onBookingPriceCalculated(Money price) {
                 // This will be called from calculatePrice
             }
 
@@ -117,6 +120,23 @@ public class BookingDateViewModel extends AndroidViewModel {
         });
     }
 
+    private void keepSelectedDate(List<BookingDateOption> dateOptions) {
+        Booking booking = bookingLiveData.getValue();
+        if (booking == null || booking.getSelectedDateOption() == null) {
+            return;
+        }
+
+        String selectedId = booking.getSelectedDateOption().getId();
+        for (BookingDateOption option : dateOptions) {
+            if (option.getId() != null && option.getId().equals(selectedId)) {
+                for (BookingDateOption other : dateOptions) {
+                    other.setSelected(other == option);
+                }
+                return;
+            }
+        }
+    }
+
     public void selectDate(int position) {
         List<BookingDateOption> options = dateOptionsLiveData.getValue();
         if (options == null || position < 0 || position >= options.size()) {
@@ -196,7 +216,7 @@ public class BookingDateViewModel extends AndroidViewModel {
             }
 
             @Override
-            public void onBookingPriceCalculated(double price) {
+            public void onBookingPriceCalculated(Money price) {
                 booking.setTotalPrice(price);
                 bookingLiveData.setValue(booking);
             }
@@ -226,7 +246,7 @@ public class BookingDateViewModel extends AndroidViewModel {
                 }
 
                 @Override
-                public void onBookingPriceCalculated(double price) {
+                public void onBookingPriceCalculated(Money price) {
                     // Not used here
                 }
 
@@ -234,7 +254,7 @@ public class BookingDateViewModel extends AndroidViewModel {
                 public void onBookingComplete(boolean success, String bookingId) {
                     isLoadingLiveData.setValue(false);
                     if (success) {
-                        Log.d(TAG, "Booking created successfully with ID: " + bookingId);
+                        AppLog.d(TAG, "Booking created successfully with ID: {}", bookingId);
                         bookingCompleteLiveData.setValue(true);
                     } else {
                         errorMessageLiveData.setValue("Failed to create booking. Please try again.");
@@ -281,16 +301,20 @@ public class BookingDateViewModel extends AndroidViewModel {
 
     // Helper methods for formatting
     public String formatDate(Date date) {
-        if (date == null) return "";
-        return new SimpleDateFormat("dd MMM", Locale.getDefault()).format(date);
+        return DateFormats.formatDay(date, DateFormats.DAY_MONTH);
     }
 
     public String formatDayOfWeek(Date date) {
-        if (date == null) return "";
-        return new SimpleDateFormat("EEE", Locale.getDefault()).format(date);
+        return DateFormats.formatDay(date, DateFormats.DAY_OF_WEEK);
+    }
+
+    public String formatPrice(Money price) {
+        return price.format();
     }
 
-    public String formatPrice(double price) {
-        return String.format(Locale.getDefault(), "%,.0f VND", price);
+    @Override
+    protected void onCleared() {
+        super.onCleared();
+        tourRepository.unsubscribe();
     }
 }
\ No newline at end of file
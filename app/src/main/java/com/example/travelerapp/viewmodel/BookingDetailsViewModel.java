@@ -1,7 +1,6 @@
 package com.example.travelerapp.viewmodel;
 
 import android.app.Application;
-import android.util.Log;
 
 import androidx.annotation.NonNull;
 import androidx.lifecycle.AndroidViewModel;
@@ -10,12 +9,13 @@ import androidx.lifecycle.MutableLiveData;
 
 import com.example.travelerapp.model.Booking;
 import com.example.travelerapp.model.BookingDetailsModel;
+import com.example.travelerapp.model.Money;
 import com.example.travelerapp.repository.BookingDetailsRepository;
+import com.example.travelerapp.util.AppLog;
+import com.example.travelerapp.util.DateFormats;
 import com.google.firebase.auth.FirebaseAuth;
 
-import java.text.SimpleDateFormat;
 import java.util.Date;
-import java.util.Locale;
 
 public class BookingDetailsViewModel extends AndroidViewModel {
     private static final String TAG = "BookingDetailsViewModel";
@@ -92,11 +92,11 @@ public class BookingDetailsViewModel extends AndroidViewModel {
                 isLoadingLiveData.setValue(false);
 
                 if (success && bookingId != null && !bookingId.isEmpty()) {
-                    Log.d(TAG, "Booking created successfully with ID: " + bookingId);
+                    AppLog.d(TAG, "Booking created successfully with ID: {}", bookingId);
                     bookingCreatedLiveData.setValue(true);
                     bookingIdLiveData.setValue(bookingId);
                 } else {
-                    Log.e(TAG, "Failed to create booking. Success: " + success + ", ID: " + bookingId);
+                    AppLog.e(TAG, "Failed to create booking. Success: {}, ID: {}", success, bookingId);
                     errorMessageLiveData.setValue("Failed to create booking. Please try again.");
                 }
             }
@@ -135,11 +135,11 @@ public class BookingDetailsViewModel extends AndroidViewModel {
     // Helper methods
     public String formatDate(Date date) {
         if (date == null) return "";
-        return "Valid on " + new SimpleDateFormat("dd MMM yyyy", Locale.getDefault()).format(date);
+        return "Valid on " + DateFormats.formatDay(date, DateFormats.DAY_MONTH_YEAR);
     }
 
-    public String formatPrice(double price) {
-        return String.format(Locale.getDefault(), "%,.0f VND", price);
+    public String formatPrice(Money price) {
+        return price.format();
     }
 
     public boolean checkUserLoggedIn() {
@@ -1,24 +1,34 @@
 package com.example.travelerapp.viewmodel;
 
 import android.os.CountDownTimer;
-import android.util.Log;
 
 import androidx.lifecycle.LiveData;
 import androidx.lifecycle.MutableLiveData;
+import androidx.lifecycle.Observer;
 import androidx.lifecycle.ViewModel;
 
+import com.example.travelerapp.model.BookingStatus;
 import com.example.travelerapp.model.PaymentModel;
+import com.example.travelerapp.repository.BookingOutbox;
+import com.example.travelerapp.repository.BookingStateMachine;
 import com.example.travelerapp.repository.PaymentRepository;
+import com.example.travelerapp.util.AppLog;
+
+import java.util.Date;
 
 public class PaymentViewModel extends ViewModel {
     private static final String TAG = "PaymentViewModel";
 
     private final PaymentRepository repository;
+    // The one countdown to the booking's deadline; it survives the screen being recreated
     private CountDownTimer countDownTimer;
+    private LiveData<BookingOutbox.Status> confirmation;
+    private final Observer<BookingOutbox.Status> confirmationObserver = this::onConfirmationStatus;
 
     // LiveData objects
     private final MutableLiveData<PaymentModel> paymentData = new MutableLiveData<>();
-    private final MutableLiveData<String> remainingTime = new MutableLiveData<>();
+    private final MutableLiveData<Long> remainingMillis = new MutableLiveData<>();
+    private final MutableLiveData<Boolean> expired = new MutableLiveData<>(false);
     private final MutableLiveData<PaymentStatus> paymentStatus = new MutableLiveData<>();
     private final MutableLiveData<String> errorMessage = new MutableLiveData<>();
 
@@ -31,8 +41,13 @@ public class PaymentViewModel extends ViewModel {
         return paymentData;
     }
 
-    public LiveData<String> getRemainingTime() {
-        return remainingTime;
+    // Time left until the booking's payment deadline, updated every second
+    public LiveData<Long> getRemainingMillis() {
+        return remainingMillis;
+    }
+
+    public LiveData<Boolean> isExpired() {
+        return expired;
     }
 
     public LiveData<PaymentStatus> getPaymentStatus() {
@@ -43,82 +58,96 @@ public class PaymentViewModel extends ViewModel {
         return errorMessage;
     }
 
-    // Load payment details
-    public void loadPaymentDetails(String bookingId) {
-        repository.getPaymentDetails(bookingId, new PaymentRepository.PaymentCallback<PaymentModel>() {
+    // Load payment details; pass the tour id when it is known so both are read at once
+    public void loadPaymentDetails(String bookingId, String tourId) {
+        repository.getPaymentDetails(bookingId, tourId, new PaymentRepository.PaymentCallback<PaymentModel>() {
             @Override
             public void onSuccess(PaymentModel result) {
-                paymentData.postValue(result);
-                startCountdownTimer(result.getRemainingTimeInSeconds());
+                paymentData.setValue(result);
+                startCountdown(result);
             }
 
             @Override
             public void onError(Exception e) {
-                Log.e(TAG, "Error loading payment details", e);
-                errorMessage.postValue("Failed to load payment details: " + e.getMessage());
+                AppLog.e(TAG, "Error loading payment details", e);
+                errorMessage.setValue("Failed to load payment details: " + e.getMessage());
             }
         });
     }
 
-    // Start countdown timer
-    private void startCountdownTimer(long secondsRemaining) {
+    private void startCountdown(PaymentModel payment) {
         if (countDownTimer != null) {
             countDownTimer.cancel();
+            countDownTimer = null;
+        }
+        if (BookingStatus.fromValue(payment.getPaymentStatus()).isPaid()) {
+            return;
+        }
+        if (payment.isExpired()) {
+            expired.setValue(true);
+            return;
+        }
+        Date deadline = payment.getPaymentDeadline();
+        if (deadline == null) {
+            return;
         }
 
-        countDownTimer = new CountDownTimer(secondsRemaining * 1000, 1000) {
+        countDownTimer = new CountDownTimer(deadline.getTime() - System.currentTimeMillis(), 1000) {
             @Override
             public void onTick(long millisUntilFinished) {
-                long seconds = millisUntilFinished / 1000;
-                long hours = seconds / 3600;
-                long minutes = (seconds % 3600) / 60;
-                long secs = seconds % 60;
-
-                String timeString = String.format("%02d : %02d : %02d", hours, minutes, secs);
-                remainingTime.postValue(timeString);
+                remainingMillis.setValue(millisUntilFinished);
             }
 
             @Override
             public void onFinish() {
-                remainingTime.postValue("00 : 00 : 00");
-                errorMessage.postValue("Payment time has expired");
+                remainingMillis.setValue(0L);
+                expired.setValue(true);
+                // The transaction checks the deadline again, and fails if the booking was paid meanwhile
+                BookingStateMachine.getInstance().transition(payment.getBookingId(), BookingStatus.EXPIRED, new Date());
             }
         };
-
         countDownTimer.start();
     }
 
-    // Confirm payment
+    /**
+     * Confirm payment. The payment is recorded on the device at once, but success is only
+     * reported once Firestore accepts it, so a rejection such as a passed deadline is shown
+     * here; while offline the status stays LOADING until the outbox syncs it.
+     */
     public void confirmPayment() {
         PaymentModel payment = paymentData.getValue();
         if (payment == null || payment.getBookingId() == null) {
-            errorMessage.postValue("No booking information available");
+            errorMessage.setValue("No booking information available");
+            return;
+        }
+        if (Boolean.TRUE.equals(expired.getValue())) {
+            errorMessage.setValue("Payment time has expired");
             return;
         }
 
-        paymentStatus.postValue(PaymentStatus.LOADING);
-
-        repository.confirmPayment(payment.getBookingId(), new PaymentRepository.PaymentCallback<Boolean>() {
-            @Override
-            public void onSuccess(Boolean result) {
-                if (result) {
-                    // Update local payment model
-                    payment.setPaymentStatus("completed");
-                    paymentData.postValue(payment);
-                    paymentStatus.postValue(PaymentStatus.SUCCESS);
-                } else {
-                    paymentStatus.postValue(PaymentStatus.ERROR);
-                    errorMessage.postValue("Payment confirmation failed");
-                }
-            }
+        paymentStatus.setValue(PaymentStatus.LOADING);
+        if (confirmation != null) {
+            confirmation.removeObserver(confirmationObserver);
+        }
+        confirmation = repository.confirmPayment(payment.getBookingId());
+        confirmation.observeForever(confirmationObserver);
+    }
 
-            @Override
-            public void onError(Exception e) {
-                Log.e(TAG, "Error confirming payment", e);
-                paymentStatus.postValue(PaymentStatus.ERROR);
-                errorMessage.postValue("Payment confirmation failed: " + e.getMessage());
+    private void onConfirmationStatus(BookingOutbox.Status status) {
+        PaymentModel payment = paymentData.getValue();
+        if (status == BookingOutbox.Status.SYNCED && payment != null) {
+            if (countDownTimer != null) {
+                countDownTimer.cancel();
             }
-        });
+            payment.setPaymentStatus(BookingStatus.PAID.getValue());
+            paymentData.setValue(payment);
+            paymentStatus.setValue(PaymentStatus.SUCCESS);
+        } else if (status == BookingOutbox.Status.FAILED) {
+            paymentStatus.setValue(PaymentStatus.ERROR);
+            errorMessage.setValue(payment != null && payment.isExpired()
+                    ? "Payment time has expired"
+                    : "Payment could not be confirmed for this booking");
+        }
     }
 
     @Override
@@ -127,6 +156,9 @@ public class PaymentViewModel extends ViewModel {
         if (countDownTimer != null) {
             countDownTimer.cancel();
         }
+        if (confirmation != null) {
+            confirmation.removeObserver(confirmationObserver);
+        }
     }
 
     // Payment status enum
@@ -135,4 +167,4 @@ public class PaymentViewModel extends ViewModel {
         SUCCESS,
         ERROR
     }
-}
\ No newline at end of file
+}
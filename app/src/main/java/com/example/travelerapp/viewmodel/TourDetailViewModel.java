@@ -1,7 +1,6 @@
 package com.example.travelerapp.viewmodel;
 
 import android.app.Application;
-import android.util.Log;
 
 import androidx.annotation.NonNull;
 import androidx.lifecycle.AndroidViewModel;
@@ -9,44 +8,92 @@ import androidx.lifecycle.LiveData;
 import androidx.lifecycle.MutableLiveData;
 
 import com.example.travelerapp.model.Tour;
+import com.example.travelerapp.repository.BookingRepository;
+import com.example.travelerapp.repository.ReviewFeed;
+import com.example.travelerapp.repository.ReviewRepository;
 import com.example.travelerapp.repository.TourRepository;
+import com.example.travelerapp.util.AppLog;
+
+import java.util.Collections;
+import java.util.Map;
 
 public class TourDetailViewModel extends AndroidViewModel {
     private static final String TAG = "TourDetailViewModel";
 
     private TourRepository repository;
+    private ReviewRepository reviewRepository;
+    private BookingRepository bookingRepository;
     private MutableLiveData<Tour> tourLiveData = new MutableLiveData<>();
+    private ReviewFeed reviewFeed;
 
     public TourDetailViewModel(@NonNull Application application) {
         super(application);
-        repository = new TourRepository();
+        repository = TourRepository.getInstance(application);
+        repository.subscribe();
+        reviewRepository = ReviewRepository.getInstance();
+        bookingRepository = new BookingRepository();
     }
 
     public void loadTourDetails(String tourId) {
-        Log.d(TAG, "Loading tour details for ID: " + tourId);
+        AppLog.d(TAG, "Loading tour details for ID: {}", tourId);
+
+        // Speculatively load the date strip, so it is ready if the user taps "Continue"
+        bookingRepository.prefetchAvailableDates(tourId);
 
         // Get tour details from repository
         repository.getTourById(tourId, tour -> {
             if (tour != null) {
-                Log.d(TAG, "Tour loaded successfully: " + tour.getTitle());
+                AppLog.d(TAG, "Tour loaded successfully: {}", tour.getTitle());
                 tourLiveData.setValue(tour);
+                repository.refreshReviewCounts(Collections.singletonList(tour), this::applyReviewCount);
             } else {
-                Log.e(TAG, "Failed to load tour with ID: " + tourId);
+                AppLog.e(TAG, "Failed to load tour with ID: {}", tourId);
                 tourLiveData.setValue(null);
             }
         });
     }
 
+    // The loaded tour may be shared with the repository, so a new count is shown on a copy
+    private void applyReviewCount(Map<String, String> countsByTourId) {
+        Tour tour = tourLiveData.getValue();
+        String count = tour != null ? countsByTourId.get(tour.getId()) : null;
+        if (count != null && !count.equals(tour.getReviewCount())) {
+            Tour updatedTour = new Tour(tour);
+            updatedTour.setReviewCount(count);
+            tourLiveData.setValue(updatedTour);
+        }
+    }
+
     public LiveData<Tour> getTourLiveData() {
         return tourLiveData;
     }
 
+    // Newest-first reviews of the tour; a recently opened tour shows its cached first pages at once
+    public ReviewFeed getReviewFeed(String tourId) {
+        if (reviewFeed == null) {
+            reviewFeed = reviewRepository.getFeed(tourId);
+            reviewFeed.start();
+        }
+        return reviewFeed;
+    }
+
     public void toggleBookmark() {
         Tour tour = tourLiveData.getValue();
         if (tour != null) {
-            tour.setBookmarked(!tour.isBookmarked());
-            repository.updateTour(tour);
-            tourLiveData.setValue(tour);
+            // Work on a copy, the loaded tour may be shared with the published list
+            Tour updatedTour = new Tour(tour);
+            updatedTour.setBookmarked(!tour.isBookmarked());
+            repository.updateTour(updatedTour);
+            tourLiveData.setValue(updatedTour);
+        }
+    }
+
+    @Override
+    protected void onCleared() {
+        super.onCleared();
+        repository.unsubscribe();
+        if (reviewFeed != null) {
+            reviewRepository.releaseFeed(reviewFeed);
         }
     }
 }
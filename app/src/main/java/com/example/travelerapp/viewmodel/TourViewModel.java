@@ -1,14 +1,14 @@
 package com.example.travelerapp.viewmodel;
 
 import android.app.Application;
-import android.util.Log;
 
 import androidx.lifecycle.AndroidViewModel;
 import androidx.lifecycle.LiveData;
-import androidx.lifecycle.MutableLiveData;
 
 import com.example.travelerapp.model.Tour;
+import com.example.travelerapp.repository.TourPager;
 import com.example.travelerapp.repository.TourRepository;
+import com.example.travelerapp.util.AppLog;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -16,23 +16,31 @@ import java.util.stream.Collectors;
 
 public class TourViewModel extends AndroidViewModel {
     private static final String TAG = "TourViewModel";
+    public static final int FEED_PAGE_SIZE = 20;
     private TourRepository repository;
     private LiveData<List<Tour>> allTours;
-    private MutableLiveData<Boolean> isLoading = new MutableLiveData<>(false);
+    private TourPager mainTourPager;
+    private TourPager searchPager;
 
     public TourViewModel(Application application) {
         super(application);
-        Log.d(TAG, "TourViewModel initialized");
-        repository = new TourRepository();
-        allTours = repository.getTours();
+        AppLog.d(TAG, "TourViewModel initialized");
+        repository = TourRepository.getInstance(application);
+        allTours = repository.subscribe();
     }
 
     public LiveData<List<Tour>> getAllTours() {
         return allTours;
     }
 
+    // True while the whole catalog is being read, e.g. after refreshTours
     public LiveData<Boolean> getIsLoading() {
-        return isLoading;
+        return repository.getIsLoading();
+    }
+
+    // Pull-to-refresh: reads every tour again instead of only the ones changed since the last sync
+    public void refreshTours() {
+        repository.refreshTours();
     }
 
     public List<Tour> getRecentlyTours() {
@@ -40,28 +48,57 @@ public class TourViewModel extends AndroidViewModel {
             List<Tour> recentTours = allTours.getValue().stream()
                     .filter(Tour::isRecently)
                     .collect(Collectors.toList());
-            Log.d(TAG, "Filtered " + recentTours.size() + " recent tours");
+            AppLog.d(TAG, "Filtered {} recent tours", recentTours.size());
             return recentTours;
         }
-        Log.d(TAG, "No tours available for filtering (recent)");
+        AppLog.d(TAG, "No tours available for filtering (recent)");
         return new ArrayList<>();
     }
 
-    public List<Tour> getMainTours() {
-        if (allTours.getValue() != null) {
-            List<Tour> mainTours = allTours.getValue().stream()
-                    .filter(tour -> !tour.isRecently())
-                    .collect(Collectors.toList());
-            Log.d(TAG, "Filtered " + mainTours.size() + " main tours");
-            return mainTours;
+    // Refreshes stale review counts of catalog tours on screen, e.g. the recently row
+    public void refreshReviewCounts(List<Tour> visibleTours) {
+        repository.refreshReviewCounts(visibleTours, null);
+    }
+
+    // Paged feed for the home screen's main list; tours in the recently row are left out
+    public TourPager getMainTourPager() {
+        if (mainTourPager == null) {
+            mainTourPager = repository.createPager(FEED_PAGE_SIZE, this::isMainTour);
         }
-        Log.d(TAG, "No tours available for filtering (main)");
-        return new ArrayList<>();
+        return mainTourPager;
+    }
+
+    private boolean isMainTour(Tour tour) {
+        return !repository.isRecentlyTour(tour.getId());
+    }
+
+    // Paged feed for the search grid, narrowed with setFilter as the query changes
+    public TourPager getSearchPager() {
+        if (searchPager == null) {
+            searchPager = repository.createPager(FEED_PAGE_SIZE, null);
+        }
+        return searchPager;
     }
 
-    public void toggleBookmark(Tour tour) {
-        Log.d(TAG, "Toggling bookmark for tour: " + tour.getId());
-        tour.setBookmarked(!tour.isBookmarked());
-        repository.updateTour(tour);
+    // Returns the new bookmark state; the published tour itself is left untouched
+    public boolean toggleBookmark(Tour tour) {
+        AppLog.d(TAG, "Toggling bookmark for tour: {}", tour.getId());
+        Tour updatedTour = new Tour(tour);
+        updatedTour.setBookmarked(!tour.isBookmarked());
+        // Every open list, paged or not, shows the patched catalog
+        repository.updateTour(updatedTour);
+        return updatedTour.isBookmarked();
+    }
+
+    @Override
+    protected void onCleared() {
+        super.onCleared();
+        if (mainTourPager != null) {
+            mainTourPager.close();
+        }
+        if (searchPager != null) {
+            searchPager.close();
+        }
+        repository.unsubscribe();
     }
 }
\ No newline at end of file
@@ -0,0 +1,41 @@
+package com.example.travelerapp;
+
+import java.util.Locale;
+
+/**
+ * Times the *Benchmark classes kept next to the code they measure. They are not part of
+ * the unit suite: each has a main method to run by hand, e.g. from the IDE, and prints
+ * its results, as timings depend on the machine running them.
+ */
+public final class Benchmark {
+
+    public interface Run {
+        // Does one run's operations and returns something derived from their results
+        long run();
+    }
+
+    // Results of every run end up here, so the work cannot be optimized away
+    private static volatile long sink;
+
+    private Benchmark() {
+    }
+
+    /**
+     * Does warmupRuns runs untimed, then returns the mean nanoseconds per operation over
+     * measuredRuns runs of operationsPerRun operations each.
+     */
+    public static long nanosPerOperation(int warmupRuns, int measuredRuns, int operationsPerRun, Run run) {
+        for (int i = 0; i < warmupRuns; i++) {
+            sink += run.run();
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < measuredRuns; i++) {
+            sink += run.run();
+        }
+        return (System.nanoTime() - start) / ((long) measuredRuns * operationsPerRun);
+    }
+
+    public static void report(String format, Object... args) {
+        System.out.println(String.format(Locale.US, format, args));
+    }
+}
@@ -0,0 +1,47 @@
+package com.example.travelerapp.model;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class BookingStatusTest {
+
+    @Test
+    public void fromValue_readsEveryStoredValue() {
+        for (BookingStatus status : BookingStatus.values()) {
+            assertEquals(status, BookingStatus.fromValue(status.getValue()));
+        }
+    }
+
+    @Test
+    public void fromValue_readsLegacyCompletedAsPaid() {
+        assertEquals(BookingStatus.PAID, BookingStatus.fromValue("completed"));
+    }
+
+    @Test
+    public void fromValue_treatsMissingOrUnknownValuesAsPending() {
+        assertEquals(BookingStatus.PENDING, BookingStatus.fromValue(null));
+        assertEquals(BookingStatus.PENDING, BookingStatus.fromValue(""));
+        assertEquals(BookingStatus.PENDING, BookingStatus.fromValue("cancelled"));
+    }
+
+    @Test
+    public void canMoveTo_allowsOnlyTheLifecycleTransitions() {
+        for (BookingStatus from : BookingStatus.values()) {
+            for (BookingStatus to : BookingStatus.values()) {
+                boolean allowed = (from == BookingStatus.PENDING && to == BookingStatus.PAID)
+                        || (from == BookingStatus.PENDING && to == BookingStatus.EXPIRED)
+                        || (from == BookingStatus.PAID && to == BookingStatus.CONFIRMED);
+                assertEquals(from + " -> " + to, allowed, from.canMoveTo(to));
+            }
+        }
+    }
+
+    @Test
+    public void isPaid_holdsForPaidAndConfirmed() {
+        assertFalse(BookingStatus.PENDING.isPaid());
+        assertTrue(BookingStatus.PAID.isPaid());
+        assertTrue(BookingStatus.CONFIRMED.isPaid());
+        assertFalse(BookingStatus.EXPIRED.isPaid());
+    }
+}
@@ -0,0 +1,90 @@
+package com.example.travelerapp.model;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class MoneyTest {
+
+    @Test
+    public void format_groupsThousands() {
+        assertEquals("0 VND", Money.vnd(0).format());
+        assertEquals("999 VND", Money.vnd(999).format());
+        assertEquals("1,000 VND", Money.vnd(1000).format());
+        assertEquals("1,500,000 VND", Money.vnd(1500000).format());
+        assertEquals("123,456,789 VND", Money.vnd(123456789).format());
+        assertEquals("-25,000 VND", Money.vnd(-25000).format());
+    }
+
+    @Test
+    public void format_showsMinorUnitsOfCurrenciesThatHaveThem() {
+        assertEquals("12.34 USD", Money.of(1234, "USD").format());
+        assertEquals("0.05 USD", Money.of(5, "USD").format());
+        assertEquals("1,000.00 USD", Money.of(100000, "USD").format());
+    }
+
+    @Test
+    public void format_isCached() {
+        Money price = Money.vnd(1500000);
+
+        assertSame(price.format(), price.format());
+        assertSame(price.format(), price.toString());
+    }
+
+    @Test
+    public void fromFirestore_decodesNumbersAndNumericText() {
+        assertEquals(Money.vnd(1500000), Money.fromFirestore(1500000L));
+        assertEquals(Money.vnd(42), Money.fromFirestore(42));
+        assertEquals(Money.vnd(1500001), Money.fromFirestore(1500000.6));
+        assertEquals(Money.vnd(900000), Money.fromFirestore("900000"));
+        assertNull(Money.fromFirestore("Contact provider"));
+        assertNull(Money.fromFirestore(null));
+        assertNull(Money.fromFirestore(true));
+    }
+
+    @Test
+    public void toFirestore_isAWholeNumberOfDong() {
+        assertEquals(1500000L, Money.vnd(1500000).toFirestore());
+    }
+
+    @Test
+    public void arithmetic_isExact() {
+        Money price = Money.vnd(1500000);
+
+        assertEquals(Money.vnd(4500000), price.times(3));
+        assertEquals(Money.vnd(2000000), price.plus(Money.vnd(500000)));
+        assertEquals(Money.vnd(1800000), price.timesPercent(120));
+        // Half a đồng rounds up
+        assertEquals(Money.vnd(3), Money.vnd(5).timesPercent(50));
+        assertTrue(Money.vnd(1).isLessThan(Money.vnd(2)));
+        assertFalse(Money.vnd(2).isLessThan(Money.vnd(2)));
+    }
+
+    @Test
+    public void arithmetic_returnsTheSameInstanceWhenNothingChanges() {
+        Money price = Money.vnd(1500000);
+
+        assertSame(price, price.times(1));
+        assertSame(price, price.plus(Money.ZERO_VND));
+        assertSame(price, price.timesPercent(100));
+        assertSame(Money.ZERO_VND, Money.vnd(0));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void plus_rejectsADifferentCurrency() {
+        Money.vnd(1000).plus(Money.of(100, "USD"));
+    }
+
+    @Test(expected = ArithmeticException.class)
+    public void times_failsOnOverflow() {
+        Money.vnd(Long.MAX_VALUE / 2).times(3);
+    }
+
+    @Test
+    public void equality_comparesAmountAndCurrency() {
+        assertEquals(Money.vnd(1000), Money.vnd(1000));
+        assertEquals(Money.vnd(1000).hashCode(), Money.vnd(1000).hashCode());
+        assertNotEquals(Money.vnd(1000), Money.vnd(1001));
+        assertNotEquals(Money.vnd(1000), Money.of(1000, "USD"));
+    }
+}
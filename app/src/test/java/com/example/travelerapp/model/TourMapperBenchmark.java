@@ -0,0 +1,141 @@
+package com.example.travelerapp.model;
+
+import com.example.travelerapp.Benchmark;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Times TourMapper against the containsKey chain TourRepository used before it, on
+ * documents that use preferred and fallback aliases. See {@link Benchmark}.
+ */
+public final class TourMapperBenchmark {
+    private static final int DOCUMENTS = 1_000;
+    private static final int ROUNDS = 300;
+
+    private TourMapperBenchmark() {
+    }
+
+    public static void main(String[] args) {
+        List<Map<String, Object>> documents = new ArrayList<>(DOCUMENTS);
+        for (int i = 0; i < DOCUMENTS; i++) {
+            documents.add(document(i));
+        }
+
+        long mapperNs = Benchmark.nanosPerOperation(ROUNDS / 2, ROUNDS / 2, DOCUMENTS,
+                () -> mapAll(documents, true));
+        long chainNs = Benchmark.nanosPerOperation(ROUNDS / 2, ROUNDS / 2, DOCUMENTS,
+                () -> mapAll(documents, false));
+        Benchmark.report("TourMapper %d ns, containsKey chain %d ns per document", mapperNs, chainNs);
+    }
+
+    private static long mapAll(List<Map<String, Object>> documents, boolean useMapper) {
+        long titles = 0;
+        for (Map<String, Object> document : documents) {
+            Tour tour = useMapper ? TourMapper.fromMap("t", document) : mapWithContainsKeyChain("t", document);
+            titles += tour.getTitle().length();
+        }
+        return titles;
+    }
+
+    private static Map<String, Object> document(int i) {
+        Map<String, Object> data = new HashMap<>();
+        // Every other document uses the fallback aliases older tours were stored with
+        data.put(i % 2 == 0 ? "title" : "nameTour", "Tour " + i);
+        data.put(i % 2 == 0 ? "tourImageUrl" : "image", "https://example.com/" + i + ".jpg");
+        data.put(i % 2 == 0 ? "rating" : "review", 8.0 + (i % 20) / 10.0);
+        data.put("description", "Description of tour " + i);
+        data.put("status", "active");
+        data.put("category", "Sea");
+        data.put("providerPhone", "0901234567");
+        data.put("pickupLoc", "Old Quarter");
+        data.put("address", "Address " + i);
+        if (i % 3 != 0) {
+            data.put("location", "Location " + i);
+        }
+        data.put("price", 1_000_000L + i);
+        data.put("reviewCount", (long) (i % 50));
+        data.put("createdBy", "admin");
+        data.put("updatedAt", 1_700_000_000_000L);
+        return data;
+    }
+
+    // The mapping TourRepository ran for every document before TourMapper, kept as the baseline
+    private static Tour mapWithContainsKeyChain(String id, Map<String, Object> data) {
+        Tour tour = new Tour();
+        tour.setId(id);
+
+        if (data.containsKey("title")) {
+            tour.setTitle(getString(data, "title"));
+        } else if (data.containsKey("nameTour")) {
+            tour.setTitle(getString(data, "nameTour"));
+        } else if (data.containsKey("name")) {
+            tour.setTitle(getString(data, "name"));
+        }
+        if (data.containsKey("description")) {
+            tour.setDescription(getString(data, "description"));
+        }
+        if (data.containsKey("tourImageUrl")) {
+            tour.setTourImageUrl(getString(data, "tourImageUrl"));
+        } else if (data.containsKey("imageUrl")) {
+            tour.setTourImageUrl(getString(data, "imageUrl"));
+        } else if (data.containsKey("image")) {
+            tour.setTourImageUrl(getString(data, "image"));
+        }
+        if (data.containsKey("status")) {
+            tour.setStatus(getString(data, "status"));
+        }
+        if (data.containsKey("rating")) {
+            tour.setRating(getDouble(data, "rating"));
+        } else if (data.containsKey("review")) {
+            tour.setRating(getDouble(data, "review"));
+        }
+        if (data.containsKey("category")) {
+            tour.setCategory(getString(data, "category"));
+        }
+        if (data.containsKey("providerPhone")) {
+            tour.setProviderPhone(getString(data, "providerPhone"));
+        }
+        if (data.containsKey("pickupLoc")) {
+            tour.setPickupLoc(getString(data, "pickupLoc"));
+        }
+        if (data.containsKey("address")) {
+            tour.setAddress(getString(data, "address"));
+        }
+        if (data.containsKey("location")) {
+            tour.setLocation(getString(data, "location"));
+        } else if (tour.getAddress() != null) {
+            tour.setLocation(tour.getAddress());
+        }
+        if (data.containsKey("price")) {
+            tour.setPriceValue(data.get("price"));
+        }
+        if (data.containsKey("reviewCount")) {
+            tour.setReviewCount(String.valueOf(getDouble(data, "reviewCount").longValue()));
+        }
+        return tour;
+    }
+
+    private static String getString(Map<String, Object> data, String key) {
+        Object value = data.get(key);
+        return value != null ? value.toString() : "";
+    }
+
+    private static Double getDouble(Map<String, Object> data, String key) {
+        Object value = data.get(key);
+        if (value instanceof Double) {
+            return (Double) value;
+        } else if (value instanceof Long) {
+            return ((Long) value).doubleValue();
+        } else if (value instanceof String) {
+            try {
+                return Double.parseDouble((String) value);
+            } catch (NumberFormatException e) {
+                return 0.0;
+            }
+        }
+        return 0.0;
+    }
+}
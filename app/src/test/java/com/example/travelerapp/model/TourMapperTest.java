@@ -0,0 +1,147 @@
+package com.example.travelerapp.model;
+
+import com.google.firebase.Timestamp;
+
+import org.junit.Test;
+
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+public class TourMapperTest {
+
+    @Test
+    public void fromMap_readsPlainFields() {
+        Map<String, Object> data = new HashMap<>();
+        data.put("title", "Ha Long Bay");
+        data.put("description", "Two days on the bay");
+        data.put("tourImageUrl", "https://example.com/halong.jpg");
+        data.put("status", "active");
+        data.put("rating", 9.2);
+        data.put("category", "Sea");
+        data.put("providerPhone", "0901234567");
+        data.put("pickupLoc", "Old Quarter");
+        data.put("location", "Quang Ninh");
+
+        Tour tour = TourMapper.fromMap("t1", data);
+
+        assertEquals("t1", tour.getId());
+        assertEquals("Ha Long Bay", tour.getTitle());
+        assertEquals("Two days on the bay", tour.getDescription());
+        assertEquals("https://example.com/halong.jpg", tour.getTourImageUrl());
+        assertEquals("active", tour.getStatus());
+        assertEquals(9.2, tour.getRating(), 0.0);
+        assertEquals("Sea", tour.getCategory());
+        assertEquals("0901234567", tour.getProviderPhone());
+        assertEquals("Old Quarter", tour.getPickupLoc());
+        assertEquals("Quang Ninh", tour.getLocation());
+    }
+
+    @Test
+    public void fromMap_preferredAliasWinsWhateverTheKeyOrder() {
+        Map<String, Object> fallbackFirst = new LinkedHashMap<>();
+        fallbackFirst.put("name", "Fallback");
+        fallbackFirst.put("nameTour", "Second");
+        fallbackFirst.put("title", "Preferred");
+        fallbackFirst.put("image", "image.jpg");
+        fallbackFirst.put("tourImageUrl", "preferred.jpg");
+        fallbackFirst.put("review", 3L);
+        fallbackFirst.put("rating", 8.5);
+
+        Tour tour = TourMapper.fromMap("t1", fallbackFirst);
+
+        assertEquals("Preferred", tour.getTitle());
+        assertEquals("preferred.jpg", tour.getTourImageUrl());
+        assertEquals(8.5, tour.getRating(), 0.0);
+
+        Map<String, Object> preferredFirst = new LinkedHashMap<>();
+        preferredFirst.put("title", "Preferred");
+        preferredFirst.put("name", "Fallback");
+
+        assertEquals("Preferred", TourMapper.fromMap("t2", preferredFirst).getTitle());
+    }
+
+    @Test
+    public void fromMap_usesFallbackAliasWhenPreferredIsMissing() {
+        Map<String, Object> data = new HashMap<>();
+        data.put("nameTour", "Sapa Trek");
+        data.put("imageUrl", "sapa.jpg");
+        data.put("review", 7L);
+
+        Tour tour = TourMapper.fromMap("t1", data);
+
+        assertEquals("Sapa Trek", tour.getTitle());
+        assertEquals("sapa.jpg", tour.getTourImageUrl());
+        assertEquals(7.0, tour.getRating(), 0.0);
+    }
+
+    @Test
+    public void fromMap_locationFallsBackToAddress() {
+        Map<String, Object> data = new HashMap<>();
+        data.put("address", "12 Trang Tien");
+
+        assertEquals("12 Trang Tien", TourMapper.fromMap("t1", data).getLocation());
+
+        data.put("location", "Hanoi");
+        assertEquals("Hanoi", TourMapper.fromMap("t1", data).getLocation());
+    }
+
+    @Test
+    public void fromMap_fixedPriceWinsOverMinPriceSummary() {
+        Map<String, Object> data = new HashMap<>();
+        data.put("minPrice", 900000L);
+        data.put("price", 1500000L);
+
+        Tour tour = TourMapper.fromMap("t1", data);
+
+        assertEquals(Money.vnd(1500000), tour.getPriceAmount());
+        assertEquals("1,500,000 VND", tour.getPrice());
+    }
+
+    @Test
+    public void fromMap_readsMinPriceSummaryAndItsDate() {
+        Date cheapestDate = new Date(1_800_000_000_000L);
+        Map<String, Object> data = new HashMap<>();
+        data.put("minPrice", 900000.0);
+        data.put("minPriceDate", new Timestamp(cheapestDate));
+
+        Tour tour = TourMapper.fromMap("t1", data);
+
+        assertEquals(Money.vnd(900000), tour.getPriceAmount());
+        assertEquals(cheapestDate, tour.getMinPriceDate());
+    }
+
+    @Test
+    public void fromMap_keepsPriceTextThatIsNotANumber() {
+        Map<String, Object> data = new HashMap<>();
+        data.put("price", "Contact provider");
+
+        Tour tour = TourMapper.fromMap("t1", data);
+
+        assertEquals("Contact provider", tour.getPrice());
+        assertFalse(tour.getPriceAmount().isPositive());
+    }
+
+    @Test
+    public void fromMap_readsReviewCountAsWholeNumber() {
+        Map<String, Object> data = new HashMap<>();
+        data.put("reviewCount", 12.0);
+
+        assertEquals("12", TourMapper.fromMap("t1", data).getReviewCount());
+    }
+
+    @Test
+    public void fromMap_ignoresUnknownKeysAndNullValues() {
+        Map<String, Object> data = new HashMap<>();
+        data.put("unknown", "value");
+        data.put("title", null);
+
+        Tour tour = TourMapper.fromMap("t1", data);
+
+        assertEquals("", tour.getTitle());
+        assertNull(tour.getDescription());
+    }
+}
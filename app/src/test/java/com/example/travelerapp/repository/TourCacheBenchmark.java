@@ -0,0 +1,75 @@
+package com.example.travelerapp.repository;
+
+import com.example.travelerapp.Benchmark;
+import com.example.travelerapp.model.Tour;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Times TourCache lookups and in-place replacements for catalogs of 10 to 100,000 tours,
+ * next to the linear scan the repository used before. The indexed cost per operation
+ * should stay flat while the scan grows with the catalog. See {@link Benchmark}.
+ */
+public final class TourCacheBenchmark {
+    private static final int[] SIZES = {10, 100, 1_000, 10_000, 100_000};
+    private static final int LOOKUPS = 200_000;
+    // The scan is quadratic over a run, so it gets fewer lookups
+    private static final int SCAN_LOOKUPS = 2_000;
+
+    private TourCacheBenchmark() {
+    }
+
+    public static void main(String[] args) {
+        for (int size : SIZES) {
+            List<Tour> tours = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                Tour tour = new Tour();
+                tour.setId("tour-" + i);
+                tours.add(tour);
+            }
+            TourCache cache = new TourCache();
+            cache.replaceAll(tours);
+            String[] ids = new String[LOOKUPS];
+            for (int i = 0; i < LOOKUPS; i++) {
+                ids[i] = "tour-" + ((i * 7919L) % size);
+            }
+
+            long getNs = Benchmark.nanosPerOperation(1, 1, LOOKUPS, () -> lookups(cache, ids));
+            long putNs = Benchmark.nanosPerOperation(1, 1, LOOKUPS, () -> puts(cache, ids));
+            long scanNs = Benchmark.nanosPerOperation(1, 1, SCAN_LOOKUPS, () -> scans(tours, ids));
+            Benchmark.report("TourCache %,7d tours: get %4d ns, put %4d ns, linear scan %,9d ns",
+                    size, getNs, putNs, scanNs);
+        }
+    }
+
+    private static long lookups(TourCache cache, String[] ids) {
+        long found = 0;
+        for (String id : ids) {
+            if (cache.get(id) != null) {
+                found++;
+            }
+        }
+        return found;
+    }
+
+    private static long puts(TourCache cache, String[] ids) {
+        for (String id : ids) {
+            cache.put(cache.get(id));
+        }
+        return cache.size();
+    }
+
+    private static long scans(List<Tour> tours, String[] ids) {
+        long found = 0;
+        for (int i = 0; i < SCAN_LOOKUPS; i++) {
+            for (Tour tour : tours) {
+                if (tour.getId().equals(ids[i])) {
+                    found++;
+                    break;
+                }
+            }
+        }
+        return found;
+    }
+}
@@ -0,0 +1,111 @@
+package com.example.travelerapp.repository;
+
+import com.example.travelerapp.model.Tour;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class TourCacheTest {
+    private TourCache cache;
+
+    @Before
+    public void setUp() {
+        cache = new TourCache();
+    }
+
+    @Test
+    public void put_appendsNewToursInOrder() {
+        cache.put(tour("a", "A"));
+        cache.put(tour("b", "B"));
+        cache.put(tour("c", "C"));
+
+        assertEquals(Arrays.asList("a", "b", "c"), ids(cache.snapshot()));
+        assertEquals("B", cache.get("b").getTitle());
+        assertTrue(cache.contains("c"));
+        assertNull(cache.get("d"));
+    }
+
+    @Test
+    public void put_replacesTourWithSameIdInItsSlot() {
+        cache.replaceAll(Arrays.asList(tour("a", "A"), tour("b", "B"), tour("c", "C")));
+
+        cache.put(tour("b", "B2"));
+
+        assertEquals(3, cache.size());
+        assertEquals(Arrays.asList("a", "b", "c"), ids(cache.snapshot()));
+        assertEquals("B2", cache.get("b").getTitle());
+        assertEquals("B2", cache.snapshot().get(1).getTitle());
+    }
+
+    @Test
+    public void remove_keepsOrderAndReindexesLaterSlots() {
+        cache.replaceAll(Arrays.asList(tour("a", "A"), tour("b", "B"), tour("c", "C"), tour("d", "D")));
+
+        assertTrue(cache.remove("b"));
+
+        assertEquals(Arrays.asList("a", "c", "d"), ids(cache.snapshot()));
+        assertFalse(cache.contains("b"));
+        assertEquals("C", cache.get("c").getTitle());
+        assertEquals("D", cache.get("d").getTitle());
+
+        // Replacing after a removal must hit the shifted slot
+        cache.put(tour("d", "D2"));
+        assertEquals(Arrays.asList("a", "c", "d"), ids(cache.snapshot()));
+        assertEquals("D2", cache.snapshot().get(2).getTitle());
+    }
+
+    @Test
+    public void remove_unknownIdChangesNothing() {
+        cache.put(tour("a", "A"));
+
+        assertFalse(cache.remove("x"));
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    public void replaceAll_dropsPreviousTours() {
+        cache.replaceAll(Arrays.asList(tour("a", "A"), tour("b", "B")));
+
+        cache.replaceAll(Arrays.asList(tour("c", "C")));
+
+        assertEquals(Arrays.asList("c"), ids(cache.snapshot()));
+        assertFalse(cache.contains("a"));
+        assertNull(cache.get("b"));
+    }
+
+    @Test
+    public void snapshot_isAnUnmodifiableCopy() {
+        cache.put(tour("a", "A"));
+        List<Tour> snapshot = cache.snapshot();
+
+        cache.put(tour("b", "B"));
+
+        assertEquals(1, snapshot.size());
+        try {
+            snapshot.add(tour("c", "C"));
+            fail("Snapshot should be unmodifiable");
+        } catch (UnsupportedOperationException expected) {
+            // Published lists must not change under their observers
+        }
+    }
+
+    private static Tour tour(String id, String title) {
+        Tour tour = new Tour();
+        tour.setId(id);
+        tour.setTitle(title);
+        return tour;
+    }
+
+    private static List<String> ids(List<Tour> tours) {
+        String[] ids = new String[tours.size()];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = tours.get(i).getId();
+        }
+        return Arrays.asList(ids);
+    }
+}
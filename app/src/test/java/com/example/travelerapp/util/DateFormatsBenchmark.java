@@ -0,0 +1,58 @@
+package com.example.travelerapp.util;
+
+import com.example.travelerapp.Benchmark;
+
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.Locale;
+import java.util.TimeZone;
+
+/**
+ * Replays the date strip's bind path: a day label and a weekday label for each of 14
+ * days, bound over and over as the strip scrolls, next to the SimpleDateFormat per bind
+ * the adapter used before. See {@link Benchmark}.
+ */
+public final class DateFormatsBenchmark {
+    private static final long MILLIS_PER_DAY = 24L * 60 * 60 * 1000;
+    private static final int STRIP_DAYS = 14;
+    private static final int BINDS = 200_000;
+
+    private static final Date[] DAYS = new Date[STRIP_DAYS];
+
+    private DateFormatsBenchmark() {
+    }
+
+    public static void main(String[] args) {
+        TimeZone.setDefault(TimeZone.getTimeZone("Asia/Ho_Chi_Minh"));
+        long start = 1_772_668_800_000L; // 5 March 2026
+        for (int i = 0; i < STRIP_DAYS; i++) {
+            DAYS[i] = new Date(start + i * MILLIS_PER_DAY);
+        }
+
+        long dateFormatsNs = Benchmark.nanosPerOperation(1, 1, BINDS, () -> bindWithDateFormats(BINDS));
+        long simpleDateFormatNs = Benchmark.nanosPerOperation(1, 1, BINDS / 10,
+                () -> bindWithSimpleDateFormat(BINDS / 10));
+        Benchmark.report("Date strip bind: DateFormats %d ns, new SimpleDateFormat %d ns",
+                dateFormatsNs, simpleDateFormatNs);
+    }
+
+    private static long bindWithDateFormats(int binds) {
+        long length = 0;
+        for (int i = 0; i < binds; i++) {
+            Date day = DAYS[i % STRIP_DAYS];
+            length += DateFormats.formatDay(day, DateFormats.DAY_MONTH).length();
+            length += DateFormats.formatDay(day, DateFormats.DAY_OF_WEEK).length();
+        }
+        return length;
+    }
+
+    private static long bindWithSimpleDateFormat(int binds) {
+        long length = 0;
+        for (int i = 0; i < binds; i++) {
+            Date day = DAYS[i % STRIP_DAYS];
+            length += new SimpleDateFormat(DateFormats.DAY_MONTH, Locale.getDefault()).format(day).length();
+            length += new SimpleDateFormat(DateFormats.DAY_OF_WEEK, Locale.getDefault()).format(day).length();
+        }
+        return length;
+    }
+}
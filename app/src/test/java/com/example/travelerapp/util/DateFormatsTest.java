@@ -0,0 +1,105 @@
+package com.example.travelerapp.util;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Calendar;
+import java.util.Date;
+import java.util.Locale;
+import java.util.TimeZone;
+
+import static org.junit.Assert.*;
+
+public class DateFormatsTest {
+    private static final long MILLIS_PER_DAY = 24L * 60 * 60 * 1000;
+
+    private TimeZone originalZone;
+
+    @Before
+    public void setUp() {
+        originalZone = TimeZone.getDefault();
+        TimeZone.setDefault(TimeZone.getTimeZone("UTC"));
+        DateFormats.clearCaches();
+    }
+
+    @After
+    public void tearDown() {
+        TimeZone.setDefault(originalZone);
+        DateFormats.clearCaches();
+    }
+
+    @Test
+    public void formatDay_formatsTheCalendarDay() {
+        Date date = utc(2026, Calendar.MARCH, 5, 14, 30);
+
+        assertEquals("05 Mar", DateFormats.formatDay(date, DateFormats.DAY_MONTH, Locale.US));
+        assertEquals("05 Mar 2026", DateFormats.formatDay(date, DateFormats.DAY_MONTH_YEAR, Locale.US));
+        assertEquals("Thu", DateFormats.formatDay(date, DateFormats.DAY_OF_WEEK, Locale.US));
+        assertEquals("05/03/2026", DateFormats.formatDay(date, DateFormats.NUMERIC_DATE, Locale.US));
+        assertEquals("March 5, 2026", DateFormats.formatDay(date, DateFormats.LONG_DATE, Locale.US));
+    }
+
+    @Test
+    public void formatDay_returnsTheCachedLabelForAnyTimeOfTheSameDay() {
+        String morning = DateFormats.formatDay(utc(2026, Calendar.MARCH, 5, 0, 0), DateFormats.DAY_MONTH, Locale.US);
+        String evening = DateFormats.formatDay(utc(2026, Calendar.MARCH, 5, 23, 59), DateFormats.DAY_MONTH, Locale.US);
+
+        assertSame(morning, evening);
+    }
+
+    @Test
+    public void formatDay_keepsDaysThatShareACacheSlotApart() {
+        Date first = utc(2026, Calendar.MARCH, 5, 12, 0);
+        // The label cache has 64 slots, so these two days map to the same one
+        Date second = new Date(first.getTime() + 64 * MILLIS_PER_DAY);
+
+        assertEquals("05 Mar", DateFormats.formatDay(first, DateFormats.DAY_MONTH, Locale.US));
+        assertEquals("08 May", DateFormats.formatDay(second, DateFormats.DAY_MONTH, Locale.US));
+        assertEquals("05 Mar", DateFormats.formatDay(first, DateFormats.DAY_MONTH, Locale.US));
+    }
+
+    @Test
+    public void formatDay_cachesEachLocaleSeparately() {
+        Date date = utc(2026, Calendar.MARCH, 5, 12, 0);
+
+        String english = DateFormats.formatDay(date, DateFormats.DAY_OF_WEEK, Locale.US);
+        String french = DateFormats.formatDay(date, DateFormats.DAY_OF_WEEK, Locale.FRANCE);
+
+        assertEquals("Thu", english);
+        assertNotEquals(english, french);
+        assertEquals(english, DateFormats.formatDay(date, DateFormats.DAY_OF_WEEK, Locale.US));
+        assertEquals(french, DateFormats.formatDay(date, DateFormats.DAY_OF_WEEK, Locale.FRANCE));
+    }
+
+    @Test
+    public void formatDay_usesTheTimeZoneAfterCachesAreCleared() {
+        Date lateEvening = utc(2026, Calendar.MARCH, 5, 23, 0);
+        assertEquals("05 Mar", DateFormats.formatDay(lateEvening, DateFormats.DAY_MONTH, Locale.US));
+
+        TimeZone.setDefault(TimeZone.getTimeZone("Asia/Ho_Chi_Minh"));
+        DateFormats.clearCaches();
+
+        assertEquals("06 Mar", DateFormats.formatDay(lateEvening, DateFormats.DAY_MONTH, Locale.US));
+    }
+
+    @Test
+    public void formatDateTime_includesTheTime() {
+        Date date = utc(2026, Calendar.MARCH, 5, 14, 30);
+
+        assertEquals("14:30, 05/03/2026", DateFormats.formatDateTime(date, DateFormats.TIME_AND_DATE, Locale.US));
+    }
+
+    @Test
+    public void nullDatesFormatAsEmptyText() {
+        assertEquals("", DateFormats.formatDay(null, DateFormats.DAY_MONTH));
+        assertEquals("", DateFormats.formatDateTime(null, DateFormats.TIME_AND_DATE));
+    }
+
+    private static Date utc(int year, int month, int day, int hour, int minute) {
+        Calendar calendar = Calendar.getInstance(TimeZone.getTimeZone("UTC"));
+        calendar.clear();
+        calendar.set(year, month, day, hour, minute);
+        return calendar.getTime();
+    }
+}
@@ -0,0 +1,211 @@
+package com.example.travelerapp.util;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+public class ImageDiskCacheTest {
+    private static final long FRESH_UNTIL = Long.MAX_VALUE;
+
+    private File directory;
+    private File journal;
+
+    @Before
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("image-cache").toFile();
+        journal = new File(directory, "journal");
+    }
+
+    @After
+    public void tearDown() {
+        File[] files = directory.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+        directory.delete();
+    }
+
+    @Test
+    public void put_isReadBackAfterRestart() {
+        ImageDiskCache cache = new ImageDiskCache(directory, 1024);
+        cache.put("https://img/a", bytes(10, 1), "\"etag-a\"", "Mon, 01 Jan 2024 00:00:00 GMT", FRESH_UNTIL);
+
+        ImageDiskCache.Entry entry = new ImageDiskCache(directory, 1024).get("https://img/a");
+
+        assertNotNull(entry);
+        assertEquals(10, entry.size);
+        assertEquals("\"etag-a\"", entry.etag);
+        assertEquals("Mon, 01 Jan 2024 00:00:00 GMT", entry.lastModified);
+        assertTrue(entry.isFresh());
+        assertArrayEquals(bytes(10, 1), new ImageDiskCache(directory, 1024).read(entry));
+    }
+
+    @Test
+    public void truncatedRecord_isDroppedAndLaterRecordsSurvive() throws IOException {
+        ImageDiskCache cache = new ImageDiskCache(directory, 1024);
+        cache.put("https://img/a", bytes(10, 1), null, null, FRESH_UNTIL);
+        File fileA = cache.get("https://img/a").file;
+        cache.put("https://img/b", bytes(10, 2), null, null, FRESH_UNTIL);
+        File fileB = otherImageFile(fileA);
+
+        // Cut the last record short, as a write stopped by the app being killed would
+        try (RandomAccessFile file = new RandomAccessFile(journal, "rw")) {
+            file.setLength(file.length() - 3);
+        }
+
+        ImageDiskCache reloaded = new ImageDiskCache(directory, 1024);
+        assertNotNull(reloaded.get("https://img/a"));
+        assertNull(reloaded.get("https://img/b"));
+        assertFalse(fileB.exists());
+
+        // The damaged tail was rewritten away, so a record appended now is not lost behind it
+        reloaded.put("https://img/c", bytes(10, 3), null, null, FRESH_UNTIL);
+        ImageDiskCache again = new ImageDiskCache(directory, 1024);
+        assertNotNull(again.get("https://img/a"));
+        assertNotNull(again.get("https://img/c"));
+    }
+
+    @Test
+    public void unknownRecord_stopsReadingAndKeepsEarlierEntries() throws IOException {
+        ImageDiskCache cache = new ImageDiskCache(directory, 1024);
+        cache.put("https://img/a", bytes(10, 1), null, null, FRESH_UNTIL);
+
+        try (DataOutputStream out = new DataOutputStream(new FileOutputStream(journal, true))) {
+            out.writeByte(42);
+            out.writeInt(123456);
+        }
+
+        ImageDiskCache reloaded = new ImageDiskCache(directory, 1024);
+        assertNotNull(reloaded.get("https://img/a"));
+        reloaded.put("https://img/b", bytes(10, 2), null, null, FRESH_UNTIL);
+
+        ImageDiskCache again = new ImageDiskCache(directory, 1024);
+        assertNotNull(again.get("https://img/a"));
+        assertNotNull(again.get("https://img/b"));
+    }
+
+    @Test
+    public void oversizedStringLength_isTreatedAsCorrupt() throws IOException {
+        ImageDiskCache cache = new ImageDiskCache(directory, 1024);
+        cache.put("https://img/a", bytes(10, 1), null, null, FRESH_UNTIL);
+
+        // A remove record whose URL claims to be far longer than any record ever written
+        try (DataOutputStream out = new DataOutputStream(new FileOutputStream(journal, true))) {
+            out.writeByte(2);
+            out.writeInt(Integer.MAX_VALUE);
+        }
+
+        assertNotNull(new ImageDiskCache(directory, 1024).get("https://img/a"));
+    }
+
+    @Test
+    public void unknownJournalFormat_startsEmpty() throws IOException {
+        ImageDiskCache cache = new ImageDiskCache(directory, 1024);
+        cache.put("https://img/a", bytes(10, 1), null, null, FRESH_UNTIL);
+        File fileA = cache.get("https://img/a").file;
+
+        try (RandomAccessFile file = new RandomAccessFile(journal, "rw")) {
+            file.writeInt(0xCAFEBABE);
+        }
+
+        assertNull(new ImageDiskCache(directory, 1024).get("https://img/a"));
+        assertFalse(fileA.exists());
+    }
+
+    @Test
+    public void redundantRecords_areCompactedOnLoad() {
+        ImageDiskCache cache = new ImageDiskCache(directory, 1024);
+        cache.put("https://img/a", bytes(10, 1), null, null, FRESH_UNTIL);
+        ImageDiskCache.Entry entry = cache.get("https://img/a");
+        for (int i = 0; i < 600; i++) {
+            entry = cache.refresh(entry, FRESH_UNTIL - i);
+        }
+        long before = journal.length();
+
+        ImageDiskCache reloaded = new ImageDiskCache(directory, 1024);
+        ImageDiskCache.Entry reloadedEntry = reloaded.get("https://img/a");
+
+        assertNotNull(reloadedEntry);
+        assertEquals(FRESH_UNTIL - 599, reloadedEntry.freshUntil);
+        assertTrue(journal.length() < before / 100);
+    }
+
+    @Test
+    public void overBudget_evictsLeastRecentlyUsed() {
+        ImageDiskCache cache = new ImageDiskCache(directory, 100);
+        cache.put("https://img/a", bytes(40, 1), null, null, FRESH_UNTIL);
+        cache.put("https://img/b", bytes(40, 2), null, null, FRESH_UNTIL);
+        File fileB = cache.get("https://img/b").file;
+
+        // Using a makes b the least recently used one
+        assertNotNull(cache.get("https://img/a"));
+        cache.put("https://img/c", bytes(40, 3), null, null, FRESH_UNTIL);
+
+        assertNotNull(cache.get("https://img/a"));
+        assertNull(cache.get("https://img/b"));
+        assertNotNull(cache.get("https://img/c"));
+        assertFalse(fileB.exists());
+
+        ImageDiskCache reloaded = new ImageDiskCache(directory, 100);
+        assertNotNull(reloaded.get("https://img/a"));
+        assertNull(reloaded.get("https://img/b"));
+        assertNotNull(reloaded.get("https://img/c"));
+    }
+
+    @Test
+    public void recencyIsKeptAcrossRestarts() {
+        ImageDiskCache cache = new ImageDiskCache(directory, 100);
+        cache.put("https://img/a", bytes(40, 1), null, null, FRESH_UNTIL);
+        cache.put("https://img/b", bytes(40, 2), null, null, FRESH_UNTIL);
+
+        ImageDiskCache reloaded = new ImageDiskCache(directory, 100);
+        assertNotNull(reloaded.get("https://img/a"));
+
+        ImageDiskCache again = new ImageDiskCache(directory, 100);
+        again.put("https://img/c", bytes(40, 3), null, null, FRESH_UNTIL);
+        assertNotNull(again.get("https://img/a"));
+        assertNull(again.get("https://img/b"));
+    }
+
+    @Test
+    public void fileOfWrongSize_isForgotten() throws IOException {
+        ImageDiskCache cache = new ImageDiskCache(directory, 1024);
+        cache.put("https://img/a", bytes(10, 1), null, null, FRESH_UNTIL);
+        File fileA = cache.get("https://img/a").file;
+
+        try (RandomAccessFile file = new RandomAccessFile(fileA, "rw")) {
+            file.setLength(4);
+        }
+
+        assertNull(new ImageDiskCache(directory, 1024).get("https://img/a"));
+        assertFalse(fileA.exists());
+    }
+
+    // The one image file besides the given one, found without touching the cache
+    private File otherImageFile(File known) {
+        for (File file : directory.listFiles()) {
+            if (!file.equals(known) && !file.equals(journal)) {
+                return file;
+            }
+        }
+        throw new AssertionError("No other image file");
+    }
+
+    private static byte[] bytes(int length, int value) {
+        byte[] data = new byte[length];
+        Arrays.fill(data, (byte) value);
+        return data;
+    }
+}